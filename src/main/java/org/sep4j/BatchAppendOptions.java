@@ -0,0 +1,92 @@
+package org.sep4j;
+
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * options about how a {@link BatchAppender} batches the records. The records
+ * are appended to the file when the batch is full, every flush interval, or
+ * when the appender is flushed or closed, whichever comes first.
+ *
+ * The inherited "streaming" and "tempDir" options are used for each append,
+ * see {@link Ssio#appendTo(java.util.Map, java.util.Collection, java.io.File, String, java.util.List, SaveOptions)}
+ *
+ * @author chenjianjx
+ */
+public class BatchAppendOptions extends SaveOptions {
+
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+	public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+
+	public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+	/**
+	 * how many records are kept in memory before they are appended
+	 */
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	/**
+	 * the records kept in memory are appended at this interval. 0 means they
+	 * are only appended when the batch is full or on flush/close
+	 */
+	private long flushIntervalMillis = DEFAULT_FLUSH_INTERVAL_MILLIS;
+
+	/**
+	 * where the timed flushes run. Null means a daemon thread owned by the
+	 * appender, which is stopped when the appender is closed
+	 */
+	private ScheduledExecutorService scheduler;
+
+	/**
+	 * how many times a batch is tried if it fails to be appended because of an
+	 * I/O error. After that it is dropped. A batch failing for other reasons,
+	 * e.g. the file is not a spreadsheet, is dropped at once
+	 */
+	private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+
+	/**
+	 * if some datum is wrong, write this place holder to the cell
+	 */
+	private String datumErrPlaceholder;
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public long getFlushIntervalMillis() {
+		return flushIntervalMillis;
+	}
+
+	public void setFlushIntervalMillis(long flushIntervalMillis) {
+		this.flushIntervalMillis = flushIntervalMillis;
+	}
+
+	public ScheduledExecutorService getScheduler() {
+		return scheduler;
+	}
+
+	public void setScheduler(ScheduledExecutorService scheduler) {
+		this.scheduler = scheduler;
+	}
+
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	public void setMaxAttempts(int maxAttempts) {
+		this.maxAttempts = maxAttempts;
+	}
+
+	public String getDatumErrPlaceholder() {
+		return datumErrPlaceholder;
+	}
+
+	public void setDatumErrPlaceholder(String datumErrPlaceholder) {
+		this.datumErrPlaceholder = datumErrPlaceholder;
+	}
+
+}
@@ -0,0 +1,294 @@
+package org.sep4j;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * a thread-safe appender of one spreadsheet file. Records added from any
+ * thread are kept in memory and appended to the file in batches, so the file
+ * is rewritten once per batch instead of once per call. The file is replaced
+ * in one move each time, so a reader never sees a half-written file.
+ *
+ * If a batch fails to be appended because of an I/O error, its records are put
+ * back to the front of the queue and will be tried again by the next flush, up
+ * to {@link BatchAppendOptions#getMaxAttempts()} times. Otherwise, or after
+ * that, the batch is dropped and the failure is thrown. There is no next flush
+ * after {@link #close()}, so it tries the batch again at once until it is
+ * appended or dropped; the records of a failed close are lost. A batch of a csv file
+ * is never tried again, since the file is appended to in place and may hold
+ * part of the batch already. The failure of a timed
+ * flush is thrown by the next call of {@link #add(Object)},
+ * {@link #addAll(Collection)}, {@link #flush()} or {@link #close()}.
+ *
+ * Please always {@link #close()} it, otherwise the records still in memory will
+ * be lost.
+ *
+ * @author chenjianjx
+ *
+ * @param <T>
+ *            the java type of records
+ */
+public class BatchAppender<T> implements Closeable {
+
+	private final File file;
+	private final int batchSize;
+	private final int maxAttempts;
+	private final Consumer<List<T>> appendAction;
+
+	private final Object queueLock = new Object();
+	private List<T> pending = new ArrayList<T>();
+	private int flushingCount;
+
+	/**
+	 * how many times the batch at the front of the queue has failed
+	 */
+	private int failedAttempts;
+	private boolean closed;
+
+	/**
+	 * makes sure the batches are appended one by one, in order
+	 */
+	private final Object flushLock = new Object();
+
+	private final ScheduledExecutorService ownScheduler;
+	private final ScheduledFuture<?> timer;
+	private final AtomicReference<RuntimeException> timedFlushFailure = new AtomicReference<RuntimeException>();
+
+	private BatchAppender(File file, BatchAppendOptions options, Consumer<List<T>> appendAction) {
+		if (file == null) {
+			throw new IllegalArgumentException("The file cannot be null");
+		}
+		if (options == null) {
+			throw new IllegalArgumentException("The options cannot be null");
+		}
+		if (options.getBatchSize() <= 0) {
+			throw new IllegalArgumentException("the batchSize must be positive");
+		}
+		if (options.getMaxAttempts() <= 0) {
+			throw new IllegalArgumentException("the maxAttempts must be positive");
+		}
+		if (options.getFlushIntervalMillis() < 0) {
+			throw new IllegalArgumentException("the flushIntervalMillis cannot be negative");
+		}
+		this.file = file;
+		this.batchSize = options.getBatchSize();
+		// a csv file is not replaced in one move
+		this.maxAttempts = options.getCsvFormat() == null ? options.getMaxAttempts() : 1;
+		this.appendAction = appendAction;
+
+		if (options.getFlushIntervalMillis() == 0) {
+			this.ownScheduler = null;
+			this.timer = null;
+			return;
+		}
+		ScheduledExecutorService scheduler = options.getScheduler();
+		if (scheduler == null) {
+			this.ownScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "sep4j-batch-appender-" + file.getName());
+				thread.setDaemon(true);
+				return thread;
+			});
+			scheduler = ownScheduler;
+		} else {
+			this.ownScheduler = null;
+		}
+		this.timer = scheduler.scheduleWithFixedDelay(this::flushOnTimer, options.getFlushIntervalMillis(),
+				options.getFlushIntervalMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * create an appender of java beans
+	 *
+	 * @param headerMap
+	 *            {@code <propName, headerText>}. Note: the number and sequence
+	 *            of the map's keys have to be the same as the header of the
+	 *            existing spreadsheet file
+	 * @param file
+	 *            the existing file to append to
+	 * @param options
+	 *            the options
+	 * @param <T>
+	 *            the java type of records
+	 */
+	public static <T> BatchAppender<T> of(Map<String, String> headerMap, File file, BatchAppendOptions options) {
+		Ssio.validateHeaderMap(headerMap);
+		return new BatchAppender<T>(file, options, records -> Ssio.appendTo(headerMap, records, file,
+				options.getDatumErrPlaceholder(), null, options));
+	}
+
+	/**
+	 * create an appender of maps. please check the doc of
+	 * {@link #of(Map, File, BatchAppendOptions)}
+	 */
+	public static BatchAppender<Map<String, Object>> ofMaps(Map<String, String> headerMap, File file,
+			BatchAppendOptions options) {
+		Ssio.validateHeaderMap(headerMap);
+		return new BatchAppender<Map<String, Object>>(file, options, records -> Ssio.appendMapsTo(headerMap,
+				records, file, options.getDatumErrPlaceholder(), null, options));
+	}
+
+	/**
+	 * add a record. It is appended to the file later. If the batch turns full,
+	 * it is appended in the calling thread
+	 */
+	public void add(T record) {
+		addAll(Collections.singletonList(record));
+	}
+
+	/**
+	 * add records. They are appended to the file later. If the batch turns
+	 * full, it is appended in the calling thread
+	 */
+	public void addAll(Collection<? extends T> records) {
+		throwTimedFlushFailure();
+		boolean full;
+		synchronized (queueLock) {
+			if (closed) {
+				throw new IllegalStateException("The appender of " + file + " has been closed");
+			}
+			pending.addAll(records);
+			full = pending.size() >= batchSize;
+		}
+		if (full) {
+			doFlush();
+		}
+	}
+
+	/**
+	 * append all the records in memory to the file now
+	 */
+	public void flush() {
+		throwTimedFlushFailure();
+		doFlush();
+	}
+
+	/**
+	 * how many records have not been appended to the file yet, including the
+	 * ones being appended now
+	 */
+	public int getPendingCount() {
+		synchronized (queueLock) {
+			return pending.size() + flushingCount;
+		}
+	}
+
+	/**
+	 * stop the timed flushes and append the records left in memory, trying a
+	 * failed batch again up to {@link BatchAppendOptions#getMaxAttempts()}
+	 * times. If it still fails, the records are dropped and the failure is
+	 * thrown. The failure of an earlier timed flush is thrown afterwards, or
+	 * attached to the failure of this flush as a suppressed one
+	 */
+	@Override
+	public void close() {
+		synchronized (queueLock) {
+			if (closed) {
+				return;
+			}
+			closed = true;
+		}
+		if (timer != null) {
+			timer.cancel(false);
+		}
+		if (ownScheduler != null) {
+			ownScheduler.shutdown();
+		}
+		try {
+			flushOnClose();
+		} catch (RuntimeException e) {
+			RuntimeException timedFailure = timedFlushFailure.getAndSet(null);
+			if (timedFailure != null && timedFailure != e) {
+				e.addSuppressed(timedFailure);
+			}
+			throw e;
+		}
+		throwTimedFlushFailure();
+	}
+
+	private void doFlush() {
+		synchronized (flushLock) {
+			List<T> batch;
+			synchronized (queueLock) {
+				if (pending.isEmpty()) {
+					return;
+				}
+				batch = pending;
+				pending = new ArrayList<T>();
+				flushingCount = batch.size();
+			}
+			try {
+				appendAction.accept(batch);
+				failedAttempts = 0;
+			} catch (RuntimeException e) {
+				if (isCausedByIo(e) && ++failedAttempts < maxAttempts) {
+					// the file is replaced in one move, so nothing of the batch
+					// has been written. Try again next time
+					synchronized (queueLock) {
+						batch.addAll(pending);
+						pending = batch;
+					}
+				} else {
+					// trying again won't help
+					failedAttempts = 0;
+				}
+				throw e;
+			} finally {
+				synchronized (queueLock) {
+					flushingCount = 0;
+				}
+			}
+		}
+	}
+
+	private void flushOnClose() {
+		while (true) {
+			try {
+				doFlush();
+				return;
+			} catch (RuntimeException e) {
+				// nothing can be added after close, so anything pending is
+				// the failed batch put back for another attempt
+				if (getPendingCount() == 0) {
+					throw e;
+				}
+			}
+		}
+	}
+
+	private void flushOnTimer() {
+		try {
+			doFlush();
+		} catch (RuntimeException e) {
+			timedFlushFailure.set(e);
+		}
+	}
+
+	private static boolean isCausedByIo(Throwable e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof IOException || cause instanceof UncheckedIOException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void throwTimedFlushFailure() {
+		RuntimeException e = timedFlushFailure.getAndSet(null);
+		if (e != null) {
+			throw e;
+		}
+	}
+}
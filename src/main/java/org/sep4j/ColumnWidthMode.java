@@ -0,0 +1,21 @@
+package org.sep4j;
+
+/**
+ * how the widths of the columns are decided when saving
+ *
+ * @author chenjianjx
+ */
+public enum ColumnWidthMode {
+
+	/**
+	 * estimate the widths from the header and the first rows of data, by
+	 * counting characters. No font will be loaded
+	 */
+	ESTIMATED,
+
+	/**
+	 * don't set any width. All the columns will have the default width. It is
+	 * the fastest, and good for files only read by programs
+	 */
+	NONE
+}
@@ -0,0 +1,58 @@
+package org.sep4j;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * the format of a delimited text file, such as a CSV or TSV file. A field is
+ * quoted with double quotes if it contains the delimiter, a double quote or a
+ * line break, and a double quote inside it is doubled, as RFC 4180 says.
+ *
+ * Instances are immutable.
+ *
+ * @author chenjianjx
+ */
+public class CsvFormat {
+
+	/**
+	 * comma separated, in UTF-8
+	 */
+	public static final CsvFormat CSV = new CsvFormat(',', StandardCharsets.UTF_8);
+
+	/**
+	 * tab separated, in UTF-8
+	 */
+	public static final CsvFormat TSV = new CsvFormat('\t', StandardCharsets.UTF_8);
+
+	private final char delimiter;
+
+	private final Charset charset;
+
+	/**
+	 * @param delimiter
+	 *            the separator of fields. It can't be a double quote or a line
+	 *            break
+	 * @param charset
+	 *            the encoding of the file. A byte order mark at the beginning
+	 *            of the file is skipped when parsing
+	 */
+	public CsvFormat(char delimiter, Charset charset) {
+		if (delimiter == '"' || delimiter == '\r' || delimiter == '\n') {
+			throw new IllegalArgumentException("Invalid delimiter: " + delimiter);
+		}
+		if (charset == null) {
+			throw new IllegalArgumentException("The charset cannot be null");
+		}
+		this.delimiter = delimiter;
+		this.charset = charset;
+	}
+
+	public char getDelimiter() {
+		return delimiter;
+	}
+
+	public Charset getCharset() {
+		return charset;
+	}
+
+}
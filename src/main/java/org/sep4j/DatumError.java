@@ -18,7 +18,8 @@ public class DatumError implements Serializable {
 	private static final long serialVersionUID = 5587180904535809629L;
 
 	/**
-	 * the datum is of the Nth record. 0-based
+	 * the datum is of the Nth record. 0-based. If the property has no getter
+	 * at all, the error is only reported for the first record
 	 */
 	private int recordIndex;
 
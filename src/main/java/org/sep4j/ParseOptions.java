@@ -0,0 +1,151 @@
+package org.sep4j;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+
+/**
+ * options about how a spreadsheet is parsed. The default options lead to the
+ * same behavior as the parse methods without options.
+ *
+ * @author chenjianjx
+ */
+public class ParseOptions {
+
+	public static final int DEFAULT_PARALLEL_BATCH_SIZE = 1000;
+
+	/**
+	 * read the sheet row by row, as a stream of xml events for an xlsx file or
+	 * a stream of records for an xls file, instead of loading the whole
+	 * workbook into memory. The memory used then doesn't grow with the number
+	 * of rows.
+	 */
+	private boolean streaming;
+
+	/**
+	 * parse the input as delimited text of this format, e.g.
+	 * {@link CsvFormat#CSV}, instead of a spreadsheet. It is always read line
+	 * by line, and all the cells are string cells. Null means a spreadsheet.
+	 */
+	private CsvFormat csvFormat;
+
+	/**
+	 * convert the rows to records on several threads. The rows are still read
+	 * by the calling thread, and the records and cell errors are still in the
+	 * order of rows. It pays off when there are a lot of rows.
+	 */
+	private boolean parallel;
+
+	/**
+	 * in parallel mode, the threads to convert rows. Null means
+	 * {@link ForkJoinPool#commonPool()}
+	 */
+	private Executor executor;
+
+	/**
+	 * in parallel mode, how many rows are converted in one task
+	 */
+	private int parallelBatchSize = DEFAULT_PARALLEL_BATCH_SIZE;
+
+	/**
+	 * the 0-based index of the first data row to parse. The rows above it are
+	 * skipped. It can't be less than 1, since row 0 is the header row
+	 */
+	private int startRow = 1;
+
+	/**
+	 * at most how many data rows to parse. Only the rows that physically exist
+	 * and are accepted by the row filter are counted. A negative number means no limit. Reading stops once the
+	 * limit is reached; in streaming mode the rest of the sheet is not even
+	 * decompressed
+	 */
+	private int maxRows = -1;
+
+	/**
+	 * parsing stops at the first data row (since the startRow) matching this
+	 * condition. That row and the rest of the sheet are not parsed. It is
+	 * called with the raw cell values, just like the row filter. Null means no
+	 * such condition
+	 */
+	private Predicate<RawRow> stopCondition;
+
+	/**
+	 * only the data rows accepted by this filter are parsed. It is called with
+	 * the raw cell values before a record is created, so a rejected row costs
+	 * no record, no conversion and no cell error. Null means all the rows
+	 */
+	private Predicate<RawRow> rowFilter;
+
+	public boolean isStreaming() {
+		return streaming;
+	}
+
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+
+	public CsvFormat getCsvFormat() {
+		return csvFormat;
+	}
+
+	public void setCsvFormat(CsvFormat csvFormat) {
+		this.csvFormat = csvFormat;
+	}
+
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	public int getParallelBatchSize() {
+		return parallelBatchSize;
+	}
+
+	public void setParallelBatchSize(int parallelBatchSize) {
+		this.parallelBatchSize = parallelBatchSize;
+	}
+
+	public int getStartRow() {
+		return startRow;
+	}
+
+	public void setStartRow(int startRow) {
+		this.startRow = startRow;
+	}
+
+	public int getMaxRows() {
+		return maxRows;
+	}
+
+	public void setMaxRows(int maxRows) {
+		this.maxRows = maxRows;
+	}
+
+	public Predicate<RawRow> getStopCondition() {
+		return stopCondition;
+	}
+
+	public void setStopCondition(Predicate<RawRow> stopCondition) {
+		this.stopCondition = stopCondition;
+	}
+
+	public Predicate<RawRow> getRowFilter() {
+		return rowFilter;
+	}
+
+	public void setRowFilter(Predicate<RawRow> rowFilter) {
+		this.rowFilter = rowFilter;
+	}
+
+}
@@ -0,0 +1,79 @@
+package org.sep4j;
+
+import java.util.Map;
+
+import org.sep4j.support.SepSheetRow;
+
+/**
+ * a data row seen through the header, before it is converted to a record. The
+ * values are what the cells hold, not converted to the types of the
+ * properties yet.
+ *
+ * Only the columns in the reverseHeaderMap can be seen. The same instance is
+ * reused for the following rows, so please don't keep it.
+ *
+ * @author chenjianjx
+ */
+public class RawRow {
+
+	/**
+	 * key = propName, value = columnIndex
+	 */
+	private final Map<String, Short> columnIndexesByProp;
+
+	/**
+	 * key = headerText, value = columnIndex
+	 */
+	private final Map<String, Short> columnIndexesByHeader;
+
+	private SepSheetRow row;
+
+	RawRow(Map<String, Short> columnIndexesByProp, Map<String, Short> columnIndexesByHeader) {
+		this.columnIndexesByProp = columnIndexesByProp;
+		this.columnIndexesByHeader = columnIndexesByHeader;
+	}
+
+	void setRow(SepSheetRow row) {
+		this.row = row;
+	}
+
+	/**
+	 * the row's index. 0-based
+	 */
+	public int getRowIndex() {
+		return row.getRowIndex();
+	}
+
+	/**
+	 * the value of the cell of a property. If the property is mapped by more
+	 * than one column, the last one is used
+	 *
+	 * @return the date if it is a date cell, or else the string value (will be
+	 *         trimmed to null)
+	 * @throws IllegalArgumentException
+	 *             the property is not in the header row
+	 */
+	public Object getValue(String propName) {
+		return row.getCellValue(getColumnIndex(columnIndexesByProp, propName, "property"));
+	}
+
+	/**
+	 * the value of the cell under a header. Please check the doc of
+	 * {@link #getValue(String)}
+	 *
+	 * @throws IllegalArgumentException
+	 *             the header is not in the header row or not mapped to a
+	 *             property
+	 */
+	public Object getValueByHeader(String headerText) {
+		return row.getCellValue(getColumnIndex(columnIndexesByHeader, headerText, "header"));
+	}
+
+	private static short getColumnIndex(Map<String, Short> columnIndexes, String key, String keyType) {
+		Short columnIndex = columnIndexes.get(key);
+		if (columnIndex == null) {
+			throw new IllegalArgumentException("There is no column for " + keyType + " " + key);
+		}
+		return columnIndex;
+	}
+}
@@ -0,0 +1,22 @@
+package org.sep4j;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * An iterator of records parsed from a spreadsheet. A row is only read and
+ * converted to a record when {@link #next()} is called. Please close it if you
+ * stop before reaching the end, so that the underlying file can be released.
+ *
+ * @param <T>
+ *            the java type of records
+ * @author chenjianjx
+ */
+public interface RecordIterator<T> extends Iterator<T>, Closeable {
+
+	/**
+	 * release the underlying resources. No checked exception will be thrown
+	 */
+	@Override
+	void close();
+}
@@ -0,0 +1,122 @@
+package org.sep4j;
+
+import java.io.File;
+
+import org.sep4j.support.SepColumnWidthEstimator;
+import org.sep4j.support.SepXlsxStreamingWriter;
+
+/**
+ * options about how records are saved to a spreadsheet. The default options
+ * lead to the same behavior as the save methods without options.
+ *
+ * @author chenjianjx
+ */
+public class SaveOptions {
+
+	/**
+	 * only keep a sliding window of rows in memory and flush the older rows to
+	 * a temp file, instead of building the whole workbook in memory. The temp
+	 * file is always deleted after saving, even if the saving fails.
+	 *
+	 * When appending, an xlsx file is not loaded; the new rows are streamed to
+	 * the end of its first sheet instead.
+	 */
+	private boolean streaming;
+
+	/**
+	 * in streaming mode, how many rows are kept in memory
+	 */
+	private int rowWindowSize = SepXlsxStreamingWriter.DEFAULT_ROW_WINDOW_SIZE;
+
+	/**
+	 * in streaming mode, whether the temp file should be gzipped. It saves disk
+	 * space but costs more CPU
+	 */
+	private boolean compressTempFiles;
+
+	/**
+	 * in streaming mode, where to put the temp file. Null means the system's
+	 * default temp directory
+	 */
+	private File tempDir;
+
+	/**
+	 * how to decide the widths of the columns
+	 */
+	private ColumnWidthMode columnWidthMode = ColumnWidthMode.ESTIMATED;
+
+	/**
+	 * in {@link ColumnWidthMode#ESTIMATED} mode, how many rows (including the
+	 * header row) are looked at
+	 */
+	private int columnWidthSampleRows = SepColumnWidthEstimator.DEFAULT_SAMPLE_ROWS;
+
+	/**
+	 * save the records as delimited text of this format, e.g.
+	 * {@link CsvFormat#CSV}, instead of a spreadsheet. The rows are written out
+	 * as they are created, and the other options don't apply. Null means a
+	 * spreadsheet.
+	 *
+	 * When appending, the rows are added to the end of the text file in place,
+	 * so unlike a spreadsheet file it is not replaced in one move. Its charset
+	 * must be ASCII-compatible then.
+	 */
+	private CsvFormat csvFormat;
+
+	public boolean isStreaming() {
+		return streaming;
+	}
+
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+
+	public int getRowWindowSize() {
+		return rowWindowSize;
+	}
+
+	public void setRowWindowSize(int rowWindowSize) {
+		this.rowWindowSize = rowWindowSize;
+	}
+
+	public boolean isCompressTempFiles() {
+		return compressTempFiles;
+	}
+
+	public void setCompressTempFiles(boolean compressTempFiles) {
+		this.compressTempFiles = compressTempFiles;
+	}
+
+	public File getTempDir() {
+		return tempDir;
+	}
+
+	public void setTempDir(File tempDir) {
+		this.tempDir = tempDir;
+	}
+
+	public ColumnWidthMode getColumnWidthMode() {
+		return columnWidthMode;
+	}
+
+	public void setColumnWidthMode(ColumnWidthMode columnWidthMode) {
+		this.columnWidthMode = columnWidthMode;
+	}
+
+	public int getColumnWidthSampleRows() {
+		return columnWidthSampleRows;
+	}
+
+	public void setColumnWidthSampleRows(int columnWidthSampleRows) {
+		this.columnWidthSampleRows = columnWidthSampleRows;
+	}
+
+	public CsvFormat getCsvFormat() {
+		return csvFormat;
+	}
+
+	public void setCsvFormat(CsvFormat csvFormat) {
+		this.csvFormat = csvFormat;
+	}
+
+}
@@ -0,0 +1,124 @@
+package org.sep4j;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.sep4j.support.SepColumnBuffer;
+
+/**
+ * the data rows of a sheet, parsed column by column. Each column is kept in a
+ * primitive array of its type (double[], long[], int[], boolean[]), or
+ * dictionary-encoded if it is a string column, plus a bitmap of nulls. No
+ * object is created per row, so the arrays can be fed straight into numeric
+ * code.
+ *
+ * The i-th element of every array belongs to the i-th data row, and
+ * {@link #getRowIndexes()} tells which row of the sheet it is. A null (a blank
+ * cell, or a cell which cannot be converted) is 0 or false in a primitive
+ * array; check {@link #getNulls(String)} to tell it from a real 0.
+ *
+ * The arrays are returned as they are without being copied. Please don't
+ * modify them.
+ *
+ * @author chenjianjx
+ */
+public class SheetColumns {
+
+	/**
+	 * key = propName
+	 */
+	private final Map<String, SepColumnBuffer> columns;
+	private final int[] rowIndexes;
+
+	SheetColumns(Map<String, SepColumnBuffer> columns, int[] rowIndexes) {
+		this.columns = columns;
+		this.rowIndexes = rowIndexes;
+	}
+
+	public int getRowCount() {
+		return rowIndexes.length;
+	}
+
+	/**
+	 * the 0-based indexes of the data rows in the sheet
+	 */
+	public int[] getRowIndexes() {
+		return rowIndexes;
+	}
+
+	/**
+	 * the properties found in the header row, in the order of the columns
+	 */
+	public Set<String> getPropNames() {
+		return Collections.unmodifiableSet(columns.keySet());
+	}
+
+	/**
+	 * @return double.class, long.class, int.class, boolean.class or
+	 *         String.class
+	 */
+	public Class<?> getColumnType(String propName) {
+		return getColumn(propName).getType();
+	}
+
+	public double[] getDoubles(String propName) {
+		return getColumn(propName).getDoubles();
+	}
+
+	public long[] getLongs(String propName) {
+		return getColumn(propName).getLongs();
+	}
+
+	public int[] getInts(String propName) {
+		return getColumn(propName).getInts();
+	}
+
+	public boolean[] getBooleans(String propName) {
+		return getColumn(propName).getBooleans();
+	}
+
+	/**
+	 * the values of a string column. Equal strings are the same instance. Note
+	 * a new array is created each time
+	 */
+	public String[] getStrings(String propName) {
+		return getColumn(propName).getStrings();
+	}
+
+	/**
+	 * the codes of a string column, which are the indexes in
+	 * {@link #getDictionary(String)}. -1 means null
+	 */
+	public int[] getStringCodes(String propName) {
+		return getColumn(propName).getCodes();
+	}
+
+	/**
+	 * the distinct values of a string column
+	 */
+	public List<String> getDictionary(String propName) {
+		return getColumn(propName).getDictionary();
+	}
+
+	/**
+	 * the bitmap of nulls of a column. A set bit means the value is null
+	 */
+	public BitSet getNulls(String propName) {
+		return getColumn(propName).getNulls();
+	}
+
+	public boolean isNull(String propName, int index) {
+		return getColumn(propName).isNull(index);
+	}
+
+	private SepColumnBuffer getColumn(String propName) {
+		SepColumnBuffer column = columns.get(propName);
+		if (column == null) {
+			throw new IllegalArgumentException("There is no column for property " + propName);
+		}
+		return column;
+	}
+}
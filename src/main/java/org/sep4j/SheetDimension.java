@@ -0,0 +1,81 @@
+package org.sep4j;
+
+/**
+ * the used range of a sheet, including the header row. All the indexes are
+ * 0-based, and they are -1 if the sheet is empty.
+ *
+ * @author chenjianjx
+ */
+public class SheetDimension {
+
+	private int firstRowIndex = -1;
+
+	private int lastRowIndex = -1;
+
+	private int firstColumnIndex = -1;
+
+	private int lastColumnIndex = -1;
+
+	/**
+	 * how many rows there are. If it is taken from the dimension info, it is
+	 * lastRowIndex - firstRowIndex + 1, i.e. the blank rows in between are
+	 * also counted. Otherwise it is the number of rows that physically exist
+	 */
+	private int rowCount;
+
+	/**
+	 * whether it is taken from the dimension info saved in the file, instead
+	 * of from a scan of the rows. The dimension info is written by whatever
+	 * saved the file, so it can be inaccurate
+	 */
+	private boolean fromDimensionInfo;
+
+	public int getFirstRowIndex() {
+		return firstRowIndex;
+	}
+
+	public void setFirstRowIndex(int firstRowIndex) {
+		this.firstRowIndex = firstRowIndex;
+	}
+
+	public int getLastRowIndex() {
+		return lastRowIndex;
+	}
+
+	public void setLastRowIndex(int lastRowIndex) {
+		this.lastRowIndex = lastRowIndex;
+	}
+
+	public int getFirstColumnIndex() {
+		return firstColumnIndex;
+	}
+
+	public void setFirstColumnIndex(int firstColumnIndex) {
+		this.firstColumnIndex = firstColumnIndex;
+	}
+
+	public int getLastColumnIndex() {
+		return lastColumnIndex;
+	}
+
+	public void setLastColumnIndex(int lastColumnIndex) {
+		this.lastColumnIndex = lastColumnIndex;
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	public void setRowCount(int rowCount) {
+		this.rowCount = rowCount;
+	}
+
+	public boolean isFromDimensionInfo() {
+		return fromDimensionInfo;
+	}
+
+	public void setFromDimensionInfo(boolean fromDimensionInfo) {
+		this.fromDimensionInfo = fromDimensionInfo;
+	}
+
+}
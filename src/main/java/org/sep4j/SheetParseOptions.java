@@ -0,0 +1,61 @@
+package org.sep4j;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * options about which sheets are parsed and how, when parsing several sheets of
+ * a spreadsheet. If neither sheetNames nor sheetIndexes is set, all the sheets
+ * will be parsed.
+ *
+ * The sheets are parsed concurrently on the executor (see
+ * {@link ParseOptions#getExecutor()}), one task per sheet. The rows of a sheet
+ * are not further split, so the "parallel" option is ignored here. An xlsx
+ * file is always read in streaming mode, so that each sheet can be read on its
+ * own thread.
+ *
+ * @author chenjianjx
+ */
+public class SheetParseOptions extends ParseOptions {
+
+	/**
+	 * the names of the sheets to parse
+	 */
+	private List<String> sheetNames;
+
+	/**
+	 * the indexes of the sheets to parse. 0-based
+	 */
+	private List<Integer> sheetIndexes;
+
+	/**
+	 * {@code <sheetName, reverseHeaderMap>}. A sheet not in this map uses the
+	 * reverseHeaderMap shared by all the sheets
+	 */
+	private Map<String, Map<String, String>> reverseHeaderMapsBySheetName;
+
+	public List<String> getSheetNames() {
+		return sheetNames;
+	}
+
+	public void setSheetNames(List<String> sheetNames) {
+		this.sheetNames = sheetNames;
+	}
+
+	public List<Integer> getSheetIndexes() {
+		return sheetIndexes;
+	}
+
+	public void setSheetIndexes(List<Integer> sheetIndexes) {
+		this.sheetIndexes = sheetIndexes;
+	}
+
+	public Map<String, Map<String, String>> getReverseHeaderMapsBySheetName() {
+		return reverseHeaderMapsBySheetName;
+	}
+
+	public void setReverseHeaderMapsBySheetName(Map<String, Map<String, String>> reverseHeaderMapsBySheetName) {
+		this.reverseHeaderMapsBySheetName = reverseHeaderMapsBySheetName;
+	}
+
+}
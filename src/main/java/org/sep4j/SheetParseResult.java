@@ -0,0 +1,71 @@
+package org.sep4j;
+
+import java.util.List;
+
+/**
+ * the records parsed from one sheet of a spreadsheet
+ *
+ * @param <T>
+ *            the java type of records
+ * @author chenjianjx
+ */
+public class SheetParseResult<T> {
+
+	/**
+	 * 0-based
+	 */
+	private int sheetIndex;
+
+	private String sheetName;
+
+	private List<T> records;
+
+	private List<CellError> cellErrors;
+
+	/**
+	 * the header row of this sheet doesn't match the reverseHeaderMap at all.
+	 * The records will be empty then
+	 */
+	private boolean headerRowInvalid;
+
+	public int getSheetIndex() {
+		return sheetIndex;
+	}
+
+	public void setSheetIndex(int sheetIndex) {
+		this.sheetIndex = sheetIndex;
+	}
+
+	public String getSheetName() {
+		return sheetName;
+	}
+
+	public void setSheetName(String sheetName) {
+		this.sheetName = sheetName;
+	}
+
+	public List<T> getRecords() {
+		return records;
+	}
+
+	public void setRecords(List<T> records) {
+		this.records = records;
+	}
+
+	public List<CellError> getCellErrors() {
+		return cellErrors;
+	}
+
+	public void setCellErrors(List<CellError> cellErrors) {
+		this.cellErrors = cellErrors;
+	}
+
+	public boolean isHeaderRowInvalid() {
+		return headerRowInvalid;
+	}
+
+	public void setHeaderRowInvalid(boolean headerRowInvalid) {
+		this.headerRowInvalid = headerRowInvalid;
+	}
+
+}
@@ -1,44 +1,97 @@
 package org.sep4j;
 
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.apache.commons.lang.builder.ToStringStyle;
 import org.apache.commons.lang.time.DateFormatUtils;
-import org.apache.poi.hssf.usermodel.HSSFCellStyle;
+import org.apache.poi.POIXMLDocument;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.DateUtil;
-import org.apache.poi.ss.usermodel.IndexedColors;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.sep4j.support.FunctionThrowingParseException;
-import org.sep4j.support.SepBasicTypeConverts;
+import org.sep4j.support.SepCellStyleCache;
+import org.sep4j.support.SepCellStyleType;
+import org.sep4j.support.SepCellType;
+import org.sep4j.support.SepColumnBuffer;
+import org.sep4j.support.SepColumnWidthEstimator;
+import org.sep4j.support.SepCsvReader;
+import org.sep4j.support.SepCsvWriter;
 import org.sep4j.support.SepConstants;
+import org.sep4j.support.SepPropertySetters;
 import org.sep4j.support.SepRecordType;
 import org.sep4j.support.SepReflectionHelper;
-
+import org.sep4j.support.SepSheetRow;
+import org.sep4j.support.SepSheetRowReader;
+import org.sep4j.support.SepSheetWriter;
+import org.sep4j.support.SepXlsxStreamingAppender;
+import org.sep4j.support.SepXlsStreamingReader;
+import org.sep4j.support.SepXlsxStreamingReader;
+import org.sep4j.support.SepXlsxStreamingWriter;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PushbackInputStream;
+import java.io.RandomAccessFile;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
+import java.util.AbstractCollection;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static org.sep4j.HeaderUtils.generateReverseHeaderMapFromProps;
 
@@ -52,6 +105,16 @@ import static org.sep4j.HeaderUtils.generateReverseHeaderMapFromProps;
  */
 public class Ssio {
 
+	/**
+	 * striped locks for appending, see {@link #getAppendLock(File)}
+	 */
+	private static final Object[] APPEND_LOCKS = new Object[64];
+	static {
+		for (int i = 0; i < APPEND_LOCKS.length; i++) {
+			APPEND_LOCKS[i] = new Object();
+		}
+	}
+
     private Ssio(){
     }
 
@@ -67,7 +130,7 @@ public class Ssio {
 	 * @param outputStream
 	 */
 	public static <T> void save(Class<T> recordClass, Collection<T> records, OutputStream outputStream) {
-		doSave(HeaderUtils.generateHeaderMapFromProps(recordClass), records, SepRecordType.JAVABEAN, outputStream, null, null, true);
+		doSave(HeaderUtils.generateHeaderMapFromProps(recordClass), records, SepRecordType.JAVABEAN, outputStream, null, null, true, new SaveOptions());
 	}
 
 	/**
@@ -165,7 +228,7 @@ public class Ssio {
 	public static <T> void save(Map<String, String> headerMap,
 			Collection<T> records, OutputStream outputStream,
 			String datumErrPlaceholder) {
-		doSave(headerMap, records, SepRecordType.JAVABEAN, outputStream, datumErrPlaceholder, null, true);
+		doSave(headerMap, records, SepRecordType.JAVABEAN, outputStream, datumErrPlaceholder, null, true, new SaveOptions());
 	}
 
 
@@ -194,7 +257,7 @@ public class Ssio {
 			Collection<T> records, OutputStream outputStream,
 			String datumErrPlaceholder, List<DatumError> datumErrors) {
 		doSave(headerMap, records, SepRecordType.JAVABEAN, outputStream, datumErrPlaceholder,
-				datumErrors, true);
+				datumErrors, true, new SaveOptions());
 	}
 
 
@@ -211,7 +274,7 @@ public class Ssio {
 			String datumErrPlaceholder, List<DatumError> datumErrors) {
         consumeAsOutputStream(outputFile,
                 outputStream ->
-                        doSave(headerMap, records, SepRecordType.JAVABEAN, outputStream, datumErrPlaceholder, datumErrors, true));
+                        doSave(headerMap, records, SepRecordType.JAVABEAN, outputStream, datumErrPlaceholder, datumErrors, true, new SaveOptions()));
 
 	}
 
@@ -238,7 +301,7 @@ public class Ssio {
 								Collection<Map<String, Object>> records, OutputStream outputStream,
 								String datumErrPlaceholder, List<DatumError> datumErrors) {
 		doSave(headerMap, records, SepRecordType.MAP, outputStream, datumErrPlaceholder,
-				datumErrors, true);
+				datumErrors, true, new SaveOptions());
 	}
 
 
@@ -253,6 +316,144 @@ public class Ssio {
                 outputStream -> saveMaps(headerMap, records, outputStream, datumErrPlaceholder, datumErrors));
 	}
 
+	/**
+	 * please check the doc of {@link #save(Map, Collection, OutputStream, String, List)}.
+	 * The difference is that you can control how the workbook is built with
+	 * options, for example, to keep only a window of rows in memory and spill
+	 * the others to a temp file.
+	 *
+	 * @param options
+	 *            the save options. Null means the default options
+	 */
+	public static <T> void save(Map<String, String> headerMap,
+			Collection<T> records, OutputStream outputStream,
+			String datumErrPlaceholder, List<DatumError> datumErrors, SaveOptions options) {
+		doSave(headerMap, records, SepRecordType.JAVABEAN, outputStream, datumErrPlaceholder,
+				datumErrors, true, options);
+	}
+
+	/**
+	 * please check the doc of {@link #save(Map, Collection, OutputStream, String, List, SaveOptions)}
+	 */
+	public static <T> void save(Map<String, String> headerMap, Collection<T> records, File outputFile,
+			String datumErrPlaceholder, List<DatumError> datumErrors, SaveOptions options) {
+		consumeAsOutputStream(outputFile,
+				outputStream -> save(headerMap, records, outputStream, datumErrPlaceholder, datumErrors, options));
+	}
+
+	/**
+	 * please check the doc of {@link #saveMaps(Map, Collection, OutputStream, String, List)}.
+	 * The difference is that you can control how the workbook is built with
+	 * options.
+	 *
+	 * @param options
+	 *            the save options. Null means the default options
+	 */
+	public static void saveMaps(Map<String, String> headerMap,
+								Collection<Map<String, Object>> records, OutputStream outputStream,
+								String datumErrPlaceholder, List<DatumError> datumErrors, SaveOptions options) {
+		doSave(headerMap, records, SepRecordType.MAP, outputStream, datumErrPlaceholder,
+				datumErrors, true, options);
+	}
+
+	/**
+	 * please check the doc of {@link #saveMaps(Map, Collection, OutputStream, String, List, SaveOptions)}
+	 */
+	public static void saveMaps(Map<String, String> headerMap,
+								Collection<Map<String, Object>> records, File outputFile,
+								String datumErrPlaceholder, List<DatumError> datumErrors, SaveOptions options) {
+		consumeAsOutputStream(outputFile,
+				outputStream -> saveMaps(headerMap, records, outputStream, datumErrPlaceholder, datumErrors, options));
+	}
+
+	/**
+	 * please check the doc of {@link #save(Map, Collection, OutputStream, String, List, SaveOptions)}.
+	 * The difference is that the workbook is built and written on the
+	 * executor, and this method returns at once, so the calling thread is not
+	 * blocked.
+	 *
+	 * Any error is reported through the future. The future can be cancelled,
+	 * in which case no more records are put into the workbook and nothing
+	 * more is written. Whatever has been written to the output stream stays
+	 * there.
+	 *
+	 * @param records
+	 *            they are read on the executor, so please don't change them
+	 *            until the future is done
+	 * @param outputStream
+	 *            it won't be closed by this method
+	 * @param datumErrors
+	 *            filled on the executor. Please read it after the future is
+	 *            done
+	 * @param executor
+	 *            where the workbook is built. Null means
+	 *            {@link ForkJoinPool#commonPool()}
+	 * @return the future which completes when the workbook is written
+	 */
+	public static <T> CompletableFuture<Void> saveAsync(Map<String, String> headerMap, Collection<T> records,
+			OutputStream outputStream, String datumErrPlaceholder, List<DatumError> datumErrors, SaveOptions options,
+			Executor executor) {
+		return supplyAsync(cancelled -> {
+			doSave(headerMap, CancellableCollection.of(records, cancelled), SepRecordType.JAVABEAN, outputStream,
+					datumErrPlaceholder, datumErrors, true, options);
+			return null;
+		}, executor);
+	}
+
+	/**
+	 * please check the doc of {@link #saveAsync(Map, Collection, OutputStream, String, List, SaveOptions, Executor)}.
+	 * If the future is cancelled, the half-written file is deleted
+	 */
+	public static <T> CompletableFuture<Void> saveAsync(Map<String, String> headerMap, Collection<T> records,
+			File outputFile, String datumErrPlaceholder, List<DatumError> datumErrors, SaveOptions options,
+			Executor executor) {
+		return supplyAsync(cancelled -> {
+			try {
+				consumeAsOutputStream(outputFile, outputStream -> doSave(headerMap,
+						CancellableCollection.of(records, cancelled), SepRecordType.JAVABEAN, outputStream,
+						datumErrPlaceholder, datumErrors, true, options));
+			} catch (CancellationException e) {
+				outputFile.delete();
+				throw e;
+			}
+			return null;
+		}, executor);
+	}
+
+	/**
+	 * please check the doc of {@link #saveAsync(Map, Collection, OutputStream, String, List, SaveOptions, Executor)}.
+	 * The difference is that the records are maps
+	 */
+	public static CompletableFuture<Void> saveMapsAsync(Map<String, String> headerMap,
+			Collection<Map<String, Object>> records, OutputStream outputStream, String datumErrPlaceholder,
+			List<DatumError> datumErrors, SaveOptions options, Executor executor) {
+		return supplyAsync(cancelled -> {
+			doSave(headerMap, CancellableCollection.of(records, cancelled), SepRecordType.MAP, outputStream,
+					datumErrPlaceholder, datumErrors, true, options);
+			return null;
+		}, executor);
+	}
+
+	/**
+	 * please check the doc of {@link #saveMapsAsync(Map, Collection, OutputStream, String, List, SaveOptions, Executor)}.
+	 * If the future is cancelled, the half-written file is deleted
+	 */
+	public static CompletableFuture<Void> saveMapsAsync(Map<String, String> headerMap,
+			Collection<Map<String, Object>> records, File outputFile, String datumErrPlaceholder,
+			List<DatumError> datumErrors, SaveOptions options, Executor executor) {
+		return supplyAsync(cancelled -> {
+			try {
+				consumeAsOutputStream(outputFile, outputStream -> doSave(headerMap,
+						CancellableCollection.of(records, cancelled), SepRecordType.MAP, outputStream,
+						datumErrPlaceholder, datumErrors, true, options));
+			} catch (CancellationException e) {
+				outputFile.delete();
+				throw e;
+			}
+			return null;
+		}, executor);
+	}
+
 	/**
 	 * please check the doc of {@link #appendTo(Map, Collection, File, String, List)}
      */
@@ -280,7 +481,33 @@ public class Ssio {
      */
 	public static <T> void appendTo(Map<String, String> headerMap, Collection<T> records, File file,
 									String datumErrPlaceholder, List<DatumError> datumErrors) {
-		doAppend(headerMap, records, SepRecordType.JAVABEAN, file, datumErrPlaceholder, datumErrors);
+		appendTo(headerMap, records, file, datumErrPlaceholder, datumErrors, new SaveOptions());
+	}
+
+	/**
+	 * append records to an existing spreadsheet file, with options. In
+	 * streaming mode an xlsx file is appended to without loading the
+	 * workbook: the new rows are added to the end of the first sheet while the
+	 * other parts of the file are copied as they are, and then the new file
+	 * replaces the old one in one move. Other files are appended to in the
+	 * same way as {@link #appendTo(Map, Collection, File, String, List)}
+	 *
+	 * A csv file (see {@link SaveOptions#getCsvFormat()}) is appended to in
+	 * place instead, so the append is not atomic: a reader may see part of
+	 * the new rows, and a failure may leave part of them in the file. Its
+	 * charset must be ASCII-compatible, e.g. UTF-8 but not UTF-16
+	 *
+	 * Please check the doc of
+	 * {@link #appendTo(Map, Collection, File, String, List)} for the other
+	 * params
+	 *
+	 * @param options
+	 *            only "streaming" and "tempDir" are used. Column widths of the
+	 *            existing file are always kept
+	 */
+	public static <T> void appendTo(Map<String, String> headerMap, Collection<T> records, File file,
+									String datumErrPlaceholder, List<DatumError> datumErrors, SaveOptions options) {
+		doAppend(headerMap, records, SepRecordType.JAVABEAN, file, datumErrPlaceholder, datumErrors, options);
 	}
 
 
@@ -302,7 +529,17 @@ public class Ssio {
 	 */
 	public static void appendMapsTo(Map<String, String> headerMap, Collection<Map<String, Object>> records, File file,
 									String datumErrPlaceholder, List<DatumError> datumErrors) {
-		doAppend(headerMap, records, SepRecordType.MAP, file, datumErrPlaceholder, datumErrors);
+		appendMapsTo(headerMap, records, file, datumErrPlaceholder, datumErrors, new SaveOptions());
+	}
+
+	/**
+	 * append a collection of Maps to an existing spreadsheet file, with
+	 * options. please check the doc of
+	 * {@link #appendTo(Map, Collection, File, String, List, SaveOptions)}
+	 */
+	public static void appendMapsTo(Map<String, String> headerMap, Collection<Map<String, Object>> records, File file,
+									String datumErrPlaceholder, List<DatumError> datumErrors, SaveOptions options) {
+		doAppend(headerMap, records, SepRecordType.MAP, file, datumErrPlaceholder, datumErrors, options);
 	}
 
 	/**
@@ -320,18 +557,48 @@ public class Ssio {
 	 *            (stillSaveIfDataError should be set true)
 	 * @param datumErrors
 	 *            all data errors in the records
+	 * @param options
+	 *            the options
 	 *
 	 * @param <T>
 	 *            the java type of records
 	 */
 	private static <T> void doAppend(Map<String, String> headerMap, Collection<T> records, SepRecordType recordType,
-									 File file, String datumErrPlaceholder, List<DatumError> datumErrors) {
+									 File file, String datumErrPlaceholder, List<DatumError> datumErrors, SaveOptions options) {
 		validateHeaderMap(headerMap);
+		if (options == null) {
+			throw new IllegalArgumentException("the options cannot be null");
+		}
 
 		if (records == null) {
 			records = new ArrayList<T>();
 		}
 
+		synchronized (getAppendLock(file)) {
+			doAppendLocked(headerMap, records, recordType, file, datumErrPlaceholder, datumErrors, options);
+		}
+	}
+
+	private static <T> void doAppendLocked(Map<String, String> headerMap, Collection<T> records,
+			SepRecordType recordType, File file, String datumErrPlaceholder, List<DatumError> datumErrors,
+			SaveOptions options) {
+		if (options.getCsvFormat() != null) {
+			appendToCsv(headerMap, records, recordType, file, datumErrPlaceholder, datumErrors, options.getCsvFormat());
+			return;
+		}
+
+		if (options.isStreaming() && isOoxmlFile(file)) {
+			try (SepXlsxStreamingAppender appender = SepXlsxStreamingAppender.open(file, options.getTempDir())) {
+				if (appender != null) {
+					appendRows(headerMap, records, recordType, appender, appender.getNextRowIndex(),
+							datumErrPlaceholder, datumErrors);
+					appender.commit();
+					return;
+				}
+			}
+			// the file is not in the form that can be streamed. Load it then
+		}
+
 		Workbook workbook;
 		try(InputStream inputStream = new FileInputStream(file)){
 			workbook = toWorkbook(inputStream);
@@ -341,28 +608,112 @@ public class Ssio {
 
 			Sheet sheet = workbook.getSheetAt(0);
 			int lastRowNum = sheet.getLastRowNum(); //1-based
-
-			int recordIndex = 0;
-			int rowIndex = lastRowNum + 1;
-			for (T record : records) {
-				createRow(headerMap, record, recordType, recordIndex, sheet, rowIndex,
-						datumErrPlaceholder, datumErrors);
-				recordIndex++;
-				rowIndex++;
-			}
+			// keep the column widths of the existing file
+			SepSheetWriter sheetWriter = new PoiSheetWriter(sheet, null);
+			appendRows(headerMap, records, recordType, sheetWriter, lastRowNum + 1, datumErrPlaceholder, datumErrors);
 		} catch (IOException e) {
 			throw new IllegalStateException(e);
 		} catch (InvalidFormatException e) {
 			throw new IllegalStateException(e);
 		}
 
-		try(OutputStream outputStream = new FileOutputStream(file)){
-			workbook.write(outputStream);
+		// write to a temp file and then replace the file with it, so a reader
+		// never sees a half-written file
+		File newFile = null;
+		try {
+			newFile = File.createTempFile("sep4j-append-", "", file.getAbsoluteFile().getParentFile());
+			try (OutputStream outputStream = new FileOutputStream(newFile)) {
+				workbook.write(outputStream);
+			}
+			SepXlsxStreamingAppender.replace(newFile, file);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		} finally {
+			if (newFile != null) {
+				newFile.delete();
+			}
+		}
+	}
+
+	/**
+	 * add the rows to the end of the text file. They are all created before
+	 * anything is written, so a failure in creating them leaves the file
+	 * untouched
+	 */
+	private static <T> void appendToCsv(Map<String, String> headerMap, Collection<T> records,
+			SepRecordType recordType, File file, String datumErrPlaceholder, List<DatumError> datumErrors,
+			CsvFormat csvFormat) {
+		if (!file.isFile()) {
+			throw new IllegalArgumentException("There is no file " + file);
+		}
+		if (!isAsciiCompatible(csvFormat.getCharset())) {
+			// the line end check below is byte-based, and such a charset may
+			// also write a byte order mark in the middle of the file
+			throw new IllegalArgumentException("Cannot append to a file in " + csvFormat.getCharset()
+					+ ", which is not ASCII-compatible");
+		}
+		StringWriter text = new StringWriter();
+		SepCsvWriter csvWriter = new SepCsvWriter(text, csvFormat.getDelimiter());
+		// the row indexes don't matter for delimited text
+		appendRows(headerMap, records, recordType, csvWriter, 1, datumErrPlaceholder, datumErrors);
+		csvWriter.flush();
+
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			String rows = text.toString();
+			if (raf.length() > 0) {
+				raf.seek(raf.length() - 1);
+				if (raf.read() != '\n') {
+					// the last line is not ended
+					rows = "\r\n" + rows;
+				}
+			}
+			raf.seek(raf.length());
+			raf.write(rows.getBytes(csvFormat.getCharset()));
 		} catch (IOException e) {
 			throw new IllegalStateException(e);
 		}
 	}
 
+	/**
+	 * whether the ASCII chars are encoded the same as in ASCII, one byte each,
+	 * with no byte order mark
+	 */
+	private static boolean isAsciiCompatible(Charset charset) {
+		StringBuilder asciiChars = new StringBuilder("\t\r\n");
+		for (char c = ' '; c <= '~'; c++) {
+			asciiChars.append(c);
+		}
+		return Arrays.equals(asciiChars.toString().getBytes(charset),
+				asciiChars.toString().getBytes(StandardCharsets.US_ASCII));
+	}
+
+	/**
+	 * the lock for appending to a file, so that concurrent appends to the same
+	 * file in this JVM don't overwrite each other's rows
+	 */
+	static Object getAppendLock(File file) {
+		String path;
+		try {
+			path = file.getCanonicalPath();
+		} catch (IOException e) {
+			path = file.getAbsolutePath();
+		}
+		return APPEND_LOCKS[(path.hashCode() & Integer.MAX_VALUE) % APPEND_LOCKS.length];
+	}
+
+	private static <T> void appendRows(Map<String, String> headerMap, Collection<T> records,
+			SepRecordType recordType, SepSheetWriter sheetWriter, int firstRowIndex, String datumErrPlaceholder,
+			List<DatumError> datumErrors) {
+		GetterPlan getterPlan = new GetterPlan(headerMap, recordType);
+		int recordIndex = 0;
+		int rowIndex = firstRowIndex;
+		for (T record : records) {
+			createRow(getterPlan, record, recordIndex, sheetWriter, rowIndex, datumErrPlaceholder, datumErrors);
+			recordIndex++;
+			rowIndex++;
+		}
+	}
+
 
 	/**
 	 * save records to a new workbook only if there are no datum errors in the
@@ -390,7 +741,7 @@ public class Ssio {
 			OutputStream outputStream, String datumErrPlaceholder,
 			List<DatumError> datumErrors) {
 		doSave(headerMap, records, SepRecordType.JAVABEAN, outputStream, datumErrPlaceholder,
-				datumErrors, false);
+				datumErrors, false, new SaveOptions());
 	}
 
 	/**
@@ -463,8 +814,7 @@ public class Ssio {
 	 * @return
 	 */
 	public static <T> List<T> parseIgnoringErrors(File inputFile, Class<T> recordClass) {
-        return readAsInputStream(inputFile,
-                input -> parseIgnoringErrors(input, recordClass));
+		return parseIgnoringErrors(generateReverseHeaderMapFromProps(recordClass), inputFile, recordClass);
 	}
 
 	/**
@@ -477,9 +827,15 @@ public class Ssio {
 	public static <T> List<T> parseIgnoringErrors(
 			Map<String, String> reverseHeaderMap, File inputFile,
 			Class<T> recordClass) {
-        return readAsInputStream(inputFile,
-			input -> parseIgnoringErrors(reverseHeaderMap, input, recordClass));
-
+		try {
+			return parse(reverseHeaderMap, inputFile, null, recordClass);
+		} catch (InvalidFormatException e1) {
+			// ignore
+			return new ArrayList<T>();
+		} catch (InvalidHeaderRowException e1) {
+			// ignore
+			return new ArrayList<T>();
+		}
 	}
 
 	/**
@@ -487,8 +843,15 @@ public class Ssio {
 	 */
 	public static List<Map<String, String>> parseToMapsIgnoringErrors(
 			Map<String, String> reverseHeaderMap, File inputFile) {
-        return readAsInputStream(inputFile,
-                input -> parseToMapsIgnoringErrors(reverseHeaderMap, input));
+		try {
+			return parseToMaps(reverseHeaderMap, inputFile, null, new ParseOptions());
+		} catch (InvalidFormatException e1) {
+			// ignore
+			return new ArrayList<Map<String, String>>();
+		} catch (InvalidHeaderRowException e1) {
+			// ignore
+			return new ArrayList<Map<String, String>>();
+		}
 	}
 
 
@@ -523,7 +886,7 @@ public class Ssio {
 			Class<T> recordClass) throws InvalidFormatException,
 			InvalidHeaderRowException {
 		validateRecordClass(recordClass);
-		return doParse(reverseHeaderMap, inputStream, recordClass, SepRecordType.JAVABEAN, cellErrors);
+		return doParse(reverseHeaderMap, inputStream, recordClass, SepRecordType.JAVABEAN, cellErrors, new ParseOptions());
 	}
 
 	/**
@@ -551,114 +914,1233 @@ public class Ssio {
 	public static List<Map<String, String>> parseToMaps(Map<String, String> reverseHeaderMap,
 														InputStream inputStream, List<CellError> cellErrors)
 			throws InvalidFormatException, InvalidHeaderRowException {
-		return doParse(reverseHeaderMap, inputStream, null, SepRecordType.MAP, cellErrors);
-	}
-
-	private static <T> List<T> doParse(Map<String, String> reverseHeaderMap, InputStream inputStream,
-									   Class<T> recordClassIfJavaBean, SepRecordType recordType, List<CellError> cellErrors)
-			throws InvalidFormatException, InvalidHeaderRowException {
-
-		validateReverseHeaderMap(reverseHeaderMap);
-
-		Workbook workbook = toWorkbook(inputStream);
-		if (workbook.getNumberOfSheets() <= 0) {
-			return new ArrayList<T>();
-		}
-
-		Sheet sheet = workbook.getSheetAt(0);
-
-		// key = columnIndex, value= {propName, headerText}
-		Map<Short, ColumnMeta> columnMetaMap = parseHeader(reverseHeaderMap,
-				sheet.getRow(0));
-		if (columnMetaMap.isEmpty()) {
-			throw new InvalidHeaderRowException();
-		}
-
-		// now do the data rows
-		List<T> records = new ArrayList<T>();
-		for (int rowIndex = 1; rowIndex <= sheet.getLastRowNum(); rowIndex++) {
-			Row row = sheet.getRow(rowIndex);
-			if (row == null) {
-				continue;
-			}
-
-			T record = (T) parseDataRow(columnMetaMap, row, rowIndex, recordType, recordClassIfJavaBean,
-					cellErrors);
-			records.add(record);
-		}
-		return records;
+		return doParse(reverseHeaderMap, inputStream, null, SepRecordType.MAP, cellErrors, new ParseOptions());
 	}
 
 	/**
-	 * please check the doc of {@link #parse(Map, InputStream, List, Class)}
+	 * please check the doc of {@link #parse(Map, InputStream, List, Class)}.
+	 * The difference is that you can control how the spreadsheet is parsed with
+	 * options, for example, to read the rows as a stream instead of loading the
+	 * whole workbook into memory.
+	 *
 	 * @param reverseHeaderMap
-	 * @param inputFile
+	 *            {@code <headerText, propName>, for example <"User Name" as the spreadsheet header, "username" of User class>.}
+	 * @param inputStream
+	 *            the input stream of this spreadsheet
 	 * @param cellErrors
+	 *            the errors of data rows (not including header row) found while
+	 *            being parsed. The error here can tell you which cell is wrong.
 	 * @param recordClass
-	 * @return
+	 *            the class the java bean. It must have a default constructor
+	 * @param options
+	 *            the parse options. Null means the default options
+	 * @param <T>
+	 *            the java type of records
+	 * @return a list of beans
 	 * @throws InvalidFormatException
+	 *             the input stream doesn't represent a valid spreadsheet
 	 * @throws InvalidHeaderRowException
+	 *             the header row of the spreadsheet is not valid, for example,
+	 *             no headerText accords to that of the reverseHeaerMap
+	 */
+	public static <T> List<T> parse(Map<String, String> reverseHeaderMap,
+			InputStream inputStream, List<CellError> cellErrors,
+			Class<T> recordClass, ParseOptions options) throws InvalidFormatException,
+			InvalidHeaderRowException {
+		validateRecordClass(recordClass);
+		return doParse(reverseHeaderMap, inputStream, recordClass, SepRecordType.JAVABEAN, cellErrors, options);
+	}
+
+	/**
+	 * please check the doc of {@link #parse(Map, InputStream, List, Class, ParseOptions)}.
+	 * The file is opened in random-access mode, so its parts are read from the
+	 * disk as needed instead of being copied into memory first
 	 */
 	public static <T> List<T> parse(Map<String, String> reverseHeaderMap, File inputFile, List<CellError> cellErrors,
-			Class<T> recordClass) throws InvalidFormatException, InvalidHeaderRowException {
-        return readAsInputStreamThrowingParseException(inputFile,
-                input -> parse(reverseHeaderMap, input, cellErrors, recordClass));
+			Class<T> recordClass, ParseOptions options) throws InvalidFormatException, InvalidHeaderRowException {
+		validateRecordClass(recordClass);
+		return doParse(reverseHeaderMap, inputFile, recordClass, SepRecordType.JAVABEAN, cellErrors, options);
 	}
 
 	/**
-	 * save records to a new workbook.
-	 *
-	 * @param headerMap
-	 *            {@code <propName, headerText>, for example <"username" field of User class, "User Name" as the spreadsheet header text>. }
-	 * @param records
-	 *            the records to save.
-	 * @param outputStream
-	 *            the output stream for the spreadsheet
-	 * @param datumErrPlaceholder
-	 *            if some datum is wrong, write this place holder to the cell
-	 *            (stillSaveIfDataError should be set true)
-	 * @param datumErrors
-	 *            all data errors in the records
-	 * @param stillSaveIfDataError
-	 *            if there are errors in data, should we still save the records
-	 *            ?
+	 * please check the doc of {@link #parse(Map, InputStream, List, Class, ParseOptions)}.
+	 * The difference is that the spreadsheet is parsed on the executor, and
+	 * this method returns at once, so the calling thread is not blocked.
 	 *
+	 * Any error, including an {@link InvalidFormatException} or an
+	 * {@link InvalidHeaderRowException}, is reported through the future. The
+	 * future can be cancelled, in which case the parsing stops before the next
+	 * row is read and the spreadsheet is closed.
 	 *
+	 * @param inputStream
+	 *            it is read on the executor, so please don't close it until
+	 *            the future is done
+	 * @param cellErrors
+	 *            filled on the executor. Please read it after the future is
+	 *            done
+	 * @param executor
+	 *            where the spreadsheet is parsed. Null means
+	 *            {@link ForkJoinPool#commonPool()}
+	 * @return the future of the records
 	 */
-	static <T> void doSave(Map<String, String> headerMap,
-						   Collection<T> records, SepRecordType recordType, OutputStream outputStream,
-						   String datumErrPlaceholder, List<DatumError> datumErrors,
-						   boolean stillSaveIfDataError) {
-		validateHeaderMap(headerMap);
+	public static <T> CompletableFuture<List<T>> parseAsync(Map<String, String> reverseHeaderMap,
+			InputStream inputStream, List<CellError> cellErrors, Class<T> recordClass, ParseOptions options,
+			Executor executor) {
+		return supplyAsync(cancelled -> {
+			validateRecordClass(recordClass);
+			validateReverseHeaderMap(reverseHeaderMap);
+			ParseOptions theOptions = options == null ? new ParseOptions() : options;
+			return readRecords(reverseHeaderMap,
+					CancellableRowReader.of(openFirstSheet(inputStream, theOptions), cancelled), recordClass,
+					SepRecordType.JAVABEAN, cellErrors, theOptions);
+		}, executor);
+	}
 
-		if (records == null) {
-			records = new ArrayList<T>();
-		}
-		if (outputStream == null) {
-			throw new IllegalArgumentException("the outputStream can not be null");
-		}
+	/**
+	 * please check the doc of {@link #parseAsync(Map, InputStream, List, Class, ParseOptions, Executor)}
+	 */
+	public static <T> CompletableFuture<List<T>> parseAsync(Map<String, String> reverseHeaderMap, File inputFile,
+			List<CellError> cellErrors, Class<T> recordClass, ParseOptions options, Executor executor) {
+		return supplyAsync(cancelled -> {
+			validateRecordClass(recordClass);
+			validateReverseHeaderMap(reverseHeaderMap);
+			ParseOptions theOptions = options == null ? new ParseOptions() : options;
+			return readRecords(reverseHeaderMap,
+					CancellableRowReader.of(openFirstSheet(inputFile, theOptions), cancelled), recordClass,
+					SepRecordType.JAVABEAN, cellErrors, theOptions);
+		}, executor);
+	}
 
-		Workbook wb = new XSSFWorkbook();
-		Sheet sheet = wb.createSheet();
+	/**
+	 * please check the doc of {@link #parseAsync(Map, InputStream, List, Class, ParseOptions, Executor)}.
+	 * The difference is that the records are maps, as
+	 * {@link #parseToMaps(Map, InputStream, List, ParseOptions)} does
+	 */
+	public static CompletableFuture<List<Map<String, String>>> parseToMapsAsync(Map<String, String> reverseHeaderMap,
+			InputStream inputStream, List<CellError> cellErrors, ParseOptions options, Executor executor) {
+		return supplyAsync(cancelled -> {
+			validateReverseHeaderMap(reverseHeaderMap);
+			ParseOptions theOptions = options == null ? new ParseOptions() : options;
+			return readRecords(reverseHeaderMap,
+					CancellableRowReader.of(openFirstSheet(inputStream, theOptions), cancelled), null,
+					SepRecordType.MAP, cellErrors, theOptions);
+		}, executor);
+	}
 
-		createHeaders(headerMap, sheet);
+	/**
+	 * please check the doc of {@link #parseToMapsAsync(Map, InputStream, List, ParseOptions, Executor)}
+	 */
+	public static CompletableFuture<List<Map<String, String>>> parseToMapsAsync(Map<String, String> reverseHeaderMap,
+			File inputFile, List<CellError> cellErrors, ParseOptions options, Executor executor) {
+		return supplyAsync(cancelled -> {
+			validateReverseHeaderMap(reverseHeaderMap);
+			ParseOptions theOptions = options == null ? new ParseOptions() : options;
+			return readRecords(reverseHeaderMap,
+					CancellableRowReader.of(openFirstSheet(inputFile, theOptions), cancelled), null,
+					SepRecordType.MAP, cellErrors, theOptions);
+		}, executor);
+	}
 
-		int recordIndex = 0;
-		for (T record : records) {
-			int rowIndex = recordIndex + 1;
-			createRow(headerMap, record, recordType, recordIndex, sheet, rowIndex,
-					datumErrPlaceholder, datumErrors);
-			recordIndex++;
-		}
+	/**
+	 * please check the doc of {@link #parseToMaps(Map, InputStream, List)}.
+	 * The difference is that you can control how the spreadsheet is parsed with
+	 * options.
+	 *
+	 * @param options
+	 *            the parse options. Null means the default options
+	 */
+	public static List<Map<String, String>> parseToMaps(Map<String, String> reverseHeaderMap,
+														InputStream inputStream, List<CellError> cellErrors, ParseOptions options)
+			throws InvalidFormatException, InvalidHeaderRowException {
+		return doParse(reverseHeaderMap, inputStream, null, SepRecordType.MAP, cellErrors, options);
+	}
 
-		if (shouldSave(datumErrors, stillSaveIfDataError)) {
-			writeWorkbook(wb, outputStream);
-		}
+	/**
+	 * please check the doc of {@link #parseToMaps(Map, InputStream, List, ParseOptions)}
+	 */
+	public static List<Map<String, String>> parseToMaps(Map<String, String> reverseHeaderMap,
+														File inputFile, List<CellError> cellErrors, ParseOptions options)
+			throws InvalidFormatException, InvalidHeaderRowException {
+		return doParse(reverseHeaderMap, inputFile, null, SepRecordType.MAP, cellErrors, options);
+	}
 
+	/**
+	 * read the header row (row 0) of the first sheet, and nothing else. An xlsx
+	 * file is read as a stream of xml events, and reading stops right after
+	 * the first row, so it is fast even for a very big file.
+	 *
+	 * @param inputFile
+	 *            the spreadsheet file
+	 * @return the header texts in the order of columns. A blank header cell is
+	 *         an empty string. Empty if there is no sheet or no header row
+	 * @throws InvalidFormatException
+	 *             the file doesn't represent a valid spreadsheet
+	 */
+	public static List<String> readHeaders(File inputFile) throws InvalidFormatException {
+		return doReadHeaders(openFirstSheet(inputFile, streamingParseOptions()));
 	}
 
 	/**
-	 * the workbook has been generated. Should we write it to the outputstream?
+	 * please check the doc of {@link #readHeaders(File)}. Note an xlsx input
+	 * stream is copied to a temp file first, but still only the first row is
+	 * parsed.
+	 *
+	 * @param inputStream
+	 *            the input stream of this spreadsheet. It won't be closed by
+	 *            this method
+	 */
+	public static List<String> readHeaders(InputStream inputStream) throws InvalidFormatException {
+		return doReadHeaders(openFirstSheet(inputStream, streamingParseOptions()));
+	}
+
+	/**
+	 * check the header row (row 0) of the first sheet against the
+	 * reverseHeaderMap, in the same way as
+	 * {@link #parse(Map, File, List, Class)} does, but without reading any
+	 * data row. Please check the doc of {@link #readHeaders(File)}
+	 *
+	 * @param reverseHeaderMap
+	 *            {@code <headerText, propName>}
+	 * @param inputFile
+	 *            the spreadsheet file
+	 * @throws InvalidFormatException
+	 *             the file doesn't represent a valid spreadsheet
+	 * @throws InvalidHeaderRowException
+	 *             the header row is not valid, for example, no headerText
+	 *             accords to that of the reverseHeaerMap
+	 */
+	public static void validateHeaders(Map<String, String> reverseHeaderMap, File inputFile)
+			throws InvalidFormatException, InvalidHeaderRowException {
+		validateReverseHeaderMap(reverseHeaderMap);
+		doValidateHeaders(reverseHeaderMap, openFirstSheet(inputFile, streamingParseOptions()));
+	}
+
+	/**
+	 * please check the doc of {@link #validateHeaders(Map, File)} and
+	 * {@link #readHeaders(InputStream)}
+	 */
+	public static void validateHeaders(Map<String, String> reverseHeaderMap, InputStream inputStream)
+			throws InvalidFormatException, InvalidHeaderRowException {
+		validateReverseHeaderMap(reverseHeaderMap);
+		doValidateHeaders(reverseHeaderMap, openFirstSheet(inputStream, streamingParseOptions()));
+	}
+
+	/**
+	 * get the used range and the row count of the first sheet, without
+	 * parsing any cell. For an xlsx file, it is taken from the dimension info
+	 * of the sheet if there is a meaningful one, otherwise the row elements
+	 * are scanned without reading the cells' values. For an xls file, the
+	 * records of the sheet are streamed one by one, and the rows are counted
+	 * without loading the workbook.
+	 *
+	 * @param inputFile
+	 *            the spreadsheet file
+	 * @return an empty dimension if there is no sheet
+	 * @throws InvalidFormatException
+	 *             the file doesn't represent a valid spreadsheet
+	 */
+	public static SheetDimension readSheetDimension(File inputFile) throws InvalidFormatException {
+		return doReadSheetDimension(openFirstSheet(inputFile, streamingParseOptions()));
+	}
+
+	/**
+	 * please check the doc of {@link #readSheetDimension(File)}. Note an xlsx
+	 * input stream is copied to a temp file first.
+	 *
+	 * @param inputStream
+	 *            the input stream of this spreadsheet. It won't be closed by
+	 *            this method
+	 */
+	public static SheetDimension readSheetDimension(InputStream inputStream) throws InvalidFormatException {
+		return doReadSheetDimension(openFirstSheet(inputStream, streamingParseOptions()));
+	}
+
+	/**
+	 * get the dimension, and then close the rowReader
+	 */
+	private static SheetDimension doReadSheetDimension(SepSheetRowReader rowReader) {
+		if (rowReader == null) {
+			return new SheetDimension();
+		}
+		try {
+			if (rowReader instanceof SepXlsxStreamingReader) {
+				return ((SepXlsxStreamingReader) rowReader).readDimension();
+			}
+			SheetDimension dimension = new SheetDimension();
+			int rowCount = 0;
+			for (SepSheetRow row = rowReader.nextRow(); row != null; row = rowReader.nextRow()) {
+				rowCount++;
+				if (dimension.getFirstRowIndex() < 0) {
+					dimension.setFirstRowIndex(row.getRowIndex());
+				}
+				dimension.setLastRowIndex(row.getRowIndex());
+				int firstColumnIndex = 0;
+				while (firstColumnIndex < row.getLastCellNum()
+						&& row.getCellType(firstColumnIndex) == SepCellType.BLANK) {
+					firstColumnIndex++;
+				}
+				if (firstColumnIndex >= row.getLastCellNum()) {
+					continue;
+				}
+				if (dimension.getFirstColumnIndex() < 0 || firstColumnIndex < dimension.getFirstColumnIndex()) {
+					dimension.setFirstColumnIndex(firstColumnIndex);
+				}
+				dimension.setLastColumnIndex(Math.max(dimension.getLastColumnIndex(), row.getLastCellNum() - 1));
+			}
+			dimension.setRowCount(rowCount);
+			return dimension;
+		} finally {
+			rowReader.close();
+		}
+	}
+
+	/**
+	 * read the header row, and then close the rowReader
+	 */
+	private static List<String> doReadHeaders(SepSheetRowReader rowReader) {
+		List<String> headers = new ArrayList<String>();
+		if (rowReader == null) {
+			return headers;
+		}
+		try {
+			SepSheetRow headerRow = rowReader.nextRow();
+			if (headerRow == null || headerRow.getRowIndex() != 0) {
+				return headers;
+			}
+			for (int columnIndex = 0; columnIndex < headerRow.getLastCellNum(); columnIndex++) {
+				headers.add(readHeaderText(headerRow, columnIndex));
+			}
+			return headers;
+		} finally {
+			rowReader.close();
+		}
+	}
+
+	/**
+	 * parse the header row, and then close the rowReader
+	 */
+	private static void doValidateHeaders(Map<String, String> reverseHeaderMap, SepSheetRowReader rowReader)
+			throws InvalidHeaderRowException {
+		if (rowReader == null) {
+			// same as parsing: no sheet, no records
+			return;
+		}
+		try {
+			SepSheetRow headerRow = rowReader.nextRow();
+			if (parseHeader(reverseHeaderMap, headerRow != null && headerRow.getRowIndex() == 0 ? headerRow : null)
+					.isEmpty()) {
+				throw new InvalidHeaderRowException();
+			}
+		} finally {
+			rowReader.close();
+		}
+	}
+
+	/**
+	 * <p>parse an spreadsheet column by column, into one primitive array per
+	 * column instead of one object per row. </p>
+	 * It is good for numeric-heavy sheets with lots of rows. The columns are
+	 * identified by the header row in the same way as
+	 * {@link #parse(Map, InputStream, List, Class, ParseOptions)}.
+	 *
+	 * @param reverseHeaderMap
+	 *            {@code <headerText, propName>, for example <"Temperature" as the spreadsheet header, "temperature" as the column's name>.}
+	 * @param inputStream
+	 *            the input stream of this spreadsheet
+	 * @param columnTypes
+	 *            {@code <propName, type>}. A type can be double.class,
+	 *            long.class, int.class, boolean.class or String.class. A
+	 *            property not in this map is a String column. Null means all
+	 *            are String columns
+	 * @param cellErrors
+	 *            the cells which cannot be converted to the type of their
+	 *            columns. Such a cell is seen as null
+	 * @param options
+	 *            the parse options. Null means the default options. The
+	 *            "parallel" option is ignored
+	 * @return the columns of the data rows
+	 * @throws InvalidFormatException
+	 *             the input stream doesn't represent a valid spreadsheet
+	 * @throws InvalidHeaderRowException
+	 *             the header row of the spreadsheet is not valid, for example,
+	 *             no headerText accords to that of the reverseHeaerMap
+	 */
+	public static SheetColumns parseToColumns(Map<String, String> reverseHeaderMap, InputStream inputStream,
+			Map<String, Class<?>> columnTypes, List<CellError> cellErrors, ParseOptions options)
+			throws InvalidFormatException, InvalidHeaderRowException {
+		validateReverseHeaderMap(reverseHeaderMap);
+		validateColumnTypes(columnTypes);
+		if (options == null) {
+			options = new ParseOptions();
+		}
+		return readColumns(reverseHeaderMap, openFirstSheet(inputStream, options), columnTypes, cellErrors, options);
+	}
+
+	/**
+	 * please check the doc of {@link #parseToColumns(Map, InputStream, Map, List, ParseOptions)}
+	 */
+	public static SheetColumns parseToColumns(Map<String, String> reverseHeaderMap, File inputFile,
+			Map<String, Class<?>> columnTypes, List<CellError> cellErrors, ParseOptions options)
+			throws InvalidFormatException, InvalidHeaderRowException {
+		validateReverseHeaderMap(reverseHeaderMap);
+		validateColumnTypes(columnTypes);
+		if (options == null) {
+			options = new ParseOptions();
+		}
+		return readColumns(reverseHeaderMap, openFirstSheet(inputFile, options), columnTypes, cellErrors, options);
+	}
+
+	private static void validateColumnTypes(Map<String, Class<?>> columnTypes) {
+		if (columnTypes == null) {
+			return;
+		}
+		for (Map.Entry<String, Class<?>> entry : columnTypes.entrySet()) {
+			if (!SepColumnBuffer.isSupported(entry.getValue())) {
+				throw new IllegalArgumentException("Unsupported column type " + entry.getValue() + " of property "
+						+ entry.getKey());
+			}
+		}
+	}
+
+	/**
+	 * read all the data rows into columns, and then close the rowReader
+	 */
+	private static SheetColumns readColumns(Map<String, String> reverseHeaderMap, SepSheetRowReader rowReader,
+			Map<String, Class<?>> columnTypes, List<CellError> cellErrors, ParseOptions options)
+			throws InvalidHeaderRowException {
+		if (rowReader == null) {
+			return new SheetColumns(new LinkedHashMap<String, SepColumnBuffer>(), new int[0]);
+		}
+		try {
+			SepSheetRow headerRow = rowReader.nextRow();
+			Map<Short, ColumnMeta> columnMetaMap = parseHeader(reverseHeaderMap,
+					headerRow != null && headerRow.getRowIndex() == 0 ? headerRow : null);
+			if (columnMetaMap.isEmpty()) {
+				throw new InvalidHeaderRowException();
+			}
+			rowReader.setColumnProjection(toColumnProjection(columnMetaMap));
+			SepSheetRowReader dataRowReader = DataRowReader.of(rowReader, options, columnMetaMap);
+
+			// if a property is mapped by more than one column, the last one wins,
+			// just like what is done for the records
+			Map<String, Short> columnIndexByProp = new LinkedHashMap<String, Short>();
+			for (Map.Entry<Short, ColumnMeta> entry : columnMetaMap.entrySet()) {
+				columnIndexByProp.remove(entry.getValue().propName);
+				columnIndexByProp.put(entry.getValue().propName, entry.getKey());
+			}
+			int columnCount = columnIndexByProp.size();
+			int[] columnIndexes = new int[columnCount];
+			ColumnMeta[] columnMetas = new ColumnMeta[columnCount];
+			SepColumnBuffer[] buffers = new SepColumnBuffer[columnCount];
+			Map<String, SepColumnBuffer> columns = new LinkedHashMap<String, SepColumnBuffer>();
+			int i = 0;
+			for (Map.Entry<String, Short> entry : columnIndexByProp.entrySet()) {
+				Class<?> type = columnTypes == null ? null : columnTypes.get(entry.getKey());
+				columnIndexes[i] = entry.getValue();
+				columnMetas[i] = columnMetaMap.get(entry.getValue());
+				buffers[i] = new SepColumnBuffer(type == null ? String.class : type);
+				columns.put(entry.getKey(), buffers[i]);
+				i++;
+			}
+
+			int[] rowIndexes = new int[1024];
+			int rowCount = 0;
+			SepSheetRow row;
+			while ((row = dataRowReader.nextRow()) != null) {
+				if (rowCount == rowIndexes.length) {
+					rowIndexes = Arrays.copyOf(rowIndexes, rowCount * 2);
+				}
+				rowIndexes[rowCount++] = row.getRowIndex();
+				for (int c = 0; c < columnCount; c++) {
+					try {
+						buffers[c].add(row, columnIndexes[c]);
+					} catch (IllegalArgumentException e) {
+						buffers[c].addNull();
+						if (cellErrors != null) {
+							CellError ce = new CellError();
+							ce.setColumnIndex(columnIndexes[c]);
+							ce.setHeaderText(columnMetas[c].headerText);
+							ce.setPropName(columnMetas[c].propName);
+							ce.setRowIndex(row.getRowIndex());
+							ce.setCause(e);
+							cellErrors.add(ce);
+						}
+					}
+				}
+			}
+			for (SepColumnBuffer buffer : buffers) {
+				buffer.trim();
+			}
+			return new SheetColumns(columns, Arrays.copyOf(rowIndexes, rowCount));
+		} finally {
+			rowReader.close();
+		}
+	}
+
+	private static <T> List<T> doParse(Map<String, String> reverseHeaderMap, InputStream inputStream,
+									   Class<T> recordClassIfJavaBean, SepRecordType recordType, List<CellError> cellErrors,
+									   ParseOptions options)
+			throws InvalidFormatException, InvalidHeaderRowException {
+
+		validateReverseHeaderMap(reverseHeaderMap);
+		if (options == null) {
+			options = new ParseOptions();
+		}
+		return readRecords(reverseHeaderMap, openFirstSheet(inputStream, options), recordClassIfJavaBean,
+				recordType, cellErrors, options);
+	}
+
+	private static <T> List<T> doParse(Map<String, String> reverseHeaderMap, File inputFile,
+									   Class<T> recordClassIfJavaBean, SepRecordType recordType, List<CellError> cellErrors,
+									   ParseOptions options)
+			throws InvalidFormatException, InvalidHeaderRowException {
+
+		validateReverseHeaderMap(reverseHeaderMap);
+		if (options == null) {
+			options = new ParseOptions();
+		}
+		return readRecords(reverseHeaderMap, openFirstSheet(inputFile, options), recordClassIfJavaBean,
+				recordType, cellErrors, options);
+	}
+
+	/**
+	 * read all the records of the sheet, and then close the rowReader
+	 */
+	private static <T> List<T> readRecords(Map<String, String> reverseHeaderMap, SepSheetRowReader rowReader,
+			Class<T> recordClassIfJavaBean, SepRecordType recordType, List<CellError> cellErrors,
+			ParseOptions options) throws InvalidHeaderRowException {
+		try (RowRecordIterator<T> iterator = iterateRecords(reverseHeaderMap, rowReader, recordClassIfJavaBean,
+				recordType, cellErrors, options)) {
+			if (options.isParallel()) {
+				return iterator.drainInParallel(options.getExecutor(), options.getParallelBatchSize());
+			}
+			List<T> records = new ArrayList<T>();
+			while (iterator.hasNext()) {
+				records.add(iterator.next());
+			}
+			return records;
+		}
+	}
+
+	/**
+	 * <p>parse an spreadsheet to a stream of beans. </p>
+	 * A row is only read and converted to a bean when the stream pulls it, so
+	 * you can start handling the first records before the whole file is read,
+	 * or stop early with {@link Stream#limit(long)}. The xlsx file will be read
+	 * as a stream of xml events. Please close the stream after using it,
+	 * better with a try-with-resources statement.
+	 *
+	 * @param reverseHeaderMap
+	 *            {@code <headerText, propName>, for example <"User Name" as the spreadsheet header, "username" of User class>.}
+	 * @param inputFile
+	 *            the spreadsheet file
+	 * @param cellErrors
+	 *            the errors of data rows (not including header row) found while
+	 *            being parsed. The errors are added as the records are pulled.
+	 * @param recordClass
+	 *            the class the java bean. It must have a default constructor
+	 * @param <T>
+	 *            the java type of records
+	 * @return a stream of beans
+	 * @throws InvalidFormatException
+	 *             the file doesn't represent a valid spreadsheet
+	 * @throws InvalidHeaderRowException
+	 *             the header row of the spreadsheet is not valid, for example,
+	 *             no headerText accords to that of the reverseHeaerMap
+	 */
+	public static <T> Stream<T> parseAsStream(Map<String, String> reverseHeaderMap, File inputFile,
+			List<CellError> cellErrors, Class<T> recordClass) throws InvalidFormatException, InvalidHeaderRowException {
+		return toStream(parseAsIterator(reverseHeaderMap, inputFile, cellErrors, recordClass));
+	}
+
+	/**
+	 * please check the doc of {@link #parseAsStream(Map, File, List, Class)}.
+	 * Note the input stream will be consumed as a whole before this method
+	 * returns, but the rows are still read and converted on demand.
+	 */
+	public static <T> Stream<T> parseAsStream(Map<String, String> reverseHeaderMap, InputStream inputStream,
+			List<CellError> cellErrors, Class<T> recordClass) throws InvalidFormatException, InvalidHeaderRowException {
+		return toStream(parseAsIterator(reverseHeaderMap, inputStream, cellErrors, recordClass));
+	}
+
+	/**
+	 * please check the doc of {@link #parseAsStream(Map, File, List, Class)}.
+	 * The difference is that an iterator is returned. Please close it after
+	 * using it.
+	 */
+	public static <T> RecordIterator<T> parseAsIterator(Map<String, String> reverseHeaderMap, File inputFile,
+			List<CellError> cellErrors, Class<T> recordClass) throws InvalidFormatException, InvalidHeaderRowException {
+		validateRecordClass(recordClass);
+		validateReverseHeaderMap(reverseHeaderMap);
+		return iterateRecords(reverseHeaderMap, openFirstSheet(inputFile, streamingParseOptions()), recordClass,
+				SepRecordType.JAVABEAN, cellErrors, null);
+	}
+
+	/**
+	 * please check the doc of {@link #parseAsStream(Map, InputStream, List, Class)}.
+	 * The difference is that an iterator is returned. Please close it after
+	 * using it.
+	 */
+	public static <T> RecordIterator<T> parseAsIterator(Map<String, String> reverseHeaderMap, InputStream inputStream,
+			List<CellError> cellErrors, Class<T> recordClass) throws InvalidFormatException, InvalidHeaderRowException {
+		validateRecordClass(recordClass);
+		validateReverseHeaderMap(reverseHeaderMap);
+		return iterateRecords(reverseHeaderMap, openFirstSheet(inputStream, streamingParseOptions()), recordClass,
+				SepRecordType.JAVABEAN, cellErrors, null);
+	}
+
+	/**
+	 * please check the doc of {@link #parseAsStream(Map, File, List, Class)}.
+	 * The difference is that each record is a Map<String,String>
+	 */
+	public static Stream<Map<String, String>> parseToMapsAsStream(Map<String, String> reverseHeaderMap, File inputFile,
+			List<CellError> cellErrors) throws InvalidFormatException, InvalidHeaderRowException {
+		validateReverseHeaderMap(reverseHeaderMap);
+		RecordIterator<Map<String, String>> iterator = iterateRecords(reverseHeaderMap,
+				openFirstSheet(inputFile, streamingParseOptions()), null, SepRecordType.MAP, cellErrors, null);
+		return toStream(iterator);
+	}
+
+	/**
+	 * please check the doc of {@link #parseAsStream(Map, InputStream, List, Class)}.
+	 * The difference is that each record is a Map<String,String>
+	 */
+	public static Stream<Map<String, String>> parseToMapsAsStream(Map<String, String> reverseHeaderMap,
+			InputStream inputStream, List<CellError> cellErrors) throws InvalidFormatException, InvalidHeaderRowException {
+		validateReverseHeaderMap(reverseHeaderMap);
+		RecordIterator<Map<String, String>> iterator = iterateRecords(reverseHeaderMap,
+				openFirstSheet(inputStream, streamingParseOptions()), null, SepRecordType.MAP, cellErrors, null);
+		return toStream(iterator);
+	}
+
+	/**
+	 * parse several sheets of a spreadsheet. Each sheet has its own header row
+	 * and data rows, and is parsed to a separate list. The sheets are parsed
+	 * concurrently, one task per sheet.
+	 *
+	 * @param reverseHeaderMap
+	 *            {@code <headerText, propName>}. It is used by the sheets
+	 *            without their own reverseHeaderMaps in the options
+	 * @param inputFile
+	 *            the spreadsheet file
+	 * @param recordClass
+	 *            the class the java bean. It must have a default constructor
+	 * @param options
+	 *            which sheets to parse and how. Null means all the sheets
+	 * @param <T>
+	 *            the java type of records
+	 * @return the results of the chosen sheets, in the order of the sheets. A
+	 *         sheet whose header row is invalid doesn't fail the others; it is
+	 *         flagged in its result instead
+	 * @throws InvalidFormatException
+	 *             the file doesn't represent a valid spreadsheet
+	 */
+	public static <T> List<SheetParseResult<T>> parseSheets(Map<String, String> reverseHeaderMap, File inputFile,
+			Class<T> recordClass, SheetParseOptions options) throws InvalidFormatException {
+		validateRecordClass(recordClass);
+		return doParseSheets(reverseHeaderMap, inputFile, recordClass, SepRecordType.JAVABEAN, options);
+	}
+
+	/**
+	 * please check the doc of
+	 * {@link #parseSheets(Map, File, Class, SheetParseOptions)}. An xlsx input
+	 * stream will be copied to a temp file first, which is deleted afterwards
+	 */
+	public static <T> List<SheetParseResult<T>> parseSheets(Map<String, String> reverseHeaderMap,
+			InputStream inputStream, Class<T> recordClass, SheetParseOptions options) throws InvalidFormatException {
+		validateRecordClass(recordClass);
+		return doParseSheets(reverseHeaderMap, inputStream, recordClass, SepRecordType.JAVABEAN, options);
+	}
+
+	/**
+	 * please check the doc of
+	 * {@link #parseSheets(Map, File, Class, SheetParseOptions)}. The difference
+	 * is that each record is a Map<String,String>
+	 */
+	public static List<SheetParseResult<Map<String, String>>> parseSheetsToMaps(Map<String, String> reverseHeaderMap,
+			File inputFile, SheetParseOptions options) throws InvalidFormatException {
+		return doParseSheets(reverseHeaderMap, inputFile, null, SepRecordType.MAP, options);
+	}
+
+	/**
+	 * please check the doc of
+	 * {@link #parseSheets(Map, InputStream, Class, SheetParseOptions)}. The
+	 * difference is that each record is a Map<String,String>
+	 */
+	public static List<SheetParseResult<Map<String, String>>> parseSheetsToMaps(Map<String, String> reverseHeaderMap,
+			InputStream inputStream, SheetParseOptions options) throws InvalidFormatException {
+		return doParseSheets(reverseHeaderMap, inputStream, null, SepRecordType.MAP, options);
+	}
+
+	private static <T> List<SheetParseResult<T>> doParseSheets(Map<String, String> reverseHeaderMap, File inputFile,
+			Class<T> recordClassIfJavaBean, SepRecordType recordType, SheetParseOptions options)
+			throws InvalidFormatException {
+		if (inputFile == null) {
+			throw new IllegalArgumentException("the inputFile can not be null");
+		}
+		if (isOoxmlFile(inputFile)) {
+			return parseXlsxSheets(reverseHeaderMap, inputFile, recordClassIfJavaBean, recordType, options);
+		}
+		try {
+			return readAsInputStreamThrowingParseException(inputFile,
+					input -> doParseSheets(reverseHeaderMap, input, recordClassIfJavaBean, recordType, options));
+		} catch (InvalidHeaderRowException e) {
+			// won't happen since header errors are put into the results
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static <T> List<SheetParseResult<T>> doParseSheets(Map<String, String> reverseHeaderMap,
+			InputStream inputStream, Class<T> recordClassIfJavaBean, SepRecordType recordType,
+			SheetParseOptions options) throws InvalidFormatException {
+		if (inputStream == null) {
+			throw new IllegalArgumentException("the inputStream can not be null");
+		}
+		if (!inputStream.markSupported()) {
+			inputStream = new PushbackInputStream(inputStream, 8);
+		}
+		if (hasOOXMLHeader(inputStream)) {
+			File tempFile = SepXlsxStreamingReader.copyToTempFile(inputStream);
+			try {
+				return parseXlsxSheets(reverseHeaderMap, tempFile, recordClassIfJavaBean, recordType, options);
+			} finally {
+				tempFile.delete();
+			}
+		}
+
+		// POI workbooks are not thread-safe, so read the rows here and only
+		// convert them concurrently
+		validateSheetHeaderMaps(reverseHeaderMap, options);
+		Workbook workbook = toWorkbook(inputStream);
+		List<String> sheetNames = new ArrayList<String>();
+		for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
+			sheetNames.add(workbook.getSheetName(i));
+		}
+		List<Integer> sheetIndexes = selectSheetIndexes(sheetNames, options);
+		List<List<SepSheetRow>> sheetsRows = new ArrayList<List<SepSheetRow>>();
+		for (int sheetIndex : sheetIndexes) {
+			List<SepSheetRow> rows = new ArrayList<SepSheetRow>();
+			SepSheetRowReader rowReader = new PoiSheetRowReader(workbook.getSheetAt(sheetIndex));
+			for (SepSheetRow row = rowReader.nextRow(); row != null; row = rowReader.nextRow()) {
+				rows.add(SnapshotRow.of(row));
+			}
+			sheetsRows.add(rows);
+		}
+		return parseSheetsConcurrently(reverseHeaderMap, sheetNames, sheetIndexes,
+				i -> new ListSheetRowReader(sheetsRows.get(i)), recordClassIfJavaBean, recordType, options);
+	}
+
+	private static <T> List<SheetParseResult<T>> parseXlsxSheets(Map<String, String> reverseHeaderMap, File file,
+			Class<T> recordClassIfJavaBean, SepRecordType recordType, SheetParseOptions options)
+			throws InvalidFormatException {
+		validateSheetHeaderMaps(reverseHeaderMap, options);
+		// the file is opened, and its shared strings are loaded, only once.
+		// Each sheet is then opened by its own task, so that the sheets are
+		// also read concurrently
+		try (SepXlsxStreamingReader.Workbook workbook = SepXlsxStreamingReader.openWorkbook(file)) {
+			List<String> sheetNames = workbook.getSheetNames();
+			List<Integer> sheetIndexes = selectSheetIndexes(sheetNames, options);
+			return parseSheetsConcurrently(reverseHeaderMap, sheetNames, sheetIndexes,
+					i -> workbook.openSheet(sheetIndexes.get(i)), recordClassIfJavaBean, recordType, options);
+		}
+	}
+
+	/**
+	 * @param rowReaderOpener
+	 *            open the row reader of the Nth selected sheet. It is called in
+	 *            the task of that sheet
+	 */
+	private static <T> List<SheetParseResult<T>> parseSheetsConcurrently(Map<String, String> reverseHeaderMap,
+			List<String> sheetNames, List<Integer> sheetIndexes,
+			FunctionThrowingParseException<Integer, SepSheetRowReader> rowReaderOpener,
+			Class<T> recordClassIfJavaBean, SepRecordType recordType, SheetParseOptions options)
+			throws InvalidFormatException {
+		Executor executor = options == null || options.getExecutor() == null ? ForkJoinPool.commonPool()
+				: options.getExecutor();
+
+		List<CompletableFuture<SheetParseResult<T>>> futures = new ArrayList<CompletableFuture<SheetParseResult<T>>>();
+		for (int i = 0; i < sheetIndexes.size(); i++) {
+			int nth = i;
+			int sheetIndex = sheetIndexes.get(i);
+			String sheetName = sheetNames.get(sheetIndex);
+			Map<String, String> sheetHeaderMap = getSheetHeaderMap(reverseHeaderMap, sheetName, options);
+			futures.add(CompletableFuture.supplyAsync(() -> {
+				try {
+					return parseSheet(sheetIndex, sheetName, sheetHeaderMap, rowReaderOpener.applyThrows(nth),
+							recordClassIfJavaBean, recordType, options);
+				} catch (InvalidFormatException | InvalidHeaderRowException e) {
+					throw new CompletionException(e);
+				}
+			}, executor));
+		}
+
+		// wait for all of them, so that no file is still being read when this
+		// method returns
+		try {
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).join();
+		} catch (CompletionException e) {
+			// will be thrown below
+		}
+
+		List<SheetParseResult<T>> results = new ArrayList<SheetParseResult<T>>();
+		for (CompletableFuture<SheetParseResult<T>> future : futures) {
+			try {
+				results.add(future.join());
+			} catch (CompletionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof InvalidFormatException) {
+					throw (InvalidFormatException) cause;
+				}
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw e;
+			}
+		}
+		return results;
+	}
+
+	private static <T> SheetParseResult<T> parseSheet(int sheetIndex, String sheetName,
+			Map<String, String> reverseHeaderMap, SepSheetRowReader rowReader, Class<T> recordClassIfJavaBean,
+			SepRecordType recordType, ParseOptions options) {
+		SheetParseResult<T> result = new SheetParseResult<T>();
+		result.setSheetIndex(sheetIndex);
+		result.setSheetName(sheetName);
+		List<CellError> cellErrors = new ArrayList<CellError>();
+		List<T> records = new ArrayList<T>();
+		try (RowRecordIterator<T> iterator = iterateRecords(reverseHeaderMap, rowReader, recordClassIfJavaBean,
+				recordType, cellErrors, options)) {
+			while (iterator.hasNext()) {
+				records.add(iterator.next());
+			}
+		} catch (InvalidHeaderRowException e) {
+			result.setHeaderRowInvalid(true);
+		}
+		result.setRecords(records);
+		result.setCellErrors(cellErrors);
+		return result;
+	}
+
+	/**
+	 * @return the indexes of the chosen sheets, in ascending order
+	 */
+	private static List<Integer> selectSheetIndexes(List<String> sheetNames, SheetParseOptions options) {
+		List<Integer> chosenIndexes = options == null ? null : options.getSheetIndexes();
+		List<String> chosenNames = options == null ? null : options.getSheetNames();
+		TreeSet<Integer> sheetIndexes = new TreeSet<Integer>();
+		if (chosenIndexes == null && chosenNames == null) {
+			for (int i = 0; i < sheetNames.size(); i++) {
+				sheetIndexes.add(i);
+			}
+			return new ArrayList<Integer>(sheetIndexes);
+		}
+		if (chosenIndexes != null) {
+			for (Integer sheetIndex : chosenIndexes) {
+				if (sheetIndex == null || sheetIndex < 0 || sheetIndex >= sheetNames.size()) {
+					throw new IllegalArgumentException("There is no sheet at index " + sheetIndex);
+				}
+				sheetIndexes.add(sheetIndex);
+			}
+		}
+		if (chosenNames != null) {
+			for (String sheetName : chosenNames) {
+				int sheetIndex = sheetNames.indexOf(sheetName);
+				if (sheetIndex < 0) {
+					throw new IllegalArgumentException("There is no sheet named \"" + sheetName + "\"");
+				}
+				sheetIndexes.add(sheetIndex);
+			}
+		}
+		return new ArrayList<Integer>(sheetIndexes);
+	}
+
+	private static void validateSheetHeaderMaps(Map<String, String> reverseHeaderMap, SheetParseOptions options) {
+		validateReverseHeaderMap(reverseHeaderMap);
+		if (options != null && options.getCsvFormat() != null) {
+			throw new IllegalArgumentException("Delimited text has only one sheet. Please parse it with parse()");
+		}
+		if (options != null && options.getReverseHeaderMapsBySheetName() != null) {
+			for (Map<String, String> sheetHeaderMap : options.getReverseHeaderMapsBySheetName().values()) {
+				validateReverseHeaderMap(sheetHeaderMap);
+			}
+		}
+	}
+
+	private static Map<String, String> getSheetHeaderMap(Map<String, String> reverseHeaderMap, String sheetName,
+			SheetParseOptions options) {
+		if (options != null && options.getReverseHeaderMapsBySheetName() != null) {
+			Map<String, String> sheetHeaderMap = options.getReverseHeaderMapsBySheetName().get(sheetName);
+			if (sheetHeaderMap != null) {
+				return sheetHeaderMap;
+			}
+		}
+		return reverseHeaderMap;
+	}
+
+	private static ParseOptions streamingParseOptions() {
+		ParseOptions options = new ParseOptions();
+		options.setStreaming(true);
+		return options;
+	}
+
+	/**
+	 * run the task on the executor and complete the future with its result or
+	 * error
+	 *
+	 * @param task
+	 *            it is given something to tell whether the future has been
+	 *            cancelled, which it should check from time to time
+	 * @param executor
+	 *            null means {@link ForkJoinPool#commonPool()}
+	 */
+	private static <T> CompletableFuture<T> supplyAsync(FunctionThrowingParseException<BooleanSupplier, T> task,
+			Executor executor) {
+		CompletableFuture<T> future = new CompletableFuture<T>();
+		Executor theExecutor = executor == null ? ForkJoinPool.commonPool() : executor;
+		try {
+			theExecutor.execute(() -> {
+				if (future.isDone()) {
+					// cancelled before it starts
+					return;
+				}
+				try {
+					future.complete(task.applyThrows(future::isCancelled));
+				} catch (Throwable e) {
+					future.completeExceptionally(e);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	private static <T> Stream<T> toStream(RecordIterator<T> iterator) {
+		Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(iterator,
+				Spliterator.ORDERED | Spliterator.NONNULL);
+		return StreamSupport.stream(spliterator, false).onClose(iterator::close);
+	}
+
+	/**
+	 * parse the header row and get ready to read the data rows. The row reader
+	 * will be closed if the header row is invalid or anything else fails.
+	 *
+	 * @param rowReader
+	 *            null means there is no sheet and an empty iterator will be
+	 *            returned
+	 * @param options
+	 *            for the range of data rows. Null means all the data rows
+	 */
+	private static <T> RowRecordIterator<T> iterateRecords(Map<String, String> reverseHeaderMap,
+			SepSheetRowReader rowReader, Class<T> recordClassIfJavaBean, SepRecordType recordType,
+			List<CellError> cellErrors, ParseOptions options) throws InvalidHeaderRowException {
+		if (rowReader == null) {
+			return new RowRecordIterator<T>(null, null, recordType, cellErrors);
+		}
+
+		try {
+			SepSheetRow headerRow = rowReader.nextRow();
+			// key = columnIndex, value= {propName, headerText}
+			Map<Short, ColumnMeta> columnMetaMap = parseHeader(reverseHeaderMap,
+					headerRow != null && headerRow.getRowIndex() == 0 ? headerRow : null);
+			SepSheetRowReader dataRowReader = DataRowReader.of(rowReader, options, columnMetaMap);
+			if (columnMetaMap.isEmpty()) {
+				rowReader.close();
+				throw new InvalidHeaderRowException();
+			}
+			rowReader.setColumnProjection(toColumnProjection(columnMetaMap));
+			RowBindingPlan plan = RowBindingPlan.of(columnMetaMap,
+					recordType == SepRecordType.JAVABEAN ? recordClassIfJavaBean : null);
+			return new RowRecordIterator<T>(dataRowReader, plan, recordType, cellErrors);
+		} catch (RuntimeException e) {
+			rowReader.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * open the first sheet of the spreadsheet
+	 *
+	 * @return null if there is no sheet
+	 */
+	private static SepSheetRowReader openFirstSheet(InputStream inputStream, ParseOptions options)
+			throws InvalidFormatException {
+		if (options.getCsvFormat() != null) {
+			return new SepCsvReader(new InputStreamReader(inputStream, options.getCsvFormat().getCharset()),
+					options.getCsvFormat().getDelimiter(), null);
+		}
+		if (options.isStreaming()) {
+			if (!inputStream.markSupported()) {
+				inputStream = new PushbackInputStream(inputStream, 8);
+			}
+			if (hasOOXMLHeader(inputStream)) {
+				return SepXlsxStreamingReader.open(inputStream);
+			}
+			if (hasPOIFSHeader(inputStream)) {
+				return SepXlsStreamingReader.open(inputStream);
+			}
+		}
+
+		Workbook workbook = toWorkbook(inputStream);
+		if (workbook.getNumberOfSheets() <= 0) {
+			return null;
+		}
+		return new PoiSheetRowReader(workbook.getSheetAt(0));
+	}
+
+	/**
+	 * open the first sheet of the spreadsheet file. The file is read in
+	 * random-access mode and kept open until the reader is closed, so only the
+	 * parts needed are read from the disk
+	 *
+	 * @return null if there is no sheet
+	 */
+	private static SepSheetRowReader openFirstSheet(File file, ParseOptions options) throws InvalidFormatException {
+		if (options.getCsvFormat() != null) {
+			try {
+				InputStream inputStream = new FileInputStream(file);
+				return new SepCsvReader(new InputStreamReader(inputStream, options.getCsvFormat().getCharset()),
+						options.getCsvFormat().getDelimiter(), inputStream);
+			} catch (FileNotFoundException e) {
+				throw new IllegalArgumentException(e);
+			}
+		}
+		if (isOoxmlFile(file)) {
+			return options.isStreaming() ? SepXlsxStreamingReader.open(file) : openXlsxFirstSheet(file);
+		}
+		if (isOle2File(file)) {
+			return options.isStreaming() ? SepXlsStreamingReader.open(file) : openXlsFirstSheet(file);
+		}
+		// neither. Let POI tell what is wrong
+		try {
+			return readAsInputStreamThrowingParseException(file, input -> openFirstSheet(input, options));
+		} catch (InvalidHeaderRowException e) {
+			// won't happen since no header is parsed here
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static SepSheetRowReader openXlsxFirstSheet(File file) throws InvalidFormatException {
+		// read-only, otherwise POI may write the package back on closing
+		OPCPackage pkg = OPCPackage.open(file.getPath(), PackageAccess.READ);
+		try {
+			Workbook workbook = new XSSFWorkbook(pkg);
+			if (workbook.getNumberOfSheets() <= 0) {
+				pkg.revert();
+				return null;
+			}
+			return new PoiSheetRowReader(workbook.getSheetAt(0), pkg::revert);
+		} catch (IOException e) {
+			pkg.revert();
+			throw new IllegalStateException(e);
+		} catch (RuntimeException e) {
+			pkg.revert();
+			throw e;
+		}
+	}
+
+	private static SepSheetRowReader openXlsFirstSheet(File file) {
+		NPOIFSFileSystem fs = null;
+		try {
+			fs = new NPOIFSFileSystem(file);
+			Workbook workbook = new HSSFWorkbook(fs.getRoot(), true);
+			if (workbook.getNumberOfSheets() <= 0) {
+				fs.close();
+				return null;
+			}
+			return new PoiSheetRowReader(workbook.getSheetAt(0), fs);
+		} catch (IOException e) {
+			IOUtils.closeQuietly(fs);
+			throw new IllegalStateException(e);
+		} catch (RuntimeException e) {
+			IOUtils.closeQuietly(fs);
+			throw e;
+		}
+	}
+
+	private static boolean isOle2File(File file) {
+		try (InputStream input = new BufferedInputStream(new FileInputStream(file))) {
+			return POIFSFileSystem.hasPOIFSHeader(input);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static boolean isOoxmlFile(File file) {
+		try (InputStream input = new BufferedInputStream(new FileInputStream(file))) {
+			return hasOOXMLHeader(input);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static boolean hasPOIFSHeader(InputStream inputStream) {
+		try {
+			return POIFSFileSystem.hasPOIFSHeader(inputStream);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static boolean hasOOXMLHeader(InputStream inputStream) {
+		try {
+			return POIXMLDocument.hasOOXMLHeader(inputStream);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * please check the doc of {@link #parse(Map, InputStream, List, Class)}
+	 * @param reverseHeaderMap
+	 * @param inputFile
+	 * @param cellErrors
+	 * @param recordClass
+	 * @return
+	 * @throws InvalidFormatException
+	 * @throws InvalidHeaderRowException
+	 */
+	public static <T> List<T> parse(Map<String, String> reverseHeaderMap, File inputFile, List<CellError> cellErrors,
+			Class<T> recordClass) throws InvalidFormatException, InvalidHeaderRowException {
+		return parse(reverseHeaderMap, inputFile, cellErrors, recordClass, new ParseOptions());
+	}
+
+	/**
+	 * save records to a new workbook.
+	 *
+	 * @param headerMap
+	 *            {@code <propName, headerText>, for example <"username" field of User class, "User Name" as the spreadsheet header text>. }
+	 * @param records
+	 *            the records to save.
+	 * @param outputStream
+	 *            the output stream for the spreadsheet
+	 * @param datumErrPlaceholder
+	 *            if some datum is wrong, write this place holder to the cell
+	 *            (stillSaveIfDataError should be set true)
+	 * @param datumErrors
+	 *            all data errors in the records
+	 * @param stillSaveIfDataError
+	 *            if there are errors in data, should we still save the records
+	 *            ?
+	 *
+	 *
+	 */
+	static <T> void doSave(Map<String, String> headerMap,
+						   Collection<T> records, SepRecordType recordType, OutputStream outputStream,
+						   String datumErrPlaceholder, List<DatumError> datumErrors,
+						   boolean stillSaveIfDataError, SaveOptions options) {
+		validateHeaderMap(headerMap);
+
+		if (records == null) {
+			records = new ArrayList<T>();
+		}
+		if (outputStream == null) {
+			throw new IllegalArgumentException("the outputStream can not be null");
+		}
+		if (options == null) {
+			options = new SaveOptions();
+		}
+
+		if (options.getCsvFormat() != null) {
+			saveAsCsv(headerMap, records, recordType, outputStream, datumErrPlaceholder, datumErrors,
+					stillSaveIfDataError, options);
+			return;
+		}
+
+		if (options.isStreaming()) {
+			try (SepXlsxStreamingWriter sheetWriter = new SepXlsxStreamingWriter(options.getRowWindowSize(),
+					options.isCompressTempFiles(), options.getTempDir(), createWidthEstimator(options))) {
+				createRows(headerMap, records, recordType, sheetWriter, datumErrPlaceholder, datumErrors);
+				if (shouldSave(datumErrors, stillSaveIfDataError)) {
+					sheetWriter.write(outputStream);
+				}
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+			return;
+		}
+
+		Workbook wb = new XSSFWorkbook();
+		Sheet sheet = wb.createSheet();
+		createRows(headerMap, records, recordType, new PoiSheetWriter(sheet, createWidthEstimator(options)),
+				datumErrPlaceholder, datumErrors);
+
+		if (shouldSave(datumErrors, stillSaveIfDataError)) {
+			writeWorkbook(wb, outputStream);
+		}
+
+	}
+
+	/**
+	 * write the rows straight to the output stream. If they should only be
+	 * saved when there is no datum error, they are written to a temp file
+	 * first
+	 */
+	private static <T> void saveAsCsv(Map<String, String> headerMap, Collection<T> records,
+			SepRecordType recordType, OutputStream outputStream, String datumErrPlaceholder,
+			List<DatumError> datumErrors, boolean stillSaveIfDataError, SaveOptions options) {
+		CsvFormat csvFormat = options.getCsvFormat();
+		if (stillSaveIfDataError) {
+			SepCsvWriter csvWriter = new SepCsvWriter(new OutputStreamWriter(outputStream, csvFormat.getCharset()),
+					csvFormat.getDelimiter());
+			createRows(headerMap, records, recordType, csvWriter, datumErrPlaceholder, datumErrors);
+			csvWriter.flush();
+			return;
+		}
+
+		File tempFile = null;
+		try {
+			tempFile = File.createTempFile("sep4j-save-", ".csv", options.getTempDir());
+			try (Writer writer = new OutputStreamWriter(new FileOutputStream(tempFile), csvFormat.getCharset())) {
+				SepCsvWriter csvWriter = new SepCsvWriter(writer, csvFormat.getDelimiter());
+				createRows(headerMap, records, recordType, csvWriter, datumErrPlaceholder, datumErrors);
+				csvWriter.flush();
+			}
+			if (shouldSave(datumErrors, stillSaveIfDataError)) {
+				FileUtils.copyFile(tempFile, outputStream);
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		} finally {
+			if (tempFile != null) {
+				tempFile.delete();
+			}
+		}
+	}
+
+	/**
+	 * @return null if the widths should not be set
+	 */
+	private static SepColumnWidthEstimator createWidthEstimator(SaveOptions options) {
+		if (options.getColumnWidthMode() == ColumnWidthMode.NONE) {
+			return null;
+		}
+		return new SepColumnWidthEstimator(options.getColumnWidthSampleRows());
+	}
+
+	/**
+	 * create the header row and then the data rows
+	 */
+	private static <T> void createRows(Map<String, String> headerMap, Collection<T> records,
+									   SepRecordType recordType, SepSheetWriter sheetWriter,
+									   String datumErrPlaceholder, List<DatumError> datumErrors) {
+		createHeaders(headerMap, sheetWriter);
+
+		GetterPlan getterPlan = new GetterPlan(headerMap, recordType);
+		int recordIndex = 0;
+		for (T record : records) {
+			int rowIndex = recordIndex + 1;
+			createRow(getterPlan, record, recordIndex, sheetWriter, rowIndex,
+					datumErrPlaceholder, datumErrors);
+			recordIndex++;
+		}
+	}
+
+	/**
+	 * the workbook has been generated. Should we write it to the outputstream?
 	 */
 	static boolean shouldSave(List<DatumError> datumErrors,
 			boolean stillSaveIfDataError) {
@@ -695,236 +2177,852 @@ public class Ssio {
 								+ columnIndex);
 			}
 
-			if (StringUtils.isBlank(propName)) {
-				throw new IllegalArgumentException(
-						"One header defined in the reverseHeaderMap has a blank propName. Header Index (0-based) = "
-								+ columnIndex);
+			if (StringUtils.isBlank(propName)) {
+				throw new IllegalArgumentException(
+						"One header defined in the reverseHeaderMap has a blank propName. Header Index (0-based) = "
+								+ columnIndex);
+			}
+			columnIndex++;
+		}
+	}
+
+	static void validateHeaderMap(Map<String, String> headerMap) {
+		if (headerMap == null || headerMap.isEmpty()) {
+			throw new IllegalArgumentException(
+					"the headerMap can not be null or empty");
+		}
+		int columnIndex = 0;
+		for (Map.Entry<String, String> entry : headerMap.entrySet()) {
+			String propName = entry.getKey();
+			if (StringUtils.isBlank(propName)) {
+				throw new IllegalArgumentException(
+						"One header has a blank propName. Header Index (0-based) = "
+								+ columnIndex);
+			}
+			columnIndex++;
+		}
+	}
+
+	static <T> void setPropertyWithCellValue(Class<T> recordClass, T record,
+			String propName, Object cellStringOrDate) {
+		SepPropertySetters.of(recordClass, propName).setProperty(record, cellStringOrDate);
+	}
+
+	static <T> T createRecordInstance(Class<T> recordClass) {
+		try {
+			Constructor<T> constructor = recordClass
+					.getDeclaredConstructor(new Class[0]);
+			constructor.setAccessible(true);
+			return newInstance(constructor);
+		} catch (NoSuchMethodException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static <T> T newInstance(Constructor<T> constructor) {
+		try {
+			return constructor.newInstance(new Object[0]);
+		} catch (InstantiationException e) {
+			throw new RuntimeException(e);
+		} catch (IllegalAccessException e) {
+			throw new RuntimeException(e);
+		} catch (InvocationTargetException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * read the cell. it only supports: boolean, numeric, date(numeric cell type
+	 * + date cell format) and string.
+	 *
+	 * @param cell
+	 *            the cell to read
+	 * @return the date if it is a date cell, or else the string value (will be
+	 *         trimmed to null) . <br/>
+	 *
+	 *
+	 */
+	static Object readCellAsStringOrDate(Cell cell) {
+		if (cell == null) {
+			return null;
+		}
+
+		if (cell.getCellType() == Cell.CELL_TYPE_BLANK) {
+			return null;
+		}
+
+		if (cell.getCellType() == Cell.CELL_TYPE_BOOLEAN) {
+			return String.valueOf(cell.getBooleanCellValue());
+		}
+
+		if (cell.getCellType() == Cell.CELL_TYPE_ERROR) {
+			return null;
+		}
+
+		if (cell.getCellType() == Cell.CELL_TYPE_FORMULA) {
+			return null;
+		}
+
+		if (cell.getCellType() == Cell.CELL_TYPE_NUMERIC) {
+			if (DateUtil.isCellDateFormatted(cell)) {
+				return cell.getDateCellValue();
+			} else {
+				double v = cell.getNumericCellValue();
+				return String.valueOf(v);
+			}
+		}
+
+		if (cell.getCellType() == Cell.CELL_TYPE_STRING) {
+			String s = cell.getStringCellValue();
+			return StringUtils.trimToNull(s);
+		}
+		return null;
+
+	}
+
+	/**
+	 * the type of a cell, consistent with {@link #readCellAsStringOrDate(Cell)}
+	 */
+	static SepCellType readCellType(Cell cell) {
+		if (cell == null) {
+			return SepCellType.BLANK;
+		}
+		switch (cell.getCellType()) {
+			case Cell.CELL_TYPE_BOOLEAN:
+				return SepCellType.BOOLEAN;
+			case Cell.CELL_TYPE_NUMERIC:
+				return DateUtil.isCellDateFormatted(cell) ? SepCellType.DATE : SepCellType.NUMERIC;
+			case Cell.CELL_TYPE_STRING:
+				return StringUtils.trimToNull(cell.getStringCellValue()) == null ? SepCellType.BLANK : SepCellType.STRING;
+			default:
+				return SepCellType.BLANK;
+		}
+	}
+
+	private static Object parseDataRow(RowBindingPlan plan, SepSheetRow row, int rowIndex,
+			SepRecordType recordType, List<CellError> cellErrors) {
+
+		Object record;
+		switch (recordType){
+			case JAVABEAN:
+				record = plan.newRecord();
+				break;
+			case MAP:
+				record = new LinkedHashMap<String, String>();
+				break;
+			default:
+				throw new IllegalArgumentException("Unsupported record type: " + recordType);
+		}
+
+
+		// only the mapped columns are visited, so a wide sheet with few mapped
+		// columns costs no more per row than a narrow one
+		int lastCellNum = row.getLastCellNum();
+		for (int i = 0; i < plan.columnIndexes.length; i++) {
+			short columnIndex = plan.columnIndexes[i];
+			if (columnIndex >= lastCellNum) {
+				// the indexes are in ascending order
+				break;
+			}
+			ColumnMeta columnMeta = plan.columnMetas[i];
+			String propName = columnMeta.propName;
+
+			switch (recordType){
+				case JAVABEAN:
+					try {
+						// a numeric cell goes to a numeric property without a string in between
+						if (row.getCellType(columnIndex) == SepCellType.NUMERIC) {
+							columnMeta.setters.setNumericProperty(record, row.getNumericCellValue(columnIndex));
+						} else {
+							columnMeta.setters.setProperty(record, row.getCellValue(columnIndex));
+						}
+					} catch (Exception e) {
+						if (cellErrors != null) {
+							CellError ce = new CellError();
+							ce.setColumnIndex(columnIndex);
+							ce.setHeaderText(columnMeta.headerText);
+							ce.setPropName(propName);
+							ce.setRowIndex(rowIndex);
+							ce.setCause(e);
+							cellErrors.add(ce);
+						}
+					}
+					break;
+				case MAP:
+					Map<String, String> map = (Map<String, String>) record;
+					Object cellStringOrDate = row.getCellValue(columnIndex);
+					String value;
+					if (cellStringOrDate instanceof Date) {
+						value = DateFormatUtils.format(((Date) cellStringOrDate), SepConstants.DEAULT_DATE_FORMAT);
+					} else {
+						value = cellStringOrDate == null? null: cellStringOrDate.toString();
+					}
+					map.put(propName, value);
+					break;
+				default:
+					throw new IllegalArgumentException("Unsupported record type: " + recordType);
+			}
+		}
+
+		return record;
+	}
+
+	/**
+	 * meta info about a column
+	 *
+	 *
+	 */
+	private static class ColumnMeta {
+		public String propName;
+		public String headerText;
+
+		/**
+		 * only resolved in a {@link RowBindingPlan} for java beans
+		 */
+		public SepPropertySetters setters;
+
+		@Override
+		public String toString() {
+			return ToStringBuilder.reflectionToString(this,
+					ToStringStyle.SHORT_PREFIX_STYLE);
+		}
+	}
+
+	/**
+	 * a header layout and a record class compiled into what is needed to bind
+	 * data rows: the constructor, and the setters of each column resolved
+	 * beforehand. Plans are immutable and cached, so files with the same header
+	 * layout don't have to look up the setters again.
+	 */
+	private static class RowBindingPlan {
+		/**
+		 * how many column layouts are cached for a record class. The least
+		 * recently used one is dropped when there are more
+		 */
+		private static final int MAX_CACHED_PLANS = 64;
+
+		/**
+		 * key = recordClass, value = its plans by the column layout. The plans
+		 * are kept with the class itself, so they don't keep its class loader
+		 * from being unloaded
+		 */
+		private static final ClassValue<Map<List<Object>, RowBindingPlan>> PLANS_BY_CLASS = new ClassValue<Map<List<Object>, RowBindingPlan>>() {
+			@Override
+			protected Map<List<Object>, RowBindingPlan> computeValue(Class<?> recordClass) {
+				return createPlanCache();
+			}
+		};
+
+		/**
+		 * the plans for maps, by the column layout
+		 */
+		private static final Map<List<Object>, RowBindingPlan> PLANS_FOR_MAPS = createPlanCache();
+
+		/**
+		 * the indexes of the mapped columns, in ascending order
+		 */
+		final short[] columnIndexes;
+
+		/**
+		 * the i-th one is the meta of the column columnIndexes[i]
+		 */
+		final ColumnMeta[] columnMetas;
+		private final Class<?> recordClassIfJavaBean;
+
+		/**
+		 * null if there is no default constructor, in which case the error will
+		 * only be thrown when a record is to be created
+		 */
+		private final Constructor<?> constructorIfJavaBean;
+
+		private RowBindingPlan(Map<Short, ColumnMeta> parsedColumnMetaMap, Class<?> recordClassIfJavaBean) {
+			// the header is parsed from left to right, so the keys are already sorted
+			this.columnIndexes = new short[parsedColumnMetaMap.size()];
+			this.columnMetas = new ColumnMeta[parsedColumnMetaMap.size()];
+			int i = 0;
+			for (Map.Entry<Short, ColumnMeta> entry : parsedColumnMetaMap.entrySet()) {
+				ColumnMeta cm = new ColumnMeta();
+				cm.propName = entry.getValue().propName;
+				cm.headerText = entry.getValue().headerText;
+				if (recordClassIfJavaBean != null) {
+					cm.setters = SepPropertySetters.of(recordClassIfJavaBean, cm.propName);
+				}
+				columnIndexes[i] = entry.getKey();
+				columnMetas[i] = cm;
+				i++;
+			}
+			this.recordClassIfJavaBean = recordClassIfJavaBean;
+			this.constructorIfJavaBean = recordClassIfJavaBean == null ? null
+					: findDefaultConstructor(recordClassIfJavaBean);
+		}
+
+		/**
+		 * get the plan from the cache, or compile one
+		 */
+		static RowBindingPlan of(Map<Short, ColumnMeta> columnMetaMap, Class<?> recordClassIfJavaBean) {
+			List<Object> key = new ArrayList<Object>();
+			for (Map.Entry<Short, ColumnMeta> entry : columnMetaMap.entrySet()) {
+				key.add(entry.getKey());
+				key.add(entry.getValue().propName);
+				key.add(entry.getValue().headerText);
+			}
+			Map<List<Object>, RowBindingPlan> plans = recordClassIfJavaBean == null ? PLANS_FOR_MAPS
+					: PLANS_BY_CLASS.get(recordClassIfJavaBean);
+			RowBindingPlan plan = plans.get(key);
+			if (plan == null) {
+				plan = new RowBindingPlan(columnMetaMap, recordClassIfJavaBean);
+				plans.put(key, plan);
+			}
+			return plan;
+		}
+
+		/**
+		 * a thread-safe LRU cache
+		 */
+		private static Map<List<Object>, RowBindingPlan> createPlanCache() {
+			return Collections.synchronizedMap(new LinkedHashMap<List<Object>, RowBindingPlan>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<List<Object>, RowBindingPlan> eldest) {
+					return size() > MAX_CACHED_PLANS;
+				}
+			});
+		}
+
+		Object newRecord() {
+			if (constructorIfJavaBean == null) {
+				return createRecordInstance(recordClassIfJavaBean);
+			}
+			return newInstance(constructorIfJavaBean);
+		}
+
+		private static Constructor<?> findDefaultConstructor(Class<?> recordClass) {
+			try {
+				Constructor<?> constructor = recordClass.getDeclaredConstructor();
+				constructor.setAccessible(true);
+				return constructor;
+			} catch (NoSuchMethodException e) {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * the records and cell errors of a batch of rows
+	 */
+	private static class BoundBatch {
+		final List<Object> records = new ArrayList<Object>();
+		final List<CellError> cellErrors = new ArrayList<CellError>();
+	}
+
+	/**
+	 * a row whose cell values have all been read, so that it can be passed to
+	 * another thread
+	 */
+	private static class SnapshotRow implements SepSheetRow {
+		private final int rowIndex;
+		private final int lastCellNum;
+
+		/**
+		 * the columns whose cells are kept, in ascending order. Null means
+		 * all the columns, in which case a column's index is also its slot
+		 */
+		private final short[] columnIndexes;
+		private final Object[] cellValues;
+		private final SepCellType[] cellTypes;
+		private final double[] numbers;
+
+		private SnapshotRow(int rowIndex, int lastCellNum, short[] columnIndexes, int slotCount) {
+			this.rowIndex = rowIndex;
+			this.lastCellNum = lastCellNum;
+			this.columnIndexes = columnIndexes;
+			this.cellValues = new Object[slotCount];
+			this.cellTypes = new SepCellType[slotCount];
+			this.numbers = new double[slotCount];
+		}
+
+		/**
+		 * keep all the cells of the row
+		 */
+		static SnapshotRow of(SepSheetRow row) {
+			int lastCellNum = Math.max(row.getLastCellNum(), 0);
+			SnapshotRow snapshot = new SnapshotRow(row.getRowIndex(), lastCellNum, null, lastCellNum);
+			for (int columnIndex = 0; columnIndex < lastCellNum; columnIndex++) {
+				snapshot.copyCell(row, columnIndex, columnIndex);
+			}
+			return snapshot;
+		}
+
+		/**
+		 * keep only the cells of some columns, e.g. the mapped ones. The others
+		 * are read as blank cells
+		 *
+		 * @param columnIndexes
+		 *            in ascending order
+		 */
+		static SnapshotRow of(SepSheetRow row, short[] columnIndexes) {
+			SnapshotRow snapshot = new SnapshotRow(row.getRowIndex(), Math.max(row.getLastCellNum(), 0),
+					columnIndexes, columnIndexes.length);
+			for (int slot = 0; slot < columnIndexes.length && columnIndexes[slot] < snapshot.lastCellNum; slot++) {
+				snapshot.copyCell(row, columnIndexes[slot], slot);
+			}
+			return snapshot;
+		}
+
+		private void copyCell(SepSheetRow row, int columnIndex, int slot) {
+			cellValues[slot] = row.getCellValue(columnIndex);
+			cellTypes[slot] = row.getCellType(columnIndex);
+			numbers[slot] = row.getNumericCellValue(columnIndex);
+		}
+
+		/**
+		 * @return -1 if the cell is not kept
+		 */
+		private int slotOf(int columnIndex) {
+			if (columnIndex < 0 || columnIndex >= lastCellNum) {
+				return -1;
+			}
+			if (columnIndexes == null) {
+				return columnIndex;
+			}
+			return Math.max(Arrays.binarySearch(columnIndexes, (short) columnIndex), -1);
+		}
+
+		public SepCellType getCellType(int columnIndex) {
+			int slot = slotOf(columnIndex);
+			return slot < 0 || cellTypes[slot] == null ? SepCellType.BLANK : cellTypes[slot];
+		}
+
+		public double getNumericCellValue(int columnIndex) {
+			int slot = slotOf(columnIndex);
+			return slot < 0 ? 0 : numbers[slot];
+		}
+
+		public int getRowIndex() {
+			return rowIndex;
+		}
+
+		public int getLastCellNum() {
+			return lastCellNum;
+		}
+
+		public Object getCellValue(int columnIndex) {
+			int slot = slotOf(columnIndex);
+			return slot < 0 ? null : cellValues[slot];
+		}
+	}
+
+	/**
+	 * a POI row seen as a {@link SepSheetRow}
+	 */
+	private static class PoiSheetRow implements SepSheetRow {
+		private final Row row;
+
+		PoiSheetRow(Row row) {
+			this.row = row;
+		}
+
+		public int getRowIndex() {
+			return row.getRowNum();
+		}
+
+		public int getLastCellNum() {
+			return row.getLastCellNum();
+		}
+
+		public Object getCellValue(int columnIndex) {
+			return readCellAsStringOrDate(row.getCell(columnIndex));
+		}
+
+		public SepCellType getCellType(int columnIndex) {
+			return readCellType(row.getCell(columnIndex));
+		}
+
+		public double getNumericCellValue(int columnIndex) {
+			Cell cell = row.getCell(columnIndex);
+			if (cell == null || cell.getCellType() != Cell.CELL_TYPE_NUMERIC) {
+				return 0;
 			}
-			columnIndex++;
+			return cell.getNumericCellValue();
 		}
 	}
 
-	static void validateHeaderMap(Map<String, String> headerMap) {
-		if (headerMap == null || headerMap.isEmpty()) {
-			throw new IllegalArgumentException(
-					"the headerMap can not be null or empty");
+	/**
+	 * read the rows of a sheet which has been loaded in memory
+	 */
+	private static class PoiSheetRowReader implements SepSheetRowReader {
+		private final Sheet sheet;
+
+		/**
+		 * the file kept open for the sheet. Null if there is none
+		 */
+		private final Closeable source;
+		private int nextRowIndex = 0;
+
+		PoiSheetRowReader(Sheet sheet) {
+			this(sheet, null);
 		}
-		int columnIndex = 0;
-		for (Map.Entry<String, String> entry : headerMap.entrySet()) {
-			String propName = entry.getKey();
-			if (StringUtils.isBlank(propName)) {
-				throw new IllegalArgumentException(
-						"One header has a blank propName. Header Index (0-based) = "
-								+ columnIndex);
-			}
-			columnIndex++;
+
+		PoiSheetRowReader(Sheet sheet, Closeable source) {
+			this.sheet = sheet;
+			this.source = source;
 		}
-	}
 
-	static <T> void setPropertyWithCellValue(Class<T> recordClass, T record,
-			String propName, Object cellStringOrDate) {
-		IllegalArgumentException noSetterException = new IllegalArgumentException(
-				MessageFormat
-						.format("No suitable setter for property \"{0}\" with cellValue \"{1}\" ",
-								propName, cellStringOrDate));
-		List<Method> setters = SepReflectionHelper.findSettersByPropName(
-				recordClass, propName);
-
-		// no setter for this prop
-		if (setters.isEmpty()) {
-			throw noSetterException;
-		}
-
-		if (cellStringOrDate == null) {
-			// in this case, try all the setters one by one
-			for (Method setter : setters) {
-				Class<?> propClass = setter.getParameterTypes()[0];
-				if (SepBasicTypeConverts.canFromNull(propClass)) {
-					SepReflectionHelper.invokeSetter(setter, record, null);
-					return;
+		public SepSheetRow nextRow() {
+			while (nextRowIndex <= sheet.getLastRowNum()) {
+				Row row = sheet.getRow(nextRowIndex++);
+				if (row != null) {
+					return new PoiSheetRow(row);
 				}
 			}
-			throw noSetterException;
+			return null;
 		}
 
-		if (cellStringOrDate instanceof java.util.Date) {
-			Method setter = SepReflectionHelper.findSetterByPropNameAndType(
-					recordClass, propName, java.util.Date.class);
-			if (setter == null) {
-				throw noSetterException;
-			} else {
-				SepReflectionHelper.invokeSetter(setter, record,
-						cellStringOrDate);
-				return;
-			}
+		/**
+		 * the sheet has been loaded, so there is nothing to skip
+		 */
+		public void setColumnProjection(BitSet columnIndexes) {
 		}
 
-		// ok, we got a string
-		String cellText = (String) cellStringOrDate;
+		public void close() {
+			IOUtils.closeQuietly(source);
+		}
+	}
 
-		// try to find a string-type setter first
-		Method stringSetter = SepReflectionHelper.findSetterByPropNameAndType(
-				recordClass, propName, String.class);
-		if (stringSetter != null) {
-			SepReflectionHelper.invokeSetter(stringSetter, record, cellText);
-			return;
+	/**
+	 * read the rows which have been read before
+	 */
+	private static class ListSheetRowReader implements SepSheetRowReader {
+		private final Iterator<SepSheetRow> rows;
+
+		ListSheetRowReader(List<SepSheetRow> rows) {
+			this.rows = rows.iterator();
 		}
 
-		// no string-type setter? do a guess!
+		public SepSheetRow nextRow() {
+			return rows.hasNext() ? rows.next() : null;
+		}
 
-		for (Method setter : setters) {
-			Class<?> propClass = setter.getParameterTypes()[0];
-			if (SepBasicTypeConverts.canFromThisString(cellText, propClass)) {
-				Object propValue = SepBasicTypeConverts.fromThisString(
-						cellText, propClass);
-				SepReflectionHelper.invokeSetter(setter, record, propValue);
-				return;
-			}
+		public void setColumnProjection(BitSet columnIndexes) {
 		}
 
-		throw noSetterException;
+		public void close() {
+		}
 	}
 
-	static <T> T createRecordInstance(Class<T> recordClass) {
-		try {
-			Constructor<T> constructor = recordClass
-					.getDeclaredConstructor(new Class[0]);
-			constructor.setAccessible(true);
-			return constructor.newInstance(new Object[0]);
-		} catch (NoSuchMethodException e) {
-			throw new RuntimeException(e);
-		} catch (InstantiationException e) {
-			throw new RuntimeException(e);
-		} catch (IllegalAccessException e) {
-			throw new RuntimeException(e);
-		} catch (InvocationTargetException e) {
-			throw new RuntimeException(e);
+	/**
+	 * stop reading rows once the work is cancelled
+	 */
+	private static class CancellableRowReader implements SepSheetRowReader {
+		private final SepSheetRowReader rowReader;
+		private final BooleanSupplier cancelled;
+
+		private CancellableRowReader(SepSheetRowReader rowReader, BooleanSupplier cancelled) {
+			this.rowReader = rowReader;
+			this.cancelled = cancelled;
+		}
+
+		/**
+		 * @return null if the rowReader is null, i.e. there is no sheet
+		 */
+		static SepSheetRowReader of(SepSheetRowReader rowReader, BooleanSupplier cancelled) {
+			return rowReader == null ? null : new CancellableRowReader(rowReader, cancelled);
+		}
+
+		/**
+		 * @throws CancellationException
+		 *             the work has been cancelled
+		 */
+		public SepSheetRow nextRow() {
+			if (cancelled.getAsBoolean()) {
+				throw new CancellationException();
+			}
+			return rowReader.nextRow();
+		}
+
+		public void setColumnProjection(BitSet columnIndexes) {
+			rowReader.setColumnProjection(columnIndexes);
+		}
+
+		public void close() {
+			rowReader.close();
 		}
 	}
 
 	/**
-	 * read the cell. it only supports: boolean, numeric, date(numeric cell type
-	 * + date cell format) and string.
-	 *
-	 * @param cell
-	 *            the cell to read
-	 * @return the date if it is a date cell, or else the string value (will be
-	 *         trimmed to null) . <br/>
-	 *
-	 *
+	 * stop handing out records once the work is cancelled
 	 */
-	static Object readCellAsStringOrDate(Cell cell) {
-		if (cell == null) {
-			return null;
+	private static class CancellableCollection<T> extends AbstractCollection<T> {
+		private final Collection<T> records;
+		private final BooleanSupplier cancelled;
+
+		private CancellableCollection(Collection<T> records, BooleanSupplier cancelled) {
+			this.records = records;
+			this.cancelled = cancelled;
 		}
 
-		if (cell.getCellType() == Cell.CELL_TYPE_BLANK) {
-			return null;
+		/**
+		 * @return null if the records are null
+		 */
+		static <T> Collection<T> of(Collection<T> records, BooleanSupplier cancelled) {
+			return records == null ? null : new CancellableCollection<T>(records, cancelled);
 		}
 
-		if (cell.getCellType() == Cell.CELL_TYPE_BOOLEAN) {
-			return String.valueOf(cell.getBooleanCellValue());
+		/**
+		 * the iterator throws a {@link CancellationException} once the work
+		 * has been cancelled
+		 */
+		@Override
+		public Iterator<T> iterator() {
+			Iterator<T> iterator = records.iterator();
+			return new Iterator<T>() {
+				public boolean hasNext() {
+					if (cancelled.getAsBoolean()) {
+						throw new CancellationException();
+					}
+					return iterator.hasNext();
+				}
+
+				public T next() {
+					return iterator.next();
+				}
+			};
 		}
 
-		if (cell.getCellType() == Cell.CELL_TYPE_ERROR) {
-			return null;
+		@Override
+		public int size() {
+			return records.size();
 		}
+	}
 
-		if (cell.getCellType() == Cell.CELL_TYPE_FORMULA) {
-			return null;
+	/**
+	 * read the data rows chosen by the parse options: within the range, and
+	 * accepted by the row filter. Once the range is done, no more rows are read
+	 * from the underlying reader, so the rest of the sheet is neither parsed
+	 * nor decompressed
+	 */
+	private static class DataRowReader implements SepSheetRowReader {
+		private final SepSheetRowReader rowReader;
+		private final int startRow;
+		private final int maxRows;
+		private final Predicate<RawRow> stopCondition;
+		private final Predicate<RawRow> rowFilter;
+
+		/**
+		 * reused for every row. Null if there is neither a stop condition nor a
+		 * row filter
+		 */
+		private final RawRow rawRow;
+
+		private int rowCount;
+		private boolean done;
+
+		private DataRowReader(SepSheetRowReader rowReader, ParseOptions options, Map<Short, ColumnMeta> columnMetaMap) {
+			this.rowReader = rowReader;
+			this.startRow = options.getStartRow();
+			this.maxRows = options.getMaxRows();
+			this.stopCondition = options.getStopCondition();
+			this.rowFilter = options.getRowFilter();
+			this.rawRow = stopCondition == null && rowFilter == null ? null : toRawRow(columnMetaMap);
 		}
 
-		if (cell.getCellType() == Cell.CELL_TYPE_NUMERIC) {
-			if (DateUtil.isCellDateFormatted(cell)) {
-				return cell.getDateCellValue();
-			} else {
-				double v = cell.getNumericCellValue();
-				return String.valueOf(v);
+		/**
+		 * @return the rowReader itself if there is nothing to choose
+		 */
+		static SepSheetRowReader of(SepSheetRowReader rowReader, ParseOptions options,
+				Map<Short, ColumnMeta> columnMetaMap) {
+			if (options == null) {
+				return rowReader;
 			}
+			if (options.getStartRow() < 1) {
+				throw new IllegalArgumentException("the startRow must be at least 1, since row 0 is the header row");
+			}
+			if (options.getStartRow() == 1 && options.getMaxRows() < 0 && options.getStopCondition() == null
+					&& options.getRowFilter() == null) {
+				return rowReader;
+			}
+			return new DataRowReader(rowReader, options, columnMetaMap);
 		}
 
-		if (cell.getCellType() == Cell.CELL_TYPE_STRING) {
-			String s = cell.getStringCellValue();
-			return StringUtils.trimToNull(s);
+		public SepSheetRow nextRow() {
+			while (!done) {
+				if (maxRows >= 0 && rowCount >= maxRows) {
+					done = true;
+					break;
+				}
+				SepSheetRow row = rowReader.nextRow();
+				if (row != null && row.getRowIndex() < startRow) {
+					continue;
+				}
+				if (row == null) {
+					done = true;
+					break;
+				}
+				if (rawRow != null) {
+					rawRow.setRow(row);
+				}
+				if (stopCondition != null && stopCondition.test(rawRow)) {
+					done = true;
+					break;
+				}
+				if (rowFilter != null && !rowFilter.test(rawRow)) {
+					continue;
+				}
+				rowCount++;
+				return row;
+			}
+			return null;
+		}
+
+		public void setColumnProjection(BitSet columnIndexes) {
+			rowReader.setColumnProjection(columnIndexes);
+		}
+
+		public void close() {
+			rowReader.close();
 		}
-		return null;
 
+		private static RawRow toRawRow(Map<Short, ColumnMeta> columnMetaMap) {
+			Map<String, Short> columnIndexesByProp = new HashMap<String, Short>();
+			Map<String, Short> columnIndexesByHeader = new HashMap<String, Short>();
+			// if a property is mapped by more than one column, the last one wins,
+			// just like what is done for the records
+			for (Map.Entry<Short, ColumnMeta> entry : columnMetaMap.entrySet()) {
+				columnIndexesByProp.put(entry.getValue().propName, entry.getKey());
+				columnIndexesByHeader.put(entry.getValue().headerText, entry.getKey());
+			}
+			return new RawRow(columnIndexesByProp, columnIndexesByHeader);
+		}
 	}
 
-	private static Object parseDataRow(Map<Short, ColumnMeta> columnMetaMap,
-			Row row, int rowIndex, SepRecordType recordType, Class recordClassIfJavaBean,
-			List<CellError> cellErrors) {
+	/**
+	 * convert the data rows to records one by one, when they are pulled
+	 */
+	private static class RowRecordIterator<T> implements RecordIterator<T> {
+		private final SepSheetRowReader rowReader;
+		private final RowBindingPlan plan;
+		private final SepRecordType recordType;
+		private final List<CellError> cellErrors;
+
+		private SepSheetRow nextRow;
+		private boolean exhausted;
+
+		RowRecordIterator(SepSheetRowReader rowReader, RowBindingPlan plan, SepRecordType recordType,
+				List<CellError> cellErrors) {
+			this.rowReader = rowReader;
+			this.plan = plan;
+			this.recordType = recordType;
+			this.cellErrors = cellErrors;
+			this.exhausted = rowReader == null;
+		}
 
-		Object record;
-		switch (recordType){
-			case JAVABEAN:
-				record = createRecordInstance(recordClassIfJavaBean);
-				break;
-			case MAP:
-				record = new LinkedHashMap<String, String>();
-				break;
-			default:
-				throw new IllegalArgumentException("Unsupported record type: " + recordType);
+		public boolean hasNext() {
+			if (nextRow == null && !exhausted) {
+				nextRow = rowReader.nextRow();
+				if (nextRow == null) {
+					close();
+				}
+			}
+			return nextRow != null;
 		}
 
+		@SuppressWarnings("unchecked")
+		public T next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			SepSheetRow row = nextRow;
+			nextRow = null;
+			return (T) parseDataRow(plan, row, row.getRowIndex(), recordType, cellErrors);
+		}
 
-		for (short columnIndex = 0; columnIndex < row.getLastCellNum(); columnIndex++) {
-			ColumnMeta columnMeta = columnMetaMap.get(columnIndex);
-			if (columnMeta == null || columnMeta.propName == null) {
-				continue;
+		/**
+		 * read the remaining rows on this thread, and bind them to records in
+		 * batches on the executor. The records and the cell errors are still in
+		 * the order of rows.
+		 *
+		 * @param executor
+		 *            null means {@link ForkJoinPool#commonPool()}
+		 */
+		List<T> drainInParallel(Executor executor, int batchSize) {
+			if (batchSize <= 0) {
+				throw new IllegalArgumentException("the batchSize must be positive");
 			}
-			String propName = columnMeta.propName;
-			Cell cell = row.getCell(columnIndex);
-			Object cellStringOrDate = readCellAsStringOrDate(cell);
+			Executor theExecutor = executor == null ? ForkJoinPool.commonPool() : executor;
+			// don't read much more rows than the threads can bind
+			int maxPendingBatches = 2 * (executor == null ? ForkJoinPool.getCommonPoolParallelism()
+					: Runtime.getRuntime().availableProcessors()) + 1;
 
-			switch (recordType){
-				case JAVABEAN:
-					try {
-						setPropertyWithCellValue(recordClassIfJavaBean, record, propName,
-								cellStringOrDate);
-					} catch (Exception e) {
-						if (cellErrors != null) {
-							CellError ce = new CellError();
-							ce.setColumnIndex(columnIndex);
-							ce.setHeaderText(columnMeta.headerText);
-							ce.setPropName(propName);
-							ce.setRowIndex(rowIndex);
-							ce.setCause(e);
-							cellErrors.add(ce);
-						}
+			List<T> records = new ArrayList<T>();
+			Deque<CompletableFuture<BoundBatch>> pendingBatches = new ArrayDeque<CompletableFuture<BoundBatch>>();
+			try {
+				List<SepSheetRow> rows = new ArrayList<SepSheetRow>(batchSize);
+				while (hasNext()) {
+					// POI rows are not thread-safe, so read the cells here. Only
+					// the mapped ones are needed for binding
+					rows.add(SnapshotRow.of(nextRow, plan.columnIndexes));
+					nextRow = null;
+					if (rows.size() >= batchSize) {
+						pendingBatches.addLast(bindAsync(rows, theExecutor));
+						rows = new ArrayList<SepSheetRow>(batchSize);
 					}
-					break;
-				case MAP:
-					Map<String, String> map = (Map<String, String>) record;
-					String value;
-					if (cellStringOrDate instanceof Date) {
-						value = DateFormatUtils.format(((Date) cellStringOrDate), SepConstants.DEAULT_DATE_FORMAT);
-					} else {
-						value = cellStringOrDate == null? null: cellStringOrDate.toString();
+					if (pendingBatches.size() >= maxPendingBatches) {
+						collect(pendingBatches.removeFirst(), records);
 					}
-					map.put(propName, value);
-					break;
-				default:
-					throw new IllegalArgumentException("Unsupported record type: " + recordType);
+				}
+				if (!rows.isEmpty()) {
+					pendingBatches.addLast(bindAsync(rows, theExecutor));
+				}
+				while (!pendingBatches.isEmpty()) {
+					collect(pendingBatches.removeFirst(), records);
+				}
+			} finally {
+				for (CompletableFuture<BoundBatch> batch : pendingBatches) {
+					batch.cancel(false);
+				}
 			}
+			return records;
 		}
 
-		return record;
-	}
+		private CompletableFuture<BoundBatch> bindAsync(List<SepSheetRow> rows, Executor executor) {
+			return CompletableFuture.supplyAsync(() -> {
+				BoundBatch batch = new BoundBatch();
+				List<CellError> batchErrors = cellErrors == null ? null : batch.cellErrors;
+				for (SepSheetRow row : rows) {
+					batch.records.add(parseDataRow(plan, row, row.getRowIndex(), recordType, batchErrors));
+				}
+				return batch;
+			}, executor);
+		}
 
-	/**
-	 * meta info about a column
-	 *
-	 *
-	 */
-	private static class ColumnMeta {
-		public String propName;
-		public String headerText;
+		@SuppressWarnings("unchecked")
+		private void collect(CompletableFuture<BoundBatch> future, List<T> records) {
+			BoundBatch batch;
+			try {
+				batch = future.join();
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				if (e.getCause() instanceof Error) {
+					throw (Error) e.getCause();
+				}
+				throw e;
+			}
+			for (Object record : batch.records) {
+				records.add((T) record);
+			}
+			if (cellErrors != null) {
+				cellErrors.addAll(batch.cellErrors);
+			}
+		}
 
-		@Override
-		public String toString() {
-			return ToStringBuilder.reflectionToString(this,
-					ToStringStyle.SHORT_PREFIX_STYLE);
+		public void close() {
+			if (!exhausted) {
+				exhausted = true;
+				rowReader.close();
+			}
 		}
 	}
 
@@ -932,17 +3030,15 @@ public class Ssio {
 	 * to get <columnIndex, column info>
 	 */
 	private static Map<Short, ColumnMeta> parseHeader(
-			Map<String, String> reverseHeaderMap, Row row) {
+			Map<String, String> reverseHeaderMap, SepSheetRow row) {
 		Map<Short, ColumnMeta> columnMetaMap = new LinkedHashMap<Short, ColumnMeta>();
+		if (row == null) {
+			return columnMetaMap;
+		}
 
 		// note that row.getLastCellNum() is one-based
 		for (short columnIndex = 0; columnIndex < row.getLastCellNum(); columnIndex++) {
-			Cell cell = row.getCell(columnIndex);
-			Object headerObj = readCellAsStringOrDate(cell);
-			String headerText = headerObj == null ? "" : headerObj.toString();
-			if (headerText == null) {
-				continue;
-			}
+			String headerText = readHeaderText(row, columnIndex);
 			String propName = reverseHeaderMap.get(headerText);
 			if (propName == null) {
 				continue;
@@ -956,44 +3052,51 @@ public class Ssio {
 		return columnMetaMap;
 	}
 
-	private static Row createHeaders(Map<String, String> headerMap,
-			Sheet sheet) {
-		CellStyle style = sheet.getWorkbook().createCellStyle();
-		style.setFillForegroundColor(IndexedColors.YELLOW.getIndex());
-		style.setFillPattern(CellStyle.SOLID_FOREGROUND);
-		style.setBorderBottom(HSSFCellStyle.BORDER_THIN);
-		style.setBorderTop(HSSFCellStyle.BORDER_THIN);
-		style.setBorderRight(HSSFCellStyle.BORDER_THIN);
-		style.setBorderLeft(HSSFCellStyle.BORDER_THIN);
+	private static String readHeaderText(SepSheetRow row, int columnIndex) {
+		Object headerObj = row.getCellValue(columnIndex);
+		return headerObj == null ? "" : headerObj.toString();
+	}
+
+	/**
+	 * the indexes of the mapped columns
+	 */
+	private static BitSet toColumnProjection(Map<Short, ColumnMeta> columnMetaMap) {
+		BitSet columnIndexes = new BitSet();
+		for (Short columnIndex : columnMetaMap.keySet()) {
+			columnIndexes.set(columnIndex);
+		}
+		return columnIndexes;
+	}
 
-		Row header = sheet.createRow(0);
+	private static void createHeaders(Map<String, String> headerMap,
+			SepSheetWriter sheetWriter) {
+		String[] headerTexts = new String[headerMap.size()];
+		SepCellStyleType[] styleTypes = new SepCellStyleType[headerMap.size()];
 		int columnIndex = 0;
 		for (Map.Entry<String, String> entry : headerMap.entrySet()) {
-			String headerText = StringUtils.defaultString(entry.getValue());
-			Cell cell = createCell(header, columnIndex);
-			cell.setCellValue(headerText);
-			cell.setCellStyle(style);
-			sheet.autoSizeColumn(columnIndex);
+			headerTexts[columnIndex] = StringUtils.defaultString(entry.getValue());
+			styleTypes[columnIndex] = SepCellStyleType.HEADER;
 			columnIndex++;
 		}
-
-		return header;
+		sheetWriter.writeRow(0, headerTexts, styleTypes);
 	}
 
-	private static <T> Row createRow(Map<String, String> headerMap,
-									 T record, SepRecordType recordType, int recordIndex, Sheet sheet, int rowIndex,
+	private static <T> void createRow(GetterPlan getterPlan,
+									 T record, int recordIndex, SepSheetWriter sheetWriter, int rowIndex,
 									 String datumErrPlaceholder, List<DatumError> datumErrors) {
-		Row row = sheet.createRow(rowIndex);
-		int columnIndex = 0;
+		int columnCount = getterPlan.propNames.length;
+		String[] cellTexts = new String[columnCount];
+		SepCellStyleType[] styleTypes = new SepCellStyleType[columnCount];
+		Function<Object, Object>[] getters = getterPlan.gettersOf(record);
 
-		for (Map.Entry<String, String> entry : headerMap.entrySet()) {
+		for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
 			boolean datumErr = false;
-			String propName = entry.getKey();
+			String propName = getterPlan.propNames[columnIndex];
 			Object propValue = null;
 			try {
-				propValue = getProperty(record, recordType, propName);
+				propValue = getterPlan.getProperty(record, getters, columnIndex);
 			} catch (Exception e) {
-				if (datumErrors != null) {
+				if (datumErrors != null && getterPlan.shouldReport(record, getters, columnIndex)) {
 					DatumError de = new DatumError();
 					de.setPropName(propName);
 					de.setRecordIndex(recordIndex);
@@ -1005,35 +3108,154 @@ public class Ssio {
 			}
 			String propValueText = (propValue == null ? null : propValue
 					.toString());
-			Cell cell = createCell(row, columnIndex);
-			cell.setCellValue(StringUtils.defaultString(propValueText));
+			cellTexts[columnIndex] = StringUtils.defaultString(propValueText);
+			styleTypes[columnIndex] = datumErr ? SepCellStyleType.DATUM_ERROR : SepCellStyleType.NORMAL;
+		}
 
-			if (datumErr) {
-				CellStyle errStyle = sheet.getWorkbook().createCellStyle();
-				errStyle.setFillForegroundColor(IndexedColors.RED.getIndex());
-				errStyle.setFillPattern(CellStyle.SOLID_FOREGROUND);
-				cell.setCellStyle(errStyle);
-			}
+		sheetWriter.writeRow(rowIndex, cellTexts, styleTypes);
+	}
 
-			columnIndex++;
+	/**
+	 * write rows to a POI sheet in memory
+	 */
+	private static class PoiSheetWriter implements SepSheetWriter {
+		private final Sheet sheet;
+		private final SepCellStyleCache styleCache;
+		private final SepColumnWidthEstimator widthEstimator;
+
+		/**
+		 * @param widthEstimator
+		 *            null means the column widths won't be touched
+		 */
+		PoiSheetWriter(Sheet sheet, SepColumnWidthEstimator widthEstimator) {
+			this.sheet = sheet;
+			this.styleCache = new SepCellStyleCache(sheet.getWorkbook());
+			this.widthEstimator = widthEstimator;
 		}
 
-		return row;
+		public void writeRow(int rowIndex, String[] cellTexts, SepCellStyleType[] styleTypes) {
+			Row row = sheet.createRow(rowIndex);
+			for (int columnIndex = 0; columnIndex < cellTexts.length; columnIndex++) {
+				Cell cell = createCell(row, columnIndex);
+				cell.setCellValue(cellTexts[columnIndex]);
+
+				CellStyle style = styleCache.get(styleTypes[columnIndex]);
+				if (style != null) {
+					cell.setCellStyle(style);
+				}
+			}
+
+			if (widthEstimator != null && widthEstimator.observe(cellTexts)) {
+				for (int columnIndex = 0; columnIndex < widthEstimator.getColumnCount(); columnIndex++) {
+					int width = widthEstimator.getWidth(columnIndex);
+					if (width >= 0 && width != sheet.getColumnWidth(columnIndex)) {
+						sheet.setColumnWidth(columnIndex, width);
+					}
+				}
+			}
+		}
 	}
 
-	private static <T> Object getProperty(T record, SepRecordType recordType, String propName) {
+	/**
+	 * the getters of the columns to save, resolved once per record class
+	 * instead of for every cell. A property without a getter is only reported
+	 * once as a datum error.
+	 */
+	private static class GetterPlan {
+		final String[] propNames;
+		private final SepRecordType recordType;
+
+		/**
+		 * key = record class, value = getters by column index, null for a
+		 * property without a getter
+		 */
+		private final Map<Class<?>, Function<Object, Object>[]> gettersByClass = new HashMap<Class<?>, Function<Object, Object>[]>();
+		private Class<?> lastRecordClass;
+		private Function<Object, Object>[] lastGetters;
+
+		/**
+		 * the getter arrays whose missing getters have been reported, by column
+		 * index
+		 */
+		private final Map<Function<Object, Object>[], boolean[]> reportedMissings = new IdentityHashMap<Function<Object, Object>[], boolean[]>();
+
+		GetterPlan(Map<String, String> headerMap, SepRecordType recordType) {
+			this.propNames = headerMap.keySet().toArray(new String[headerMap.size()]);
+			this.recordType = recordType;
+		}
 
-		switch(recordType){
-			case JAVABEAN: {
-				return SepReflectionHelper.getProperty(record, propName);
+		/**
+		 * @return null if the record is not a java bean or it is null
+		 */
+		@SuppressWarnings("unchecked")
+		Function<Object, Object>[] gettersOf(Object record) {
+			if (recordType != SepRecordType.JAVABEAN || record == null) {
+				return null;
 			}
-			case MAP: {
-				Map map = (Map) record;
-				return map.get(propName);
+			Class<?> recordClass = record.getClass();
+			if (recordClass == lastRecordClass) {
+				return lastGetters;
 			}
-			default: {
-				throw new IllegalArgumentException("Unsupported record type: " + recordType);
+			Function<Object, Object>[] getters = gettersByClass.get(recordClass);
+			if (getters == null) {
+				getters = (Function<Object, Object>[]) new Function<?, ?>[propNames.length];
+				for (int i = 0; i < propNames.length; i++) {
+					if (propNames[i] != null) {
+						getters[i] = SepReflectionHelper.findGetterAccessorByPropName(recordClass, propNames[i]);
+					}
+				}
+				gettersByClass.put(recordClass, getters);
+			}
+			lastRecordClass = recordClass;
+			lastGetters = getters;
+			return getters;
+		}
+
+		@SuppressWarnings("rawtypes")
+		Object getProperty(Object record, Function<Object, Object>[] getters, int columnIndex) {
+			String propName = propNames[columnIndex];
+			switch (recordType) {
+				case JAVABEAN: {
+					if (getters == null || propName == null) {
+						// let it report the error
+						return SepReflectionHelper.getProperty(record, propName);
+					}
+					Function<Object, Object> getter = getters[columnIndex];
+					if (getter == null) {
+						String err = MessageFormat.format("Class {0} has no getter method for property \"{1}\"",
+								record.getClass(), propName);
+						throw new IllegalArgumentException(err);
+					}
+					return getter.apply(record);
+				}
+				case MAP: {
+					Map map = (Map) record;
+					return map.get(propName);
+				}
+				default: {
+					throw new IllegalArgumentException("Unsupported record type: " + recordType);
+				}
+			}
+		}
+
+		/**
+		 * whether an error of this cell should be reported. A missing getter is
+		 * only reported for the first record; other errors are always reported.
+		 */
+		boolean shouldReport(Object record, Function<Object, Object>[] getters, int columnIndex) {
+			if (getters == null || getters[columnIndex] != null) {
+				return true;
+			}
+			boolean[] reported = reportedMissings.get(getters);
+			if (reported == null) {
+				reported = new boolean[getters.length];
+				reportedMissings.put(getters, reported);
 			}
+			if (reported[columnIndex]) {
+				return false;
+			}
+			reported[columnIndex] = true;
+			return true;
 		}
 	}
 
@@ -1096,12 +3318,4 @@ public class Ssio {
             throw e;
         }
     }
-
-    private static <T> T readAsInputStream(File file, Function<InputStream, T> action) {
-        try (InputStream input = new FileInputStream(file)) {
-            return action.apply(input);
-        } catch (IOException e) {
-            throw new IllegalStateException(e);
-        }
-    }
 }
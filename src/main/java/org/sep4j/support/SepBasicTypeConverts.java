@@ -15,6 +15,14 @@ import java.util.regex.Pattern;
  */
 public class SepBasicTypeConverts {
 
+	/**
+	 * returned by {@link #tryFromThisString(String, Class)} if the string
+	 * cannot be converted
+	 */
+	public static final Object NOT_CONVERTIBLE = new Object();
+
+	private static final Pattern WHOLE_NUMBER_PATTERN = Pattern.compile("^(\\d+)\\.0*$");
+
 	private static final Map<Class<?>, CanFromStringTypeMeta> canFromStringTypeMetas = new LinkedHashMap<Class<?>, CanFromStringTypeMeta>();
 	private static final Map<Class<?>, CanFromNullTypeMeta> canFromNullTypeMetas = new LinkedHashMap<Class<?>, CanFromNullTypeMeta>();
 
@@ -65,6 +73,59 @@ public class SepBasicTypeConverts {
 		canFromNullTypeMetas.put(meta.getType(), meta);
 	}
 
+	/**
+	 * convert the raw value of a numeric cell to this type directly, without
+	 * turning it into a string first. An integral type only takes a whole
+	 * number within its range. A String is not a target type here, please use
+	 * String.valueOf() for it.
+	 * 
+	 * @param value
+	 *            the raw value
+	 * @param targetType
+	 *            a primitive numeric type or its wrapper, BigInteger or
+	 *            BigDecimal
+	 * @return {@link #NOT_CONVERTIBLE} if the value cannot be converted to this
+	 *         type
+	 */
+	public static Object tryFromDouble(double value, Class<?> targetType) {
+		if (targetType == double.class || targetType == Double.class) {
+			return value;
+		}
+		if (targetType == float.class || targetType == Float.class) {
+			return (float) value;
+		}
+		if (targetType == BigDecimal.class) {
+			return Double.isInfinite(value) || Double.isNaN(value) ? NOT_CONVERTIBLE : BigDecimal.valueOf(value);
+		}
+
+		if (targetType == BigInteger.class) {
+			boolean whole = value == Math.rint(value) && !Double.isInfinite(value);
+			return whole ? new BigDecimal(value).toBigInteger() : NOT_CONVERTIBLE;
+		}
+		if (!isWholeLong(value)) {
+			return NOT_CONVERTIBLE;
+		}
+		long v = (long) value;
+		if (targetType == long.class || targetType == Long.class) {
+			return v;
+		}
+		if (targetType == int.class || targetType == Integer.class) {
+			return v < Integer.MIN_VALUE || v > Integer.MAX_VALUE ? NOT_CONVERTIBLE : (int) v;
+		}
+		if (targetType == short.class || targetType == Short.class) {
+			return v < Short.MIN_VALUE || v > Short.MAX_VALUE ? NOT_CONVERTIBLE : (short) v;
+		}
+		return NOT_CONVERTIBLE;
+	}
+
+	/**
+	 * is this a whole number within the range of long?
+	 */
+	public static boolean isWholeLong(double value) {
+		// the bounds are compared as doubles. 2^63 itself is out of the range
+		return value == Math.rint(value) && value >= Long.MIN_VALUE && value < 0x1p63;
+	}
+
 	/**
 	 * can this type take null?
 	 */
@@ -77,16 +138,29 @@ public class SepBasicTypeConverts {
 	 * can this string be parsed as that type?
 	 */
 	public static boolean canFromThisString(String str, Class<?> targetType) {
+		return tryFromThisString(str, targetType) != NOT_CONVERTIBLE;
+	}
+
+	/**
+	 * parse from this string if it can be parsed as that type. The string is
+	 * only parsed once, and no exception will be thrown for a string that
+	 * cannot be parsed (e.g. a text for a numeric type), so it is cheap to try
+	 * several types one by one.
+	 * 
+	 * @param str
+	 *            the string
+	 * @param targetType
+	 *            the target type you want to convert the string to
+	 * @return {@link #NOT_CONVERTIBLE} if the string cannot be converted. Note
+	 *         "null" doesn't mean anything wrong. if it returns null, then null
+	 *         is the value you are looking for.
+	 */
+	public static Object tryFromThisString(String str, Class<?> targetType) {
 		CanFromStringTypeMeta typeMeta = canFromStringTypeMetas.get(targetType);
 		if (typeMeta == null) {
-			return false;
-		}
-		try {
-			typeMeta.fromThisString(str);
-			return true;
-		} catch (RuntimeException e) {
-			return false;
+			return NOT_CONVERTIBLE;
 		}
+		return typeMeta.tryFromThisString(str);
 	}
 	
 	/**
@@ -109,11 +183,11 @@ public class SepBasicTypeConverts {
 	 *         null is the value you are looking for.
 	 */
 	public static Object fromThisString(String str, Class<?> targetType) {
-		if (!canFromThisString(str, targetType)) {
+		Object value = tryFromThisString(str, targetType);
+		if (value == NOT_CONVERTIBLE) {
 			throw new IllegalArgumentException("Please call fromThisString(String str, targetType) first to confirm");
 		}
-		CanFromStringTypeMeta typeMeta = canFromStringTypeMetas.get(targetType);
-		return typeMeta.fromThisString(str);
+		return value;
 	}
 
 	private static interface BasicType {
@@ -145,13 +219,11 @@ public class SepBasicTypeConverts {
 		 * parse from this string.
 		 * 
 		 * @param str
-		 * @return Note "null" doesn't mean anything wrong. if it returns null,
-		 *         then null is the value you are looking for.
-		 * @throws RuntimeException
-		 *             If an exception is thrown, it means this string cannot be
-		 *             parsed
+		 * @return {@link SepBasicTypeConverts#NOT_CONVERTIBLE} if this string
+		 *         cannot be parsed. Note "null" doesn't mean anything wrong. if
+		 *         it returns null, then null is the value you are looking for.
 		 */
-		public Object fromThisString(String str) throws RuntimeException;
+		public Object tryFromThisString(String str);
 	}
 
 	private static class ShortType implements CanFromStringTypeMeta {
@@ -160,9 +232,8 @@ public class SepBasicTypeConverts {
 			return short.class;
 		}
 
-		public Object fromThisString(String str) {
-			str = retainWholeIfDecimalPartZero(str);
-			return Short.parseShort(str);
+		public Object tryFromThisString(String str) {
+			return tryParseIntegral(str, Short.MIN_VALUE, Short.MAX_VALUE, short.class);
 		}
 
 	}
@@ -173,9 +244,8 @@ public class SepBasicTypeConverts {
 			return int.class;
 		}
 
-		public Object fromThisString(String str) {
-			str = retainWholeIfDecimalPartZero(str);
-			return Integer.parseInt(str);
+		public Object tryFromThisString(String str) {
+			return tryParseIntegral(str, Integer.MIN_VALUE, Integer.MAX_VALUE, int.class);
 		}
 
 	}
@@ -186,9 +256,8 @@ public class SepBasicTypeConverts {
 			return long.class;
 		}
 
-		public Object fromThisString(String str) {
-			str = retainWholeIfDecimalPartZero(str);
-			return Long.parseLong(str);
+		public Object tryFromThisString(String str) {
+			return tryParseIntegral(str, Long.MIN_VALUE, Long.MAX_VALUE, long.class);
 		}
 
 	}
@@ -199,8 +268,8 @@ public class SepBasicTypeConverts {
 			return float.class;
 		}
 
-		public Object fromThisString(String str) {
-			return Float.parseFloat(str);
+		public Object tryFromThisString(String str) {
+			return tryParseFloating(str, float.class);
 		}
 
 	}
@@ -211,8 +280,8 @@ public class SepBasicTypeConverts {
 			return double.class;
 		}
 
-		public Object fromThisString(String str) {
-			return Double.parseDouble(str);
+		public Object tryFromThisString(String str) {
+			return tryParseFloating(str, double.class);
 		}
 
 	}
@@ -223,9 +292,10 @@ public class SepBasicTypeConverts {
 			return boolean.class;
 		}
 
-		public Object fromThisString(String str) {
+		public Object tryFromThisString(String str) {
 			if (str == null) {
-				throw new IllegalArgumentException("don't take null for primitive boolean type");
+				// don't take null for primitive boolean type
+				return NOT_CONVERTIBLE;
 			}
 
 			return Boolean.parseBoolean(str);
@@ -238,13 +308,12 @@ public class SepBasicTypeConverts {
 			return Short.class;
 		}
 
-		public Object fromThisString(String str) {
+		public Object tryFromThisString(String str) {
 
 			if (str == null) {
 				return null;
 			}
-			str = retainWholeIfDecimalPartZero(str);
-			return Short.valueOf(str);
+			return tryParseIntegral(str, Short.MIN_VALUE, Short.MAX_VALUE, short.class);
 		}
 
 	}
@@ -255,12 +324,11 @@ public class SepBasicTypeConverts {
 			return Integer.class;
 		}
 
-		public Object fromThisString(String str) {
+		public Object tryFromThisString(String str) {
 			if (str == null) {
 				return null;
 			}
-			str = retainWholeIfDecimalPartZero(str);
-			return Integer.valueOf(str);
+			return tryParseIntegral(str, Integer.MIN_VALUE, Integer.MAX_VALUE, int.class);
 		}
 
 	}
@@ -271,12 +339,11 @@ public class SepBasicTypeConverts {
 			return Long.class;
 		}
 
-		public Object fromThisString(String str) {
+		public Object tryFromThisString(String str) {
 			if (str == null) {
 				return null;
 			}
-			str = retainWholeIfDecimalPartZero(str);
-			return Long.valueOf(str);
+			return tryParseIntegral(str, Long.MIN_VALUE, Long.MAX_VALUE, long.class);
 		}
 
 	}
@@ -287,11 +354,11 @@ public class SepBasicTypeConverts {
 			return Float.class;
 		}
 
-		public Object fromThisString(String str) {
+		public Object tryFromThisString(String str) {
 			if (str == null) {
 				return null;
 			}
-			return Float.valueOf(str);
+			return tryParseFloating(str, float.class);
 		}
 
 	}
@@ -302,11 +369,11 @@ public class SepBasicTypeConverts {
 			return Double.class;
 		}
 
-		public Object fromThisString(String str) {
+		public Object tryFromThisString(String str) {
 			if (str == null) {
 				return null;
 			}
-			return Double.valueOf(str);
+			return tryParseFloating(str, double.class);
 		}
 
 	}
@@ -317,7 +384,7 @@ public class SepBasicTypeConverts {
 			return Boolean.class;
 		}
 
-		public Object fromThisString(String str) {
+		public Object tryFromThisString(String str) {
 			if (str == null) {
 				return null;
 			}
@@ -332,12 +399,11 @@ public class SepBasicTypeConverts {
 			return BigInteger.class;
 		}
 
-		public Object fromThisString(String str) {
+		public Object tryFromThisString(String str) {
 			if (str == null) {
 				return null;
 			}
-			str = retainWholeIfDecimalPartZero(str);
-			return new BigInteger(str);
+			return tryParseBigInteger(str);
 		}
 
 	}
@@ -348,11 +414,11 @@ public class SepBasicTypeConverts {
 			return BigDecimal.class;
 		}
 
-		public Object fromThisString(String str) {
+		public Object tryFromThisString(String str) {
 			if (str == null) {
 				return null;
 			}
-			return new BigDecimal(str);
+			return tryParseBigDecimal(str);
 		}
 
 	}
@@ -363,7 +429,7 @@ public class SepBasicTypeConverts {
 			return String.class;
 		}
 
-		public Object fromThisString(String str) {
+		public Object tryFromThisString(String str) {
 			return str;
 		}
 
@@ -394,22 +460,304 @@ public class SepBasicTypeConverts {
 			return s;
 		}
 
-		try {
-			// using a big decimal here can also take care of scientific
-			// notions
-			BigDecimal d = new BigDecimal(s);
-			s = d.toPlainString();
-		} catch (NumberFormatException e) {
+		// using a big decimal here can also take care of scientific
+		// notions
+		Object d = tryParseBigDecimal(s);
+		if (d == NOT_CONVERTIBLE) {
 			// not a number
 			return s;
 		}
+		s = ((BigDecimal) d).toPlainString();
 
-		Pattern pattern = Pattern.compile("^(\\d+)\\.0*$");
-		Matcher matcher = pattern.matcher(s);
+		Matcher matcher = WHOLE_NUMBER_PATTERN.matcher(s);
 		if (matcher.find()) {
 			return matcher.group(1);
 		}
 		return s;
 	}
 
+	/**
+	 * parse a whole number within [min, max]. A null string is not
+	 * convertible; callers taking null should check it first. The string is
+	 * scanned only once, without a BigDecimal or a BigInteger. It takes the
+	 * same strings as {@link #retainWholeIfDecimalPartZero(String)} followed by
+	 * {@link BigInteger#BigInteger(String)}, e.g. "3.00" and "1.23457E+17"
+	 *
+	 * @param integralType
+	 *            short, int or long
+	 */
+	private static Object tryParseIntegral(String str, long min, long max, Class<?> integralType) {
+		if (str == null || !isDecimalSyntax(str)) {
+			return NOT_CONVERTIBLE;
+		}
+		int n = str.length();
+		int i = 0;
+		boolean negative = str.charAt(0) == '-';
+		if (negative || str.charAt(0) == '+') {
+			i++;
+		}
+		int intStart = i;
+		while (i < n && Character.isDigit(str.charAt(i))) {
+			i++;
+		}
+		int intLength = i - intStart;
+		int fracStart = i;
+		if (i < n && str.charAt(i) == '.') {
+			fracStart = ++i;
+			while (i < n && Character.isDigit(str.charAt(i))) {
+				i++;
+			}
+		}
+		int fracLength = i - fracStart;
+		long exponent = 0;
+		if (i < n) {
+			// 'e' or 'E'
+			i++;
+			boolean negativeExponent = str.charAt(i) == '-';
+			if (negativeExponent || str.charAt(i) == '+') {
+				i++;
+			}
+			for (; i < n; i++) {
+				exponent = exponent * 10 + Character.digit(str.charAt(i), 10);
+				if (exponent > Integer.MAX_VALUE + 1L) {
+					// too big for a BigDecimal
+					return NOT_CONVERTIBLE;
+				}
+			}
+			exponent = negativeExponent ? -exponent : exponent;
+			if (exponent > Integer.MAX_VALUE) {
+				return NOT_CONVERTIBLE;
+			}
+		}
+		long scale = fracLength - exponent;
+		if (scale > Integer.MAX_VALUE || scale < Integer.MIN_VALUE) {
+			return NOT_CONVERTIBLE;
+		}
+
+		// the digits are seen as one sequence, with the decimal point moved by
+		// the exponent
+		int digitCount = intLength + fracLength;
+		long pointIndex = intLength + exponent;
+		boolean zero = true;
+		boolean fractionZero = true;
+		for (int k = 0; k < digitCount; k++) {
+			if (digitAt(str, k, intStart, intLength, fracStart) != 0) {
+				zero = false;
+				if (k >= pointIndex) {
+					fractionZero = false;
+				}
+			}
+		}
+		if (zero) {
+			return toIntegralType(0, integralType);
+		}
+		// a negative number keeps its decimal point, e.g. "-3.0", and can't be
+		// taken as a whole number
+		if (!fractionZero || (negative && scale > 0)) {
+			return NOT_CONVERTIBLE;
+		}
+
+		// accumulate negatively, since Long.MIN_VALUE has no positive
+		// counterpart
+		long multmin = Long.MIN_VALUE / 10;
+		long v = 0;
+		for (long k = 0; k < pointIndex; k++) {
+			int digit = k < digitCount ? digitAt(str, (int) k, intStart, intLength, fracStart) : 0;
+			if (v < multmin) {
+				return NOT_CONVERTIBLE;
+			}
+			v *= 10;
+			if (v < Long.MIN_VALUE + digit) {
+				return NOT_CONVERTIBLE;
+			}
+			v -= digit;
+		}
+		if (!negative) {
+			if (v == Long.MIN_VALUE) {
+				return NOT_CONVERTIBLE;
+			}
+			v = -v;
+		}
+		if (v < min || v > max) {
+			return NOT_CONVERTIBLE;
+		}
+		return toIntegralType(v, integralType);
+	}
+
+	/**
+	 * the k-th digit of the digits before and after the decimal point
+	 */
+	private static int digitAt(String str, int k, int intStart, int intLength, int fracStart) {
+		char ch = k < intLength ? str.charAt(intStart + k) : str.charAt(fracStart + k - intLength);
+		return Character.digit(ch, 10);
+	}
+
+	private static Object toIntegralType(long v, Class<?> integralType) {
+		if (integralType == short.class) {
+			return (short) v;
+		}
+		if (integralType == int.class) {
+			return (int) v;
+		}
+		return v;
+	}
+
+	/**
+	 * parse a whole number of any size with a single parsing. It takes the
+	 * same strings as {@link #retainWholeIfDecimalPartZero(String)} followed by
+	 * {@link BigInteger#BigInteger(String)}
+	 */
+	private static Object tryParseBigInteger(String str) {
+		Object d = tryParseBigDecimal(str);
+		if (d == NOT_CONVERTIBLE) {
+			return NOT_CONVERTIBLE;
+		}
+		BigDecimal decimal = (BigDecimal) d;
+		if (decimal.signum() == 0) {
+			return BigInteger.ZERO;
+		}
+		// a negative number keeps its decimal point, e.g. "-3.0", and can't be
+		// taken as a whole number
+		if (decimal.signum() < 0 && decimal.scale() > 0) {
+			return NOT_CONVERTIBLE;
+		}
+		decimal = decimal.stripTrailingZeros();
+		if (decimal.scale() > 0) {
+			return NOT_CONVERTIBLE;
+		}
+		// exact, since there is no fraction
+		return decimal.toBigInteger();
+	}
+
+	/**
+	 * parse a float or a double. A null string is not convertible; callers
+	 * taking null should check it first.
+	 * 
+	 * @param floatingType
+	 *            float or double
+	 */
+	private static Object tryParseFloating(String str, Class<?> floatingType) {
+		if (str == null) {
+			return NOT_CONVERTIBLE;
+		}
+		String trimmed = str.trim();
+		if (isDecimalSyntax(trimmed)) {
+			// the JDK takes it for sure
+			return parseFloating(trimmed, floatingType);
+		}
+		if (!isRareFloatingSyntax(trimmed)) {
+			return NOT_CONVERTIBLE;
+		}
+		try {
+			return parseFloating(trimmed, floatingType);
+		} catch (NumberFormatException e) {
+			// e.g. a hex number without the binary exponent
+			return NOT_CONVERTIBLE;
+		}
+	}
+
+	private static Object parseFloating(String str, Class<?> floatingType) {
+		if (floatingType == float.class) {
+			return Float.parseFloat(str);
+		}
+		return Double.parseDouble(str);
+	}
+
+	/**
+	 * the forms only taken by {@link Double#parseDouble(String)}: an optional
+	 * sign followed by "NaN", "Infinity" or a hex number, or a decimal number
+	 * followed by a type suffix, e.g. "1.5f"
+	 */
+	private static boolean isRareFloatingSyntax(String s) {
+		int n = s.length();
+		int start = n > 0 && (s.charAt(0) == '+' || s.charAt(0) == '-') ? 1 : 0;
+		if (s.startsWith("NaN", start) || s.startsWith("Infinity", start)) {
+			return n - start == (s.charAt(start) == 'N' ? 3 : 8);
+		}
+		if (s.startsWith("0x", start) || s.startsWith("0X", start)) {
+			return true;
+		}
+		if (n == 0 || "fFdD".indexOf(s.charAt(n - 1)) < 0) {
+			return false;
+		}
+		return isDecimalSyntax(s.substring(0, n - 1));
+	}
+
+	private static Object tryParseBigDecimal(String str) {
+		if (!isDecimalSyntax(str)) {
+			return NOT_CONVERTIBLE;
+		}
+		try {
+			return new BigDecimal(str);
+		} catch (NumberFormatException e) {
+			// the exponent is too big
+			return NOT_CONVERTIBLE;
+		}
+	}
+
+	/**
+	 * an optional sign followed by digits
+	 */
+	static boolean isIntegerSyntax(String s) {
+		if (s == null) {
+			return false;
+		}
+		int i = s.startsWith("+") || s.startsWith("-") ? 1 : 0;
+		if (i >= s.length()) {
+			return false;
+		}
+		for (; i < s.length(); i++) {
+			if (!Character.isDigit(s.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * the syntax accepted by {@link BigDecimal#BigDecimal(String)}: an optional
+	 * sign, digits with an optional decimal point, and an optional exponent
+	 * e.g. "-1.5E+3"
+	 */
+	static boolean isDecimalSyntax(String s) {
+		if (s == null) {
+			return false;
+		}
+		int n = s.length();
+		int i = 0;
+		if (i < n && (s.charAt(i) == '+' || s.charAt(i) == '-')) {
+			i++;
+		}
+		int digits = 0;
+		while (i < n && Character.isDigit(s.charAt(i))) {
+			i++;
+			digits++;
+		}
+		if (i < n && s.charAt(i) == '.') {
+			i++;
+			while (i < n && Character.isDigit(s.charAt(i))) {
+				i++;
+				digits++;
+			}
+		}
+		if (digits == 0) {
+			return false;
+		}
+		if (i < n && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+			i++;
+			if (i < n && (s.charAt(i) == '+' || s.charAt(i) == '-')) {
+				i++;
+			}
+			int exponentDigits = 0;
+			while (i < n && Character.isDigit(s.charAt(i))) {
+				i++;
+				exponentDigits++;
+			}
+			if (exponentDigits == 0) {
+				return false;
+			}
+		}
+		return i == n;
+	}
+
 }
@@ -0,0 +1,96 @@
+package org.sep4j.support;
+
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * a row whose cells have all been read. A numeric cell is kept as a raw
+ * double and only turned into a string if its string value is asked for.
+ * Shared by the streaming readers.
+ *
+ * @author chenjianjx
+ */
+class SepBufferedSheetRow implements SepSheetRow {
+	private final int rowIndex;
+	private int cellCount;
+	private SepCellType[] types = new SepCellType[8];
+	private Object[] values = new Object[8];
+	private double[] numbers = new double[8];
+
+	SepBufferedSheetRow(int rowIndex) {
+		this.rowIndex = rowIndex;
+	}
+
+	void setBlank(int columnIndex) {
+		set(columnIndex, SepCellType.BLANK, null, 0);
+	}
+
+	void setString(int columnIndex, String value) {
+		set(columnIndex, value == null ? SepCellType.BLANK : SepCellType.STRING, value, 0);
+	}
+
+	void setBoolean(int columnIndex, boolean value) {
+		set(columnIndex, SepCellType.BOOLEAN, String.valueOf(value), 0);
+	}
+
+	void setNumeric(int columnIndex, double value) {
+		set(columnIndex, SepCellType.NUMERIC, null, value);
+	}
+
+	void setDate(int columnIndex, double value, Date date) {
+		set(columnIndex, SepCellType.DATE, date, value);
+	}
+
+	/**
+	 * a cell which physically exists but is not read. It is seen as blank
+	 */
+	void setSkipped(int columnIndex) {
+		cellCount = Math.max(cellCount, columnIndex + 1);
+	}
+
+	private void set(int columnIndex, SepCellType type, Object value, double number) {
+		if (columnIndex >= types.length) {
+			int capacity = Math.max(types.length * 2, columnIndex + 1);
+			types = Arrays.copyOf(types, capacity);
+			values = Arrays.copyOf(values, capacity);
+			numbers = Arrays.copyOf(numbers, capacity);
+		}
+		types[columnIndex] = type;
+		values[columnIndex] = value;
+		numbers[columnIndex] = number;
+		cellCount = Math.max(cellCount, columnIndex + 1);
+	}
+
+	public int getRowIndex() {
+		return rowIndex;
+	}
+
+	public int getLastCellNum() {
+		return cellCount == 0 ? -1 : cellCount;
+	}
+
+	public Object getCellValue(int columnIndex) {
+		if (columnIndex < 0 || columnIndex >= cellCount || columnIndex >= types.length) {
+			return null;
+		}
+		if (types[columnIndex] == SepCellType.NUMERIC) {
+			return String.valueOf(numbers[columnIndex]);
+		}
+		return values[columnIndex];
+	}
+
+	public SepCellType getCellType(int columnIndex) {
+		if (columnIndex < 0 || columnIndex >= cellCount || columnIndex >= types.length
+				|| types[columnIndex] == null) {
+			return SepCellType.BLANK;
+		}
+		return types[columnIndex];
+	}
+
+	public double getNumericCellValue(int columnIndex) {
+		if (columnIndex < 0 || columnIndex >= cellCount || columnIndex >= numbers.length) {
+			return 0;
+		}
+		return numbers[columnIndex];
+	}
+}
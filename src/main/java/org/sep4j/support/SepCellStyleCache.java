@@ -0,0 +1,107 @@
+package org.sep4j.support;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Workbook;
+
+/**
+ * the cell styles of a workbook, each of which is only created once and then
+ * shared by all the cells of its type. A workbook can only hold a limited
+ * number of styles, so never create a style per cell.
+ *
+ * If the workbook already has an identical style (e.g. it was created by a
+ * previous save and now we are appending to it), that style is reused.
+ *
+ * @author chenjianjx
+ */
+public class SepCellStyleCache {
+
+	private final Workbook workbook;
+
+	private final Map<SepCellStyleType, CellStyle> styles = new EnumMap<SepCellStyleType, CellStyle>(
+			SepCellStyleType.class);
+
+	public SepCellStyleCache(Workbook workbook) {
+		if (workbook == null) {
+			throw new IllegalArgumentException("The workbook cannot be null");
+		}
+		this.workbook = workbook;
+	}
+
+	/**
+	 * get the style of this type
+	 *
+	 * @return null for {@link SepCellStyleType#NORMAL}, which means the
+	 *         workbook's default style
+	 */
+	public CellStyle get(SepCellStyleType styleType) {
+		if (styleType == null || styleType == SepCellStyleType.NORMAL) {
+			return null;
+		}
+		CellStyle style = styles.get(styleType);
+		if (style == null) {
+			style = findExisting(styleType);
+			if (style == null) {
+				style = workbook.createCellStyle();
+				decorate(style, styleType);
+			}
+			styles.put(styleType, style);
+		}
+		return style;
+	}
+
+	private CellStyle findExisting(SepCellStyleType styleType) {
+		for (short i = 0; i < workbook.getNumCellStyles(); i++) {
+			CellStyle candidate = workbook.getCellStyleAt(i);
+			if (candidate != null && matches(candidate, styleType)) {
+				return candidate;
+			}
+		}
+		return null;
+	}
+
+	private static void decorate(CellStyle style, SepCellStyleType styleType) {
+		switch (styleType) {
+			case HEADER:
+				style.setFillForegroundColor(IndexedColors.YELLOW.getIndex());
+				style.setFillPattern(CellStyle.SOLID_FOREGROUND);
+				style.setBorderBottom(CellStyle.BORDER_THIN);
+				style.setBorderTop(CellStyle.BORDER_THIN);
+				style.setBorderRight(CellStyle.BORDER_THIN);
+				style.setBorderLeft(CellStyle.BORDER_THIN);
+				break;
+			case DATUM_ERROR:
+				style.setFillForegroundColor(IndexedColors.RED.getIndex());
+				style.setFillPattern(CellStyle.SOLID_FOREGROUND);
+				break;
+			default:
+				throw new IllegalArgumentException("Unsupported style type: " + styleType);
+		}
+	}
+
+	private static boolean matches(CellStyle style, SepCellStyleType styleType) {
+		if (style.getFillPattern() != CellStyle.SOLID_FOREGROUND || style.getDataFormat() != 0
+				|| style.getFontIndex() != 0) {
+			return false;
+		}
+		switch (styleType) {
+			case HEADER:
+				return style.getFillForegroundColor() == IndexedColors.YELLOW.getIndex()
+						&& style.getBorderBottom() == CellStyle.BORDER_THIN
+						&& style.getBorderTop() == CellStyle.BORDER_THIN
+						&& style.getBorderRight() == CellStyle.BORDER_THIN
+						&& style.getBorderLeft() == CellStyle.BORDER_THIN;
+			case DATUM_ERROR:
+				return style.getFillForegroundColor() == IndexedColors.RED.getIndex()
+						&& style.getBorderBottom() == CellStyle.BORDER_NONE
+						&& style.getBorderTop() == CellStyle.BORDER_NONE
+						&& style.getBorderRight() == CellStyle.BORDER_NONE
+						&& style.getBorderLeft() == CellStyle.BORDER_NONE;
+			default:
+				return false;
+		}
+	}
+}
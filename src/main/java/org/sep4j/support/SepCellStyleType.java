@@ -0,0 +1,24 @@
+package org.sep4j.support;
+
+/**
+ * the kinds of cell styles used when writing a sheet
+ *
+ * @author chenjianjx
+ */
+public enum SepCellStyleType {
+
+	/**
+	 * no particular style
+	 */
+	NORMAL,
+
+	/**
+	 * a cell of the header row
+	 */
+	HEADER,
+
+	/**
+	 * a cell whose datum could not be read from the record
+	 */
+	DATUM_ERROR
+}
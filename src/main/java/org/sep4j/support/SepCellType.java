@@ -0,0 +1,26 @@
+package org.sep4j.support;
+
+/**
+ * the type of a cell as seen by sep4j. Formula and error cells are seen as
+ * blank, just like what is done when reading a cell as a string.
+ *
+ * @author chenjianjx
+ */
+public enum SepCellType {
+
+	/**
+	 * no cell, an empty cell, or a cell whose text is blank
+	 */
+	BLANK,
+
+	NUMERIC,
+
+	/**
+	 * a numeric cell with a date format
+	 */
+	DATE,
+
+	BOOLEAN,
+
+	STRING
+}
@@ -0,0 +1,286 @@
+package org.sep4j.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.time.DateFormatUtils;
+
+/**
+ * the values of a column, kept in a primitive array of the column's type plus
+ * a bitmap of nulls, so no object is created per value. A string column is
+ * dictionary-encoded: each distinct string is kept once and the rows refer to
+ * it by its code.
+ *
+ * Supported column types: double, long, int, boolean and String.
+ *
+ * @author chenjianjx
+ */
+public class SepColumnBuffer {
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private final Class<?> type;
+	private int size;
+	private final BitSet nulls = new BitSet();
+
+	private double[] doubles;
+	private long[] longs;
+	private int[] ints;
+	private boolean[] booleans;
+
+	/**
+	 * for a string column. -1 means null
+	 */
+	private int[] codes;
+	private List<String> dictionary;
+	private Map<String, Integer> codesByString;
+
+	public SepColumnBuffer(Class<?> type) {
+		if (!isSupported(type)) {
+			throw new IllegalArgumentException("Unsupported column type: " + type);
+		}
+		this.type = type;
+		if (type == double.class) {
+			doubles = new double[INITIAL_CAPACITY];
+		} else if (type == long.class) {
+			longs = new long[INITIAL_CAPACITY];
+		} else if (type == int.class) {
+			ints = new int[INITIAL_CAPACITY];
+		} else if (type == boolean.class) {
+			booleans = new boolean[INITIAL_CAPACITY];
+		} else {
+			codes = new int[INITIAL_CAPACITY];
+			dictionary = new ArrayList<String>();
+			codesByString = new HashMap<String, Integer>();
+		}
+	}
+
+	public static boolean isSupported(Class<?> type) {
+		return type == double.class || type == long.class || type == int.class || type == boolean.class
+				|| type == String.class;
+	}
+
+	public Class<?> getType() {
+		return type;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void addNull() {
+		ensureCapacity();
+		nulls.set(size);
+		if (codes != null) {
+			codes[size] = -1;
+		}
+		size++;
+	}
+
+	/**
+	 * add the value of a cell. A blank cell is added as a null
+	 *
+	 * @throws IllegalArgumentException
+	 *             the value of the cell cannot be converted to the column's
+	 *             type. Nothing is added in this case
+	 */
+	public void add(SepSheetRow row, int columnIndex) {
+		SepCellType cellType = row.getCellType(columnIndex);
+		if (cellType == SepCellType.BLANK) {
+			addNull();
+			return;
+		}
+		ensureCapacity();
+		if (type == double.class) {
+			doubles[size] = toDouble(row, columnIndex, cellType);
+		} else if (type == long.class) {
+			longs[size] = toLong(row, columnIndex, cellType, Long.MIN_VALUE, Long.MAX_VALUE);
+		} else if (type == int.class) {
+			ints[size] = (int) toLong(row, columnIndex, cellType, Integer.MIN_VALUE, Integer.MAX_VALUE);
+		} else if (type == boolean.class) {
+			booleans[size] = toBoolean(row, columnIndex, cellType);
+		} else {
+			codes[size] = encode(toText(row, columnIndex, cellType));
+		}
+		size++;
+	}
+
+	/**
+	 * cut the arrays to the size. Call it after all the values are added
+	 */
+	public void trim() {
+		if (doubles != null) {
+			doubles = Arrays.copyOf(doubles, size);
+		} else if (longs != null) {
+			longs = Arrays.copyOf(longs, size);
+		} else if (ints != null) {
+			ints = Arrays.copyOf(ints, size);
+		} else if (booleans != null) {
+			booleans = Arrays.copyOf(booleans, size);
+		} else {
+			codes = Arrays.copyOf(codes, size);
+		}
+	}
+
+	/**
+	 * the values of a double column. A null is 0. Note the array is not copied
+	 * and may be longer than the size if {@link #trim()} is not called
+	 */
+	public double[] getDoubles() {
+		checkType(double.class);
+		return doubles;
+	}
+
+	public long[] getLongs() {
+		checkType(long.class);
+		return longs;
+	}
+
+	public int[] getInts() {
+		checkType(int.class);
+		return ints;
+	}
+
+	public boolean[] getBooleans() {
+		checkType(boolean.class);
+		return booleans;
+	}
+
+	/**
+	 * the codes of a string column, which are the indexes in
+	 * {@link #getDictionary()}. -1 means null
+	 */
+	public int[] getCodes() {
+		checkType(String.class);
+		return codes;
+	}
+
+	public List<String> getDictionary() {
+		checkType(String.class);
+		return Collections.unmodifiableList(dictionary);
+	}
+
+	/**
+	 * the values of a string column, decoded. Equal strings are the same
+	 * instance
+	 */
+	public String[] getStrings() {
+		checkType(String.class);
+		String[] strings = new String[size];
+		for (int i = 0; i < size; i++) {
+			strings[i] = codes[i] < 0 ? null : dictionary.get(codes[i]);
+		}
+		return strings;
+	}
+
+	/**
+	 * which values are null. Note the bitmap is not copied
+	 */
+	public BitSet getNulls() {
+		return nulls;
+	}
+
+	public boolean isNull(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index = " + index + ", size = " + size);
+		}
+		return nulls.get(index);
+	}
+
+	private void checkType(Class<?> expected) {
+		if (type != expected) {
+			throw new IllegalStateException("The column is of type " + type + ", not " + expected);
+		}
+	}
+
+	private void ensureCapacity() {
+		int capacity = doubles != null ? doubles.length : longs != null ? longs.length : ints != null ? ints.length
+				: booleans != null ? booleans.length : codes.length;
+		if (size < capacity) {
+			return;
+		}
+		int newCapacity = Math.max(capacity * 2, INITIAL_CAPACITY);
+		if (doubles != null) {
+			doubles = Arrays.copyOf(doubles, newCapacity);
+		} else if (longs != null) {
+			longs = Arrays.copyOf(longs, newCapacity);
+		} else if (ints != null) {
+			ints = Arrays.copyOf(ints, newCapacity);
+		} else if (booleans != null) {
+			booleans = Arrays.copyOf(booleans, newCapacity);
+		} else {
+			codes = Arrays.copyOf(codes, newCapacity);
+		}
+	}
+
+	private int encode(String text) {
+		Integer code = codesByString.get(text);
+		if (code == null) {
+			code = dictionary.size();
+			dictionary.add(text);
+			codesByString.put(text, code);
+		}
+		return code;
+	}
+
+	private static double toDouble(SepSheetRow row, int columnIndex, SepCellType cellType) {
+		if (cellType == SepCellType.NUMERIC) {
+			return row.getNumericCellValue(columnIndex);
+		}
+		if (cellType == SepCellType.STRING) {
+			Object value = SepBasicTypeConverts.tryFromThisString((String) row.getCellValue(columnIndex),
+					Double.class);
+			if (value != SepBasicTypeConverts.NOT_CONVERTIBLE) {
+				return (Double) value;
+			}
+		}
+		throw notConvertible(row, columnIndex, cellType, double.class);
+	}
+
+	private static long toLong(SepSheetRow row, int columnIndex, SepCellType cellType, long min, long max) {
+		if (cellType == SepCellType.NUMERIC) {
+			double v = row.getNumericCellValue(columnIndex);
+			if (SepBasicTypeConverts.isWholeLong(v) && (long) v >= min && (long) v <= max) {
+				return (long) v;
+			}
+		} else if (cellType == SepCellType.STRING) {
+			Object value = SepBasicTypeConverts.tryFromThisString((String) row.getCellValue(columnIndex),
+					Long.class);
+			if (value != SepBasicTypeConverts.NOT_CONVERTIBLE && (Long) value >= min && (Long) value <= max) {
+				return (Long) value;
+			}
+		}
+		throw notConvertible(row, columnIndex, cellType, min == Long.MIN_VALUE ? long.class : int.class);
+	}
+
+	private static boolean toBoolean(SepSheetRow row, int columnIndex, SepCellType cellType) {
+		if (cellType == SepCellType.BOOLEAN || cellType == SepCellType.STRING) {
+			Object value = SepBasicTypeConverts.tryFromThisString((String) row.getCellValue(columnIndex),
+					Boolean.class);
+			if (value != SepBasicTypeConverts.NOT_CONVERTIBLE) {
+				return (Boolean) value;
+			}
+		}
+		throw notConvertible(row, columnIndex, cellType, boolean.class);
+	}
+
+	private static String toText(SepSheetRow row, int columnIndex, SepCellType cellType) {
+		Object value = row.getCellValue(columnIndex);
+		if (cellType == SepCellType.DATE) {
+			return DateFormatUtils.format((Date) value, SepConstants.DEAULT_DATE_FORMAT);
+		}
+		return value.toString();
+	}
+
+	private static IllegalArgumentException notConvertible(SepSheetRow row, int columnIndex,
+			SepCellType cellType, Class<?> targetType) {
+		return new IllegalArgumentException("Cannot convert the " + cellType.name().toLowerCase() + " cell value \""
+				+ row.getCellValue(columnIndex) + "\" to " + targetType);
+	}
+}
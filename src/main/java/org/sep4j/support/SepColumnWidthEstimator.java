@@ -0,0 +1,109 @@
+package org.sep4j.support;
+
+import java.util.Arrays;
+
+/**
+ * estimate column widths from the header row and the first data rows, by
+ * counting characters. Unlike POI's autoSizeColumn(), it doesn't load any font
+ * (java.awt), and it takes linear time.
+ *
+ * @author chenjianjx
+ */
+public class SepColumnWidthEstimator {
+
+	public static final int DEFAULT_SAMPLE_ROWS = 100;
+
+	/**
+	 * the max width of a column allowed by Excel, in characters
+	 */
+	private static final int MAX_WIDTH_IN_CHARS = 255;
+
+	private final int sampleRows;
+	private int observedRows;
+
+	/**
+	 * the widest text of each column, in characters
+	 */
+	private int[] maxChars = new int[0];
+
+	/**
+	 * @param sampleRows
+	 *            how many rows to observe, including the header row
+	 */
+	public SepColumnWidthEstimator(int sampleRows) {
+		if (sampleRows <= 0) {
+			throw new IllegalArgumentException("the sampleRows must be positive");
+		}
+		this.sampleRows = sampleRows;
+	}
+
+	/**
+	 * observe a row. Rows after the sample are ignored
+	 *
+	 * @return true if any column turns wider
+	 */
+	public boolean observe(String[] cellTexts) {
+		if (observedRows >= sampleRows) {
+			return false;
+		}
+		observedRows++;
+
+		if (cellTexts.length > maxChars.length) {
+			maxChars = Arrays.copyOf(maxChars, cellTexts.length);
+		}
+		boolean wider = false;
+		for (int columnIndex = 0; columnIndex < cellTexts.length; columnIndex++) {
+			int chars = displayWidth(cellTexts[columnIndex]);
+			if (chars > maxChars[columnIndex]) {
+				maxChars[columnIndex] = chars;
+				wider = true;
+			}
+		}
+		return wider;
+	}
+
+	public int getColumnCount() {
+		return maxChars.length;
+	}
+
+	/**
+	 * @return the width in units of 1/256th of a character, as used by POI's
+	 *         Sheet.setColumnWidth(); or -1 if all the cells of the column are
+	 *         empty, which means the default width should be kept
+	 */
+	public int getWidth(int columnIndex) {
+		if (columnIndex >= maxChars.length || maxChars[columnIndex] == 0) {
+			return -1;
+		}
+		// one more character as padding
+		return Math.min(maxChars[columnIndex] + 1, MAX_WIDTH_IN_CHARS) * 256;
+	}
+
+	/**
+	 * how many characters wide the text is. East Asian wide characters count as
+	 * 2. For a multi-line text, it is the width of the longest line.
+	 */
+	static int displayWidth(String text) {
+		if (text == null) {
+			return 0;
+		}
+		int maxWidth = 0;
+		int width = 0;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == '\n') {
+				maxWidth = Math.max(maxWidth, width);
+				width = 0;
+			} else if (c != '\r') {
+				width += isWide(c) ? 2 : 1;
+			}
+		}
+		return Math.max(maxWidth, width);
+	}
+
+	private static boolean isWide(char c) {
+		return (c >= 0x1100 && c <= 0x115F) || (c >= 0x2E80 && c <= 0xA4CF) || (c >= 0xAC00 && c <= 0xD7A3)
+				|| (c >= 0xF900 && c <= 0xFAFF) || (c >= 0xFE30 && c <= 0xFE4F) || (c >= 0xFF00 && c <= 0xFF60)
+				|| (c >= 0xFFE0 && c <= 0xFFE6);
+	}
+}
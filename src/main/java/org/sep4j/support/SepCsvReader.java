@@ -0,0 +1,205 @@
+package org.sep4j.support;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * read delimited text, such as CSV or TSV, as the rows of a sheet. Each line is
+ * a row, unless a line break is inside a quoted field. Only one row is held in
+ * memory at a time. All the cells are string cells, trimmed to null just like
+ * the cells of a spreadsheet.
+ *
+ * An empty line is seen as a row that doesn't physically exist: it is skipped,
+ * but still counted in the row indexes.
+ *
+ * @author chenjianjx
+ */
+public class SepCsvReader implements SepSheetRowReader {
+
+	private static final char BOM = '\uFEFF';
+
+	private final Reader reader;
+	private final char delimiter;
+
+	/**
+	 * closed when this reader is closed. It could be null
+	 */
+	private final Closeable source;
+
+	private int nextRowIndex;
+	private boolean started;
+	private boolean eof;
+
+	/**
+	 * the fields to be read. Null means all
+	 */
+	private BitSet columnProjection;
+
+	/**
+	 * @param reader
+	 *            the text
+	 * @param source
+	 *            what to close when this reader is closed, e.g. the file
+	 *            behind the reader. Null means nothing
+	 */
+	public SepCsvReader(Reader reader, char delimiter, Closeable source) {
+		this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+		this.delimiter = delimiter;
+		this.source = source;
+	}
+
+	@Override
+	public SepSheetRow nextRow() {
+		try {
+			while (!eof) {
+				int rowIndex = nextRowIndex++;
+				List<String> fields = readLine();
+				if (fields == null) {
+					continue;
+				}
+				return new CsvRow(rowIndex, fields.toArray(new String[fields.size()]));
+			}
+			return null;
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * the fields of the other columns are stepped over without being kept
+	 */
+	@Override
+	public void setColumnProjection(BitSet columnIndexes) {
+		this.columnProjection = columnIndexes == null ? null : (BitSet) columnIndexes.clone();
+	}
+
+	@Override
+	public void close() {
+		IOUtils.closeQuietly(source);
+	}
+
+	/**
+	 * @return null if it is an empty line, or there is nothing left
+	 */
+	private List<String> readLine() throws IOException {
+		int ch = reader.read();
+		if (!started) {
+			started = true;
+			if (ch == BOM) {
+				ch = reader.read();
+			}
+		}
+		if (ch < 0) {
+			eof = true;
+			return null;
+		}
+		if (ch == '\n') {
+			return null;
+		}
+		if (ch == '\r') {
+			skipLineFeed();
+			return null;
+		}
+
+		List<String> fields = new ArrayList<String>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		// whether anything but white spaces has been met in this field
+		boolean textMet = false;
+		while (true) {
+			boolean keep = columnProjection == null || columnProjection.get(fields.size());
+			if (quoted) {
+				if (ch < 0) {
+					// an unclosed quote. Take what we have got
+					fields.add(keep ? StringUtils.trimToNull(field.toString()) : null);
+					eof = true;
+					return fields;
+				}
+				if (ch == '"') {
+					ch = reader.read();
+					if (ch != '"') {
+						quoted = false;
+						textMet = true;
+						continue;
+					}
+				}
+				if (keep) {
+					field.append((char) ch);
+				}
+			} else if (ch < 0 || ch == '\n' || ch == '\r' || ch == delimiter) {
+				fields.add(keep ? StringUtils.trimToNull(field.toString()) : null);
+				field.setLength(0);
+				textMet = false;
+				if (ch < 0) {
+					eof = true;
+					return fields;
+				}
+				if (ch == '\r') {
+					skipLineFeed();
+					return fields;
+				}
+				if (ch == '\n') {
+					return fields;
+				}
+			} else if (ch == '"' && !textMet) {
+				// a quoted field, maybe with spaces before the quote
+				field.setLength(0);
+				quoted = true;
+			} else {
+				textMet = textMet || !Character.isWhitespace(ch);
+				if (keep) {
+					field.append((char) ch);
+				}
+			}
+			ch = reader.read();
+		}
+	}
+
+	private void skipLineFeed() throws IOException {
+		reader.mark(1);
+		if (reader.read() != '\n') {
+			reader.reset();
+		}
+	}
+
+	/**
+	 * a row of string cells
+	 */
+	private static class CsvRow implements SepSheetRow {
+		private final int rowIndex;
+		private final String[] values;
+
+		CsvRow(int rowIndex, String[] values) {
+			this.rowIndex = rowIndex;
+			this.values = values;
+		}
+
+		public int getRowIndex() {
+			return rowIndex;
+		}
+
+		public int getLastCellNum() {
+			return values.length;
+		}
+
+		public Object getCellValue(int columnIndex) {
+			return columnIndex < 0 || columnIndex >= values.length ? null : values[columnIndex];
+		}
+
+		public SepCellType getCellType(int columnIndex) {
+			return getCellValue(columnIndex) == null ? SepCellType.BLANK : SepCellType.STRING;
+		}
+
+		public double getNumericCellValue(int columnIndex) {
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package org.sep4j.support;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * write the rows as delimited text, such as CSV or TSV, one line per row. The
+ * rows go to the writer as they come, through a buffer, so nothing but the
+ * buffer is held in memory. Styles are ignored.
+ *
+ * @author chenjianjx
+ */
+public class SepCsvWriter implements SepSheetWriter {
+
+	private static final String LINE_SEPARATOR = "\r\n";
+
+	private final Writer writer;
+	private final char delimiter;
+
+	/**
+	 * @param writer
+	 *            it won't be closed by this writer. Please call
+	 *            {@link #flush()} after the last row
+	 */
+	public SepCsvWriter(Writer writer, char delimiter) {
+		this.writer = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer);
+		this.delimiter = delimiter;
+	}
+
+	@Override
+	public void writeRow(int rowIndex, String[] cellTexts, SepCellStyleType[] styleTypes) {
+		try {
+			for (int columnIndex = 0; columnIndex < cellTexts.length; columnIndex++) {
+				if (columnIndex > 0) {
+					writer.write(delimiter);
+				}
+				writeField(cellTexts[columnIndex]);
+			}
+			writer.write(LINE_SEPARATOR);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * write what is in the buffer to the underlying writer
+	 */
+	public void flush() {
+		try {
+			writer.flush();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void writeField(String text) throws IOException {
+		if (!needsQuotes(text)) {
+			writer.write(text);
+			return;
+		}
+		writer.write('"');
+		for (int i = 0; i < text.length(); i++) {
+			char ch = text.charAt(i);
+			if (ch == '"') {
+				writer.write('"');
+			}
+			writer.write(ch);
+		}
+		writer.write('"');
+	}
+
+	private boolean needsQuotes(String text) {
+		for (int i = 0; i < text.length(); i++) {
+			char ch = text.charAt(i);
+			if (ch == delimiter || ch == '"' || ch == '\r' || ch == '\n') {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,220 @@
+package org.sep4j.support;
+
+import java.lang.reflect.Method;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+
+/**
+ * The setters of a property, looked up once and then reused for every cell of
+ * the column. Instances are immutable and cached per (class, propName), so
+ * they can be shared among threads.
+ *
+ * @author chenjianjx
+ */
+public class SepPropertySetters {
+
+	/**
+	 * key = recordClass, value = {key = propName, value = setters}. The
+	 * setters are kept with the class itself, so they don't keep its class
+	 * loader from being unloaded
+	 */
+	private static final ClassValue<ConcurrentMap<String, SepPropertySetters>> CACHE = new ClassValue<ConcurrentMap<String, SepPropertySetters>>() {
+		@Override
+		protected ConcurrentMap<String, SepPropertySetters> computeValue(Class<?> recordClass) {
+			return new ConcurrentHashMap<String, SepPropertySetters>();
+		}
+	};
+
+	private final String propName;
+
+	/**
+	 * all the setters of this property, each of which takes a different
+	 * parameter type
+	 */
+	private final List<Setter> setters;
+
+	/**
+	 * the first setter which can take null. It could be null
+	 */
+	private final Setter nullableSetter;
+
+	/**
+	 * the setter taking a java.util.Date. It could be null
+	 */
+	private final Setter dateSetter;
+
+	/**
+	 * the setter taking a String. It could be null
+	 */
+	private final Setter stringSetter;
+
+	/**
+	 * the setters whose parameter types can be converted from a string
+	 */
+	private final List<Setter> convertibleSetters;
+
+	private SepPropertySetters(Class<?> recordClass, String propName) {
+		this.propName = propName;
+		List<Setter> setters = new ArrayList<Setter>();
+		for (Method method : SepReflectionHelper.findSettersByPropName(recordClass, propName)) {
+			setters.add(new Setter(method.getParameterTypes()[0], SepReflectionHelper.toSetterAccessor(method)));
+		}
+		this.setters = Collections.unmodifiableList(setters);
+
+		Setter nullable = null;
+		List<Setter> convertibles = new ArrayList<Setter>();
+		for (Setter setter : setters) {
+			if (nullable == null && SepBasicTypeConverts.canFromNull(setter.propClass)) {
+				nullable = setter;
+			}
+			if (SepBasicTypeConverts.canTypeFromString(setter.propClass)) {
+				convertibles.add(setter);
+			}
+		}
+		this.nullableSetter = nullable;
+		this.convertibleSetters = Collections.unmodifiableList(convertibles);
+		this.dateSetter = findSetter(java.util.Date.class);
+		this.stringSetter = findSetter(String.class);
+	}
+
+	/**
+	 * get the setters of a property. They are only looked up for the first
+	 * time
+	 */
+	public static SepPropertySetters of(Class<?> recordClass, String propName) {
+		if (recordClass == null) {
+			throw new IllegalArgumentException("The recordClass cannot be null");
+		}
+		if (propName == null) {
+			throw new IllegalArgumentException("The propName cannot be null");
+		}
+		return CACHE.get(recordClass).computeIfAbsent(propName, p -> new SepPropertySetters(recordClass, p));
+	}
+
+	/**
+	 * set the property with the value of a cell. If the value is a string and
+	 * there is no string-typed setter, it will try to convert the string to
+	 * the type of the other setters one by one.
+	 *
+	 * @param record
+	 *            the record to set
+	 * @param cellStringOrDate
+	 *            a string, a date, or null
+	 * @throws IllegalArgumentException
+	 *             if no setter can take this value
+	 */
+	public void setProperty(Object record, Object cellStringOrDate) {
+		if (cellStringOrDate == null) {
+			if (nullableSetter == null) {
+				throw noSetterException(cellStringOrDate);
+			}
+			nullableSetter.accessor.accept(record, null);
+			return;
+		}
+
+		if (cellStringOrDate instanceof java.util.Date) {
+			if (dateSetter == null) {
+				throw noSetterException(cellStringOrDate);
+			}
+			dateSetter.accessor.accept(record, cellStringOrDate);
+			return;
+		}
+
+		// ok, we got a string
+		String cellText = (String) cellStringOrDate;
+
+		// try to find a string-type setter first
+		if (stringSetter != null) {
+			stringSetter.accessor.accept(record, cellText);
+			return;
+		}
+
+		// no string-type setter? do a guess!
+		for (Setter setter : convertibleSetters) {
+			Object propValue = SepBasicTypeConverts.tryFromThisString(cellText, setter.propClass);
+			if (propValue != SepBasicTypeConverts.NOT_CONVERTIBLE) {
+				setter.accessor.accept(record, propValue);
+				return;
+			}
+		}
+
+		throw noSetterException(cellStringOrDate);
+	}
+
+	/**
+	 * set the property with the raw value of a numeric cell. The value is
+	 * converted to the type of a numeric setter directly (e.g. 12345678.0 to
+	 * int 12345678), instead of being turned into a string and then parsed
+	 * back. A string-typed setter, if any, still takes it as
+	 * String.valueOf(cellValue), and so does a setter of a non-numeric type
+	 * (e.g. a boolean one gets false), the same as
+	 * {@link #setProperty(Object, Object)}.
+	 *
+	 * @param record
+	 *            the record to set
+	 * @param cellValue
+	 *            the raw value of the cell
+	 * @throws IllegalArgumentException
+	 *             if no setter can take this value
+	 */
+	public void setNumericProperty(Object record, double cellValue) {
+		if (stringSetter != null) {
+			stringSetter.accessor.accept(record, String.valueOf(cellValue));
+			return;
+		}
+
+		String cellText = null;
+		for (Setter setter : convertibleSetters) {
+			Object propValue = SepBasicTypeConverts.tryFromDouble(cellValue, setter.propClass);
+			if (propValue == SepBasicTypeConverts.NOT_CONVERTIBLE) {
+				// the way it is done for a string cell
+				if (cellText == null) {
+					cellText = String.valueOf(cellValue);
+				}
+				propValue = SepBasicTypeConverts.tryFromThisString(cellText, setter.propClass);
+			}
+			if (propValue != SepBasicTypeConverts.NOT_CONVERTIBLE) {
+				setter.accessor.accept(record, propValue);
+				return;
+			}
+		}
+
+		throw noSetterException(String.valueOf(cellValue));
+	}
+
+	public String getPropName() {
+		return propName;
+	}
+
+	private Setter findSetter(Class<?> propClass) {
+		for (Setter setter : setters) {
+			if (setter.propClass.equals(propClass)) {
+				return setter;
+			}
+		}
+		return null;
+	}
+
+	private IllegalArgumentException noSetterException(Object cellStringOrDate) {
+		return new IllegalArgumentException(MessageFormat.format(
+				"No suitable setter for property \"{0}\" with cellValue \"{1}\" ", propName, cellStringOrDate));
+	}
+
+	/**
+	 * a setter and the type of its parameter
+	 */
+	private static class Setter {
+		final Class<?> propClass;
+		final BiConsumer<Object, Object> accessor;
+
+		Setter(Class<?> propClass, BiConsumer<Object, Object> accessor) {
+			this.propClass = propClass;
+			this.accessor = accessor;
+		}
+	}
+}
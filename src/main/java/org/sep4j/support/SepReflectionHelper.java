@@ -1,10 +1,20 @@
 package org.sep4j.support;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 import org.apache.commons.lang.StringUtils;
 
@@ -17,6 +27,43 @@ import org.apache.commons.lang.StringUtils;
  */
 public class SepReflectionHelper {
 
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	/**
+	 * key = the declaring class, value = {key = getter, value = accessor}. The
+	 * accessors are kept with the class itself, so they don't keep its class
+	 * loader from being unloaded
+	 */
+	private static final ClassValue<ConcurrentMap<Method, Function<Object, Object>>> GETTER_ACCESSORS = new ClassValue<ConcurrentMap<Method, Function<Object, Object>>>() {
+		@Override
+		protected ConcurrentMap<Method, Function<Object, Object>> computeValue(Class<?> declaringClass) {
+			return new ConcurrentHashMap<Method, Function<Object, Object>>();
+		}
+	};
+
+	/**
+	 * key = the declaring class, value = {key = setter, value = accessor}
+	 */
+	private static final ClassValue<ConcurrentMap<Method, BiConsumer<Object, Object>>> SETTER_ACCESSORS = new ClassValue<ConcurrentMap<Method, BiConsumer<Object, Object>>>() {
+		@Override
+		protected ConcurrentMap<Method, BiConsumer<Object, Object>> computeValue(Class<?> declaringClass) {
+			return new ConcurrentHashMap<Method, BiConsumer<Object, Object>>();
+		}
+	};
+
+	/**
+	 * key = class, value = {key = propName, value = getter accessor or
+	 * {@link #NO_GETTER}}
+	 */
+	private static final ClassValue<ConcurrentMap<String, Function<Object, Object>>> GETTERS_BY_PROP = new ClassValue<ConcurrentMap<String, Function<Object, Object>>>() {
+		@Override
+		protected ConcurrentMap<String, Function<Object, Object>> computeValue(Class<?> clazz) {
+			return new ConcurrentHashMap<String, Function<Object, Object>>();
+		}
+	};
+
+	private static final Function<Object, Object> NO_GETTER = object -> null;
+
 	/**
 	 * get property value through getter methods. A runtime exception will be
 	 * thrown if no getter found
@@ -33,12 +80,73 @@ public class SepReflectionHelper {
 		}
 
 		Class<?> clazz = object.getClass();
-		Method getter = findGetterByPropName(clazz, propName);
+		Function<Object, Object> getter = findGetterAccessorByPropName(clazz, propName);
 		if (getter == null) {
 			String err = MessageFormat.format("Class {0} has no getter method for property \"{1}\"", clazz, propName);
 			throw new IllegalArgumentException(err);
 		}
-		return invokeGetter(getter, object);
+		return getter.apply(object);
+	}
+
+	/**
+	 * find the getter of a property and turn it into an accessor, see
+	 * {@link #toGetterAccessor(Method)}. The result is cached per class and
+	 * propName.
+	 * 
+	 * @return null if there is no getter
+	 */
+	public static Function<Object, Object> findGetterAccessorByPropName(Class<?> clazz, String propName) {
+		if (clazz == null) {
+			throw new IllegalArgumentException("The clazz cannot be null");
+		}
+		if (propName == null) {
+			throw new IllegalArgumentException("The propName cannot be null");
+		}
+		ConcurrentMap<String, Function<Object, Object>> gettersOfClass = GETTERS_BY_PROP.get(clazz);
+		Function<Object, Object> getter = gettersOfClass.computeIfAbsent(propName, p -> {
+			Method method = findGetterByPropName(clazz, p);
+			return method == null ? NO_GETTER : toGetterAccessor(method);
+		});
+		return getter == NO_GETTER ? null : getter;
+	}
+
+	/**
+	 * turn a getter into a function. If possible, the function is generated
+	 * with {@link LambdaMetafactory} so that it can be inlined like a direct
+	 * call; otherwise (e.g. the class is not public) it falls back to
+	 * {@link Method#invoke(Object, Object...)}. Either way, an exception thrown
+	 * by the getter is wrapped in an {@link InvocationTargetException} inside
+	 * an {@link IllegalStateException}. The result is cached.
+	 */
+	public static Function<Object, Object> toGetterAccessor(Method getter) {
+		if (getter == null) {
+			throw new IllegalArgumentException("The getter method cannot be null");
+		}
+		return GETTER_ACCESSORS.get(getter.getDeclaringClass()).computeIfAbsent(getter, m -> {
+			Function<Object, Object> generated = generateGetterAccessor(m);
+			if (generated != null) {
+				return generated;
+			}
+			m.setAccessible(true);
+			return object -> invokeGetter(m, object);
+		});
+	}
+
+	/**
+	 * turn a setter into a function. See {@link #toGetterAccessor(Method)}
+	 */
+	public static BiConsumer<Object, Object> toSetterAccessor(Method setter) {
+		if (setter == null) {
+			throw new IllegalArgumentException("The setter method cannot be null");
+		}
+		return SETTER_ACCESSORS.get(setter.getDeclaringClass()).computeIfAbsent(setter, m -> {
+			BiConsumer<Object, Object> generated = generateSetterAccessor(m);
+			if (generated != null) {
+				return generated;
+			}
+			m.setAccessible(true);
+			return (object, propValue) -> invokeMethod(m, object, propValue);
+		});
 	}
 
 	/**
@@ -92,7 +200,6 @@ public class SepReflectionHelper {
 
 	private static Object invokeGetter(Method getter, Object object) {
 		try {
-			getter.setAccessible(true);
 			return getter.invoke(object, new Object[0]);
 		} catch (IllegalAccessException e) {
 			throw new IllegalStateException(e);
@@ -113,8 +220,11 @@ public class SepReflectionHelper {
 			throw new IllegalArgumentException("The object cannot be null");
 		}
 
+		toSetterAccessor(setter).accept(object, propValue);
+	}
+
+	private static void invokeMethod(Method setter, Object object, Object propValue) {
 		try {
-			setter.setAccessible(true);
 			setter.invoke(object, new Object[] { propValue });
 		} catch (IllegalAccessException e) {
 			throw new IllegalStateException(e);
@@ -123,6 +233,99 @@ public class SepReflectionHelper {
 		}
 	}
 
+	/**
+	 * @return null if the accessor cannot be generated
+	 */
+	@SuppressWarnings("unchecked")
+	private static Function<Object, Object> generateGetterAccessor(Method getter) {
+		if (!canGenerateAccessor(getter)) {
+			return null;
+		}
+		try {
+			MethodHandle target = LOOKUP.unreflect(getter);
+			Class<?> returnType = MethodType.methodType(getter.getReturnType()).wrap().returnType();
+			CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply", MethodType.methodType(Function.class),
+					MethodType.methodType(Object.class, Object.class), target,
+					MethodType.methodType(returnType, getter.getDeclaringClass()));
+			Function<Object, Object> function = (Function<Object, Object>) site.getTarget().invoke();
+			Class<?> declaringClass = getter.getDeclaringClass();
+			return object -> {
+				if (!declaringClass.isInstance(object)) {
+					// let reflection tell what is wrong
+					return invokeGetter(getter, object);
+				}
+				try {
+					return function.apply(object);
+				} catch (Throwable e) {
+					// thrown by the getter itself. Same as the reflective way
+					throw new IllegalStateException(new InvocationTargetException(e));
+				}
+			};
+		} catch (Throwable e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return null if the accessor cannot be generated
+	 */
+	@SuppressWarnings("unchecked")
+	private static BiConsumer<Object, Object> generateSetterAccessor(Method setter) {
+		if (!canGenerateAccessor(setter)) {
+			return null;
+		}
+		try {
+			MethodHandle target = LOOKUP.unreflect(setter);
+			Class<?> paramType = setter.getParameterTypes()[0];
+			Class<?> boxedParamType = MethodType.methodType(paramType).wrap().returnType();
+			CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept", MethodType.methodType(BiConsumer.class),
+					MethodType.methodType(void.class, Object.class, Object.class), target,
+					MethodType.methodType(void.class, setter.getDeclaringClass(), boxedParamType));
+			BiConsumer<Object, Object> consumer = (BiConsumer<Object, Object>) site.getTarget().invoke();
+			Class<?> declaringClass = setter.getDeclaringClass();
+			boolean primitive = paramType.isPrimitive();
+			return (object, propValue) -> {
+				if (!declaringClass.isInstance(object) || (propValue == null ? primitive
+						: !boxedParamType.isInstance(propValue))) {
+					// let reflection convert the value or tell what is wrong,
+					// e.g. an Integer is widened for a long parameter
+					invokeMethod(setter, object, propValue);
+					return;
+				}
+				try {
+					consumer.accept(object, propValue);
+				} catch (Throwable e) {
+					// thrown by the setter itself. Same as the reflective way
+					throw new IllegalStateException(new InvocationTargetException(e));
+				}
+			};
+		} catch (Throwable e) {
+			return null;
+		}
+	}
+
+	/**
+	 * a generated accessor calls the method directly, so the method and its
+	 * class must be public, and the class must be visible to this class's
+	 * class loader
+	 */
+	private static boolean canGenerateAccessor(Method method) {
+		if (!Modifier.isPublic(method.getModifiers()) || Modifier.isStatic(method.getModifiers())) {
+			return false;
+		}
+		Class<?> declaringClass = method.getDeclaringClass();
+		for (Class<?> c = declaringClass; c != null; c = c.getEnclosingClass()) {
+			if (!Modifier.isPublic(c.getModifiers())) {
+				return false;
+			}
+		}
+		try {
+			return Class.forName(declaringClass.getName(), false, SepReflectionHelper.class.getClassLoader()) == declaringClass;
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+
 	/**
 	 * find a getter
 	 * 
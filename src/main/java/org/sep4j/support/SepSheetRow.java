@@ -0,0 +1,49 @@
+package org.sep4j.support;
+
+/**
+ * a row of a sheet, no matter whether it is read from a POI workbook or from a
+ * stream of xml events
+ *
+ * @author chenjianjx
+ */
+public interface SepSheetRow {
+
+	/**
+	 * the row's index. 0-based
+	 */
+	int getRowIndex();
+
+	/**
+	 * the index of the last cell in this row, PLUS ONE. Same as
+	 * {@link org.apache.poi.ss.usermodel.Row#getLastCellNum()}
+	 */
+	int getLastCellNum();
+
+	/**
+	 * the value of a cell
+	 *
+	 * @param columnIndex
+	 *            0-based
+	 * @return the date if it is a date cell, or else the string value (will be
+	 *         trimmed to null). Null if there is no such cell.
+	 */
+	Object getCellValue(int columnIndex);
+
+	/**
+	 * the type of a cell
+	 *
+	 * @param columnIndex
+	 *            0-based
+	 * @return {@link SepCellType#BLANK} if there is no such cell
+	 */
+	SepCellType getCellType(int columnIndex);
+
+	/**
+	 * the raw value of a numeric or date cell, without turning it into a string
+	 *
+	 * @param columnIndex
+	 *            0-based
+	 * @return 0 if the cell is not a numeric or date cell
+	 */
+	double getNumericCellValue(int columnIndex);
+}
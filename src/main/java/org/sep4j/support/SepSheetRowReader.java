@@ -0,0 +1,36 @@
+package org.sep4j.support;
+
+import java.io.Closeable;
+import java.util.BitSet;
+
+/**
+ * read the rows of a sheet one by one
+ *
+ * @author chenjianjx
+ */
+public interface SepSheetRowReader extends Closeable {
+
+	/**
+	 * read the next row that physically exists in the sheet
+	 *
+	 * @return null if there are no more rows
+	 */
+	SepSheetRow nextRow();
+
+	/**
+	 * tell the reader that only the cells of these columns are needed by the
+	 * rows read from now on. A reader may skip the other cells without
+	 * decoding them, in which case they are read as blank cells. Call it after
+	 * the header row is read.
+	 *
+	 * @param columnIndexes
+	 *            the 0-based indexes of the needed columns. Null means all
+	 */
+	void setColumnProjection(BitSet columnIndexes);
+
+	/**
+	 * release the underlying resources. No checked exception will be thrown
+	 */
+	@Override
+	void close();
+}
@@ -0,0 +1,23 @@
+package org.sep4j.support;
+
+/**
+ * write the rows of a sheet one by one, no matter whether they go to a POI
+ * workbook or to a stream
+ *
+ * @author chenjianjx
+ */
+public interface SepSheetWriter {
+
+	/**
+	 * write a row of string-typed cells
+	 *
+	 * @param rowIndex
+	 *            0-based. Rows must be written in ascending order
+	 * @param cellTexts
+	 *            the texts of the cells, starting from column 0. None of them
+	 *            should be null
+	 * @param styleTypes
+	 *            the style of each cell. Same length as cellTexts
+	 */
+	void writeRow(int rowIndex, String[] cellTexts, SepCellStyleType[] styleTypes);
+}
@@ -0,0 +1,402 @@
+package org.sep4j.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.DateWindow1904Record;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.ExtendedFormatRecord;
+import org.apache.poi.hssf.record.FormatRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.MulBlankRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RecordFactoryInputStream;
+import org.apache.poi.hssf.record.RowRecord;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.poifs.filesystem.DirectoryNode;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+/**
+ * Read the first sheet of an xls file record by record, so that only one row
+ * is held in memory at a time. The shared strings table is still loaded as a
+ * whole, since cells refer to it by index.
+ *
+ * @author chenjianjx
+ */
+public class SepXlsStreamingReader implements SepSheetRowReader {
+
+	/**
+	 * the names of the workbook stream in the file. Both have been seen
+	 */
+	private static final String[] WORKBOOK_ENTRY_NAMES = { "Workbook", "WORKBOOK" };
+
+	private final NPOIFSFileSystem fs;
+	private final File tempFile;
+	private final InputStream workbookInputStream;
+	private final RecordFactoryInputStream records;
+
+	private SSTRecord sharedStrings;
+	private boolean date1904;
+
+	/**
+	 * key = format index, value = format string. Only the custom formats
+	 */
+	private final Map<Integer, String> formatStrings = new HashMap<Integer, String>();
+
+	/**
+	 * key = xf index, value = format index
+	 */
+	private final List<Integer> xfFormatIndexes = new ArrayList<Integer>();
+
+	/**
+	 * key = xf index, value = whether it is a date style. Lazily filled.
+	 */
+	private final List<Boolean> dateStyleFlags = new ArrayList<Boolean>();
+
+	/**
+	 * the indexes of the rows declared by row records whose cells haven't
+	 * come yet. Row records come in blocks ahead of the cells of the block
+	 */
+	private final Deque<Integer> declaredRowIndexes = new ArrayDeque<Integer>();
+
+	/**
+	 * the row whose cells are being read
+	 */
+	private SepBufferedSheetRow currentRow;
+
+	/**
+	 * a record read ahead, which belongs to the next row
+	 */
+	private Record pendingRecord;
+
+	private boolean sheetEnded;
+
+	/**
+	 * the columns whose cells are decoded. Null means all
+	 */
+	private BitSet columnProjection;
+
+	private SepXlsStreamingReader(NPOIFSFileSystem fs, File tempFile, InputStream workbookInputStream) {
+		this.fs = fs;
+		this.tempFile = tempFile;
+		this.workbookInputStream = workbookInputStream;
+		this.records = new RecordFactoryInputStream(workbookInputStream, false);
+	}
+
+	/**
+	 * open the first sheet of an xls file
+	 *
+	 * @param file
+	 *            the xls file. It will be read in random-access mode
+	 * @return null if there is no sheet in the file
+	 * @throws InvalidFormatException
+	 *             the file is not a valid xls file
+	 */
+	public static SepXlsStreamingReader open(File file) throws InvalidFormatException {
+		return doOpen(file, null);
+	}
+
+	/**
+	 * open the first sheet of an xls input stream. The stream will be copied
+	 * to a temp file first, so that the records can be read one by one without
+	 * being buffered in memory. The temp file will be deleted when this reader
+	 * is closed.
+	 *
+	 * @param inputStream
+	 *            it won't be closed by this method
+	 * @return null if there is no sheet in the input
+	 * @throws InvalidFormatException
+	 *             the input is not a valid xls file
+	 */
+	public static SepXlsStreamingReader open(InputStream inputStream) throws InvalidFormatException {
+		File tempFile = SepXlsxStreamingReader.copyToTempFile(inputStream);
+		try {
+			SepXlsStreamingReader reader = doOpen(tempFile, tempFile);
+			if (reader == null) {
+				tempFile.delete();
+			}
+			return reader;
+		} catch (InvalidFormatException | RuntimeException e) {
+			tempFile.delete();
+			throw e;
+		}
+	}
+
+	private static SepXlsStreamingReader doOpen(File file, File tempFileToDelete) throws InvalidFormatException {
+		NPOIFSFileSystem fs = null;
+		InputStream workbookInputStream = null;
+		try {
+			fs = new NPOIFSFileSystem(file, true);
+			String entryName = getWorkbookEntryName(fs.getRoot());
+			if (entryName == null) {
+				throw new InvalidFormatException("There is no workbook in the file. Is it an xls file?");
+			}
+			workbookInputStream = fs.createDocumentInputStream(entryName);
+			SepXlsStreamingReader reader = new SepXlsStreamingReader(fs, tempFileToDelete, workbookInputStream);
+			if (!reader.readToFirstSheet()) {
+				closeQuietly(fs, workbookInputStream);
+				return null;
+			}
+			return reader;
+		} catch (IOException e) {
+			closeQuietly(fs, workbookInputStream);
+			throw new IllegalStateException(e);
+		} catch (InvalidFormatException | RuntimeException e) {
+			closeQuietly(fs, workbookInputStream);
+			throw e;
+		}
+	}
+
+	@Override
+	public SepSheetRow nextRow() {
+		while (true) {
+			Record record = pendingRecord == null ? nextSheetRecord() : pendingRecord;
+			pendingRecord = null;
+
+			if (record == null) {
+				if (currentRow != null) {
+					return takeCurrentRow();
+				}
+				return declaredRowIndexes.isEmpty() ? null : new SepBufferedSheetRow(declaredRowIndexes.poll());
+			}
+
+			if (record instanceof RowRecord) {
+				if (currentRow != null) {
+					// a new block of rows. The current one is done
+					pendingRecord = record;
+					return takeCurrentRow();
+				}
+				declaredRowIndexes.add(((RowRecord) record).getRowNumber());
+				continue;
+			}
+
+			int rowIndex = getRowIndex(record);
+			if (rowIndex < 0) {
+				continue;
+			}
+			if (currentRow != null && currentRow.getRowIndex() != rowIndex) {
+				pendingRecord = record;
+				return takeCurrentRow();
+			}
+			if (currentRow == null) {
+				Integer declaredRowIndex = declaredRowIndexes.peek();
+				if (declaredRowIndex != null && declaredRowIndex < rowIndex) {
+					// a row without cells
+					declaredRowIndexes.poll();
+					pendingRecord = record;
+					return new SepBufferedSheetRow(declaredRowIndex);
+				}
+				if (declaredRowIndex != null && declaredRowIndex == rowIndex) {
+					declaredRowIndexes.poll();
+				}
+				currentRow = new SepBufferedSheetRow(rowIndex);
+			}
+			readCells(currentRow, record);
+		}
+	}
+
+	/**
+	 * the records of the other columns are still parsed by POI, but shared
+	 * strings are not looked up and dates are not made for them
+	 */
+	@Override
+	public void setColumnProjection(BitSet columnIndexes) {
+		this.columnProjection = columnIndexes == null ? null : (BitSet) columnIndexes.clone();
+	}
+
+	@Override
+	public void close() {
+		closeQuietly(fs, workbookInputStream);
+		if (tempFile != null) {
+			tempFile.delete();
+		}
+	}
+
+	/**
+	 * read the workbook globals, and stop at the beginning of the first
+	 * worksheet. Other kinds of sheets, such as chart sheets, are skipped.
+	 *
+	 * @return false if there is no worksheet
+	 */
+	private boolean readToFirstSheet() {
+		int depth = 0;
+		Record record;
+		while ((record = records.nextRecord()) != null) {
+			if (record instanceof BOFRecord) {
+				if (depth == 0 && ((BOFRecord) record).getType() == BOFRecord.TYPE_WORKSHEET) {
+					return true;
+				}
+				depth++;
+			} else if (record instanceof EOFRecord) {
+				depth--;
+			} else if (record instanceof SSTRecord) {
+				sharedStrings = (SSTRecord) record;
+			} else if (record instanceof FormatRecord) {
+				FormatRecord format = (FormatRecord) record;
+				formatStrings.put(format.getIndexCode(), format.getFormatString());
+			} else if (record instanceof ExtendedFormatRecord) {
+				xfFormatIndexes.add(((ExtendedFormatRecord) record).getFormatIndex() & 0xFFFF);
+			} else if (record instanceof DateWindow1904Record) {
+				date1904 = ((DateWindow1904Record) record).getWindowing() == 1;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return null at the end of the sheet. The records of charts and so on
+	 *         embedded in the sheet are skipped
+	 */
+	private Record nextSheetRecord() {
+		if (sheetEnded) {
+			return null;
+		}
+		int depth = 1;
+		Record record;
+		while ((record = records.nextRecord()) != null) {
+			if (record instanceof BOFRecord) {
+				depth++;
+			} else if (record instanceof EOFRecord) {
+				depth--;
+				if (depth == 0) {
+					break;
+				}
+			} else if (depth == 1) {
+				return record;
+			}
+		}
+		sheetEnded = true;
+		return null;
+	}
+
+	private SepBufferedSheetRow takeCurrentRow() {
+		SepBufferedSheetRow row = currentRow;
+		currentRow = null;
+		return row;
+	}
+
+	/**
+	 * @return -1 if it is not a cell record
+	 */
+	private static int getRowIndex(Record record) {
+		if (record instanceof CellValueRecordInterface) {
+			return ((CellValueRecordInterface) record).getRow();
+		}
+		if (record instanceof MulBlankRecord) {
+			return ((MulBlankRecord) record).getRow();
+		}
+		return -1;
+	}
+
+	private void readCells(SepBufferedSheetRow row, Record record) {
+		if (record instanceof MulBlankRecord) {
+			MulBlankRecord blanks = (MulBlankRecord) record;
+			for (int i = 0; i < blanks.getNumColumns(); i++) {
+				row.setBlank(blanks.getFirstColumn() + i);
+			}
+			return;
+		}
+		CellValueRecordInterface cell = (CellValueRecordInterface) record;
+		int columnIndex = cell.getColumn();
+		if (columnProjection == null || columnProjection.get(columnIndex)) {
+			readCell(row, columnIndex, cell);
+		} else {
+			row.setSkipped(columnIndex);
+		}
+	}
+
+	/**
+	 * read a cell record into the row. It only supports: boolean, numeric,
+	 * date(numeric cell type + date cell format) and string, just like what is
+	 * done for a POI cell. Numbers saved as RK records have been turned into
+	 * number records by POI.
+	 */
+	private void readCell(SepBufferedSheetRow row, int columnIndex, CellValueRecordInterface cell) {
+		if (cell instanceof LabelSSTRecord) {
+			String s = sharedStrings == null ? null : sharedStrings.getString(((LabelSSTRecord) cell).getSSTIndex())
+					.getString();
+			row.setString(columnIndex, StringUtils.trimToNull(s));
+			return;
+		}
+
+		if (cell instanceof LabelRecord) {
+			row.setString(columnIndex, StringUtils.trimToNull(((LabelRecord) cell).getValue()));
+			return;
+		}
+
+		if (cell instanceof BoolErrRecord) {
+			BoolErrRecord boolErr = (BoolErrRecord) cell;
+			if (boolErr.isBoolean()) {
+				row.setBoolean(columnIndex, boolErr.getBooleanValue());
+			} else {
+				row.setBlank(columnIndex);
+			}
+			return;
+		}
+
+		if (cell instanceof NumberRecord) {
+			double v = ((NumberRecord) cell).getValue();
+			if (isDateStyle(cell.getXFIndex() & 0xFFFF) && DateUtil.isValidExcelDate(v)) {
+				row.setDate(columnIndex, v, DateUtil.getJavaDate(v, date1904));
+				return;
+			}
+			row.setNumeric(columnIndex, v);
+			return;
+		}
+
+		// formula, blank and the others
+		row.setBlank(columnIndex);
+	}
+
+	private boolean isDateStyle(int xfIndex) {
+		while (dateStyleFlags.size() <= xfIndex) {
+			dateStyleFlags.add(null);
+		}
+		Boolean flag = dateStyleFlags.get(xfIndex);
+		if (flag == null) {
+			flag = false;
+			if (xfIndex < xfFormatIndexes.size()) {
+				int formatIndex = xfFormatIndexes.get(xfIndex);
+				String formatString = formatStrings.get(formatIndex);
+				if (formatString == null) {
+					formatString = BuiltinFormats.getBuiltinFormat(formatIndex);
+				}
+				flag = DateUtil.isADateFormat(formatIndex, formatString);
+			}
+			dateStyleFlags.set(xfIndex, flag);
+		}
+		return flag;
+	}
+
+	private static String getWorkbookEntryName(DirectoryNode root) {
+		for (String name : WORKBOOK_ENTRY_NAMES) {
+			if (root.hasEntry(name)) {
+				return name;
+			}
+		}
+		return null;
+	}
+
+	private static void closeQuietly(NPOIFSFileSystem fs, InputStream workbookInputStream) {
+		IOUtils.closeQuietly(workbookInputStream);
+		IOUtils.closeQuietly(fs);
+	}
+}
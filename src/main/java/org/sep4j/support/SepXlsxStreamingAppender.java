@@ -0,0 +1,804 @@
+package org.sep4j.support;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Enumeration;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * Append rows to the first sheet of an existing xlsx file without loading the
+ * workbook. The new rows are written to a temp file first; on
+ * {@link #commit()} the package is copied part by part to a new file, with the
+ * new rows inserted at the end of the sheet data, and then the new file
+ * replaces the old one. Nothing is parsed into memory except the styles part,
+ * which is only touched if a style needed by the new rows is missing.
+ *
+ * Please always {@link #close()} it to delete the temp files.
+ *
+ * @author chenjianjx
+ */
+public class SepXlsxStreamingAppender implements SepSheetWriter, Closeable {
+
+	private static final String SPREADSHEETML_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+	private static final String RELATIONSHIPS_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+	private static final String OFFICE_DOCUMENT_REL_TYPE = "http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument";
+	private static final String STYLES_REL_TYPE = "http://schemas.openxmlformats.org/officeDocument/2006/relationships/styles";
+
+	/**
+	 * the solid red fill, the same as what is created for a datum error
+	 * elsewhere
+	 */
+	private static final String ERROR_FILL_COLOR = "10";
+
+	private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+	private static final byte[] DIMENSION = "dimension".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] SHEET_DATA = "sheetData".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] END_OF_SHEET_DATA = "</sheetData>".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] END_OF_TAG = ">".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] END_OF_EMPTY_TAG = "/>".getBytes(StandardCharsets.US_ASCII);
+
+	private final File file;
+	private final File tempDir;
+	private final ZipFile zip;
+	private final String sheetPath;
+	private final String stylesPath;
+
+	/**
+	 * where the sheet xml will be spliced
+	 */
+	private final SheetScan scan;
+
+	/**
+	 * parsed only if the new rows need a missing style
+	 */
+	private Document stylesDocument;
+
+	/**
+	 * null until a row needs the datum error style
+	 */
+	private Integer errorStyleIndex;
+
+	private File rowsFile;
+	private Writer rowsWriter;
+	private int lastRowIndex;
+	private int lastColumnIndex = -1;
+	private boolean committed;
+
+	private SepXlsxStreamingAppender(File file, File tempDir, ZipFile zip, String sheetPath, String stylesPath,
+			SheetScan scan) {
+		this.file = file;
+		this.tempDir = tempDir;
+		this.zip = zip;
+		this.sheetPath = sheetPath;
+		this.stylesPath = stylesPath;
+		this.scan = scan;
+		this.lastRowIndex = scan.lastRowIndex;
+	}
+
+	/**
+	 * get ready to append rows to the first sheet of an xlsx file
+	 *
+	 * @param tempDir
+	 *            where to put the temp file of the new rows. Null means the
+	 *            system's default temp directory
+	 * @return null if this file cannot be appended to in this way (e.g. the
+	 *         sheet xml is written with a namespace prefix or is not in
+	 *         UTF-8), in which case you should fall back to loading the
+	 *         workbook
+	 * @throws IllegalArgumentException
+	 *             if there is no sheet in the file
+	 */
+	public static SepXlsxStreamingAppender open(File file, File tempDir) {
+		ZipFile zip = null;
+		try {
+			zip = new ZipFile(file);
+			String workbookPath = findTarget(zip, "_rels/.rels", "", OFFICE_DOCUMENT_REL_TYPE, null);
+			if (workbookPath == null) {
+				zip.close();
+				return null;
+			}
+			String workbookDir = workbookPath.contains("/") ? workbookPath.substring(0,
+					workbookPath.lastIndexOf('/') + 1) : "";
+			String workbookRelsPath = workbookDir + "_rels/" + workbookPath.substring(workbookDir.length()) + ".rels";
+
+			String firstSheetRelId = findFirstSheetRelId(zip, workbookPath);
+			if (firstSheetRelId == null) {
+				zip.close();
+				throw new IllegalArgumentException("There is no sheet in file " + file);
+			}
+			String sheetPath = findTarget(zip, workbookRelsPath, workbookDir, null, firstSheetRelId);
+			String stylesPath = findTarget(zip, workbookRelsPath, workbookDir, STYLES_REL_TYPE, null);
+			if (sheetPath == null || zip.getEntry(sheetPath) == null) {
+				zip.close();
+				return null;
+			}
+
+			SheetScan scan = scanSheet(zip, sheetPath);
+			if (scan == null) {
+				zip.close();
+				return null;
+			}
+			return new SepXlsxStreamingAppender(file, tempDir, zip, sheetPath, stylesPath, scan);
+		} catch (IOException | XMLStreamException e) {
+			IOUtils.closeQuietly(zip);
+			throw new IllegalStateException(e);
+		} catch (RuntimeException e) {
+			IOUtils.closeQuietly(zip);
+			throw e;
+		}
+	}
+
+	/**
+	 * the index of the row that will be appended first
+	 */
+	public int getNextRowIndex() {
+		return scan.lastRowIndex + 1;
+	}
+
+	@Override
+	public void writeRow(int rowIndex, String[] cellTexts, SepCellStyleType[] styleTypes) {
+		if (committed) {
+			throw new IllegalStateException("The rows have been committed");
+		}
+		if (rowIndex <= lastRowIndex) {
+			throw new IllegalArgumentException("Rows must be appended in ascending order after the existing ones. rowIndex = "
+					+ rowIndex);
+		}
+		try {
+			int[] styleIndexes = new int[SepCellStyleType.values().length];
+			for (SepCellStyleType styleType : styleTypes) {
+				if (styleType == SepCellStyleType.DATUM_ERROR) {
+					styleIndexes[SepCellStyleType.DATUM_ERROR.ordinal()] = getErrorStyleIndex();
+				}
+			}
+			SepXlsxStreamingWriter.writeRowXml(getRowsWriter(), rowIndex, cellTexts, styleTypes, styleIndexes);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		lastRowIndex = rowIndex;
+		lastColumnIndex = Math.max(lastColumnIndex, cellTexts.length - 1);
+	}
+
+	/**
+	 * write the new rows into the file. The file is replaced in one move, so a
+	 * reader will see either the old file or the new one
+	 */
+	public void commit() {
+		if (committed) {
+			throw new IllegalStateException("The rows have been committed");
+		}
+		committed = true;
+		if (rowsWriter == null) {
+			// nothing to append
+			return;
+		}
+
+		File newFile = null;
+		try {
+			rowsWriter.close();
+			newFile = File.createTempFile("sep4j-append-", ".xlsx", file.getAbsoluteFile().getParentFile());
+			try (OutputStream out = new FileOutputStream(newFile)) {
+				ZipOutputStream zipOut = new ZipOutputStream(out);
+				Enumeration<? extends ZipEntry> entries = zip.entries();
+				while (entries.hasMoreElements()) {
+					ZipEntry entry = entries.nextElement();
+					zipOut.putNextEntry(new ZipEntry(entry.getName()));
+					if (entry.getName().equals(sheetPath)) {
+						copySheetWithNewRows(entry, zipOut);
+					} else if (entry.getName().equals(stylesPath) && stylesDocument != null) {
+						writeDocument(stylesDocument, zipOut);
+					} else {
+						try (InputStream in = zip.getInputStream(entry)) {
+							IOUtils.copy(in, zipOut);
+						}
+					}
+					zipOut.closeEntry();
+				}
+				zipOut.finish();
+			}
+			zip.close();
+			replace(newFile, file);
+		} catch (IOException | TransformerException e) {
+			deleteQuietly(newFile);
+			throw new IllegalStateException(e);
+		} catch (RuntimeException e) {
+			deleteQuietly(newFile);
+			throw e;
+		}
+	}
+
+	/**
+	 * delete the temp files
+	 */
+	@Override
+	public void close() {
+		IOUtils.closeQuietly(rowsWriter);
+		IOUtils.closeQuietly(zip);
+		deleteQuietly(rowsFile);
+	}
+
+	/**
+	 * replace the target file with the source file, atomically if the file
+	 * system supports it
+	 */
+	public static void replace(File source, File target) throws IOException {
+		try {
+			Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private Writer getRowsWriter() throws IOException {
+		if (rowsWriter == null) {
+			rowsFile = File.createTempFile("sep4j-rows-", ".xml", tempDir);
+			rowsWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(rowsFile),
+					StandardCharsets.UTF_8));
+		}
+		return rowsWriter;
+	}
+
+	/**
+	 * copy the sheet xml as it is, except that the new rows are inserted before
+	 * the end of sheetData, and the dimension is extended
+	 */
+	private void copySheetWithNewRows(ZipEntry entry, OutputStream out) throws IOException {
+		OutputStream bufferedOut = new BufferedOutputStream(out);
+		try (InputStream in = zip.getInputStream(entry)) {
+			new SheetXmlSplicer(in, bufferedOut).splice();
+		}
+		bufferedOut.flush();
+	}
+
+	/**
+	 * the original top-left cell is kept, unless the new rows start on its left
+	 */
+	private String toDimensionXml() {
+		String firstCellRef = scan.dimensionRef == null ? "" : scan.dimensionRef.split(":")[0];
+		int firstRowIndex = 0;
+		int firstColumnIndex = 0;
+		if (firstCellRef.matches("[A-Z]+[0-9]+")) {
+			firstRowIndex = Math.min(SepXlsxStreamingReader.toRowIndex(firstCellRef), lastRowIndex);
+			// the new rows start from the first column
+			firstColumnIndex = lastColumnIndex >= 0 ? 0 : SepXlsxStreamingReader.toColumnIndex(firstCellRef);
+		}
+		int lastColumn = Math.max(Math.max(scan.lastColumnIndex, lastColumnIndex), firstColumnIndex);
+		return "<dimension ref=\"" + SepXlsxStreamingWriter.toCellRef(firstRowIndex, firstColumnIndex) + ":"
+				+ SepXlsxStreamingWriter.toCellRef(lastRowIndex, lastColumn) + "\"/>";
+	}
+
+	/**
+	 * copy the sheet xml byte by byte, replacing the dimension and inserting
+	 * the new rows on the way. Comments, CDATA sections, processing
+	 * instructions and attribute values are copied as a whole, so a '&gt;' or a
+	 * tag in them is not taken as markup. The sheet xml is in UTF-8, where all
+	 * the markup chars are single bytes.
+	 */
+	private class SheetXmlSplicer {
+		private final InputStream in;
+		private final OutputStream out;
+		private final byte[] buffer = new byte[8192];
+		private int position;
+		private int limit;
+
+		/**
+		 * long enough for the element names to look for
+		 */
+		private final byte[] name = new byte[16];
+		private int nameLength;
+
+		/**
+		 * false while the old dimension is being skipped
+		 */
+		private boolean writing = true;
+
+		SheetXmlSplicer(InputStream in, OutputStream out) {
+			this.in = in;
+			this.out = out;
+		}
+
+		void splice() throws IOException {
+			int c;
+			while ((c = read()) != -1) {
+				if (c != '<') {
+					write(c);
+				} else if (spliceMarkup()) {
+					// the rest is copied as it is
+					out.write(buffer, position, limit - position);
+					IOUtils.copy(in, out);
+					return;
+				}
+			}
+			throw new EOFException("No end of sheetData in " + sheetPath);
+		}
+
+		/**
+		 * called after a '&lt;'
+		 *
+		 * @return whether the new rows have been inserted
+		 */
+		private boolean spliceMarkup() throws IOException {
+			int c = read();
+			if (c == '!') {
+				write('<');
+				write(c);
+				c = read();
+				if (c == -1) {
+					throw new EOFException();
+				}
+				write(c);
+				if (c == '-' || c == '[') {
+					// a comment or a CDATA section
+					copyThrough(c == '-' ? '-' : ']', true);
+				} else {
+					copyTagRest();
+					write('>');
+				}
+				return false;
+			}
+			if (c == '?') {
+				write('<');
+				write(c);
+				copyThrough('?', false);
+				return false;
+			}
+			if (c == '/') {
+				readName(read());
+				if (isName(SHEET_DATA)) {
+					copyNewRows(out);
+				}
+				boolean dimensionEnd = isName(DIMENSION);
+				write('<');
+				write('/');
+				writeName();
+				copyTagRest();
+				write('>');
+				if (dimensionEnd && !writing) {
+					writing = true;
+					out.write(toDimensionXml().getBytes(StandardCharsets.UTF_8));
+				}
+				return isName(SHEET_DATA);
+			}
+
+			readName(c);
+			if (isName(DIMENSION)) {
+				writing = false;
+				if (copyTagRest()) {
+					writing = true;
+					out.write(toDimensionXml().getBytes(StandardCharsets.UTF_8));
+				}
+				return false;
+			}
+			write('<');
+			writeName();
+			boolean empty = copyTagRest();
+			if (isName(SHEET_DATA)) {
+				write('>');
+				if (empty) {
+					copyNewRows(out);
+					write(END_OF_SHEET_DATA);
+				}
+				return empty;
+			}
+			write(empty ? END_OF_EMPTY_TAG : END_OF_TAG);
+			return false;
+		}
+
+		/**
+		 * copy the rest of a tag, except its '&gt;', or the '/&gt;' of an empty
+		 * element
+		 *
+		 * @return whether it is an empty element
+		 */
+		private boolean copyTagRest() throws IOException {
+			int quote = 0;
+			boolean slash = false;
+			int c;
+			while ((c = read()) != -1) {
+				if (quote != 0) {
+					write(c);
+					if (c == quote) {
+						quote = 0;
+					}
+					continue;
+				}
+				if (c == '>') {
+					return slash;
+				}
+				if (slash) {
+					write('/');
+					slash = false;
+				}
+				if (c == '/') {
+					slash = true;
+					continue;
+				}
+				if (c == '"' || c == '\'') {
+					quote = c;
+				}
+				write(c);
+			}
+			throw new EOFException();
+		}
+
+		/**
+		 * copy through the end of a comment ("--&gt;"), a CDATA section
+		 * ("]]&gt;") or a processing instruction ("?&gt;")
+		 *
+		 * @param doubled
+		 *            whether the char before the '&gt;' appears twice
+		 */
+		private void copyThrough(int before, boolean doubled) throws IOException {
+			int previous = -1;
+			int beforePrevious = -1;
+			int c;
+			while ((c = read()) != -1) {
+				write(c);
+				if (c == '>' && previous == before && (!doubled || beforePrevious == before)) {
+					return;
+				}
+				beforePrevious = previous;
+				previous = c;
+			}
+			throw new EOFException();
+		}
+
+		private void readName(int first) throws IOException {
+			nameLength = 0;
+			int c = first;
+			while (c != -1 && c != '>' && c != '/' && c > ' ' && nameLength < name.length) {
+				name[nameLength++] = (byte) c;
+				c = read();
+			}
+			if (c != -1) {
+				// it belongs to the rest of the tag
+				position--;
+			}
+		}
+
+		private boolean isName(byte[] expected) {
+			if (expected.length != nameLength) {
+				return false;
+			}
+			for (int i = 0; i < nameLength; i++) {
+				if (name[i] != expected[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private void writeName() throws IOException {
+			if (writing) {
+				out.write(name, 0, nameLength);
+			}
+		}
+
+		private void write(int c) throws IOException {
+			if (writing) {
+				out.write(c);
+			}
+		}
+
+		private void write(byte[] bytes) throws IOException {
+			if (writing) {
+				out.write(bytes);
+			}
+		}
+
+		private int read() throws IOException {
+			if (position == limit) {
+				limit = Math.max(in.read(buffer), 0);
+				position = 0;
+				if (limit == 0) {
+					return -1;
+				}
+			}
+			return buffer[position++] & 0xff;
+		}
+	}
+
+	private void copyNewRows(OutputStream out) throws IOException {
+		try (InputStream rows = new FileInputStream(rowsFile)) {
+			IOUtils.copy(rows, out);
+		}
+	}
+
+	/**
+	 * find or add the style for datum errors
+	 */
+	private int getErrorStyleIndex() {
+		if (errorStyleIndex != null) {
+			return errorStyleIndex;
+		}
+		if (stylesPath == null || zip.getEntry(stylesPath) == null) {
+			errorStyleIndex = 0;
+			return errorStyleIndex;
+		}
+		try {
+			Document doc = parseDocument(stylesPath);
+			Element fills = firstChild(doc.getDocumentElement(), "fills");
+			Element cellXfs = firstChild(doc.getDocumentElement(), "cellXfs");
+			if (fills == null || cellXfs == null) {
+				errorStyleIndex = 0;
+				return errorStyleIndex;
+			}
+			NodeList fillList = fills.getElementsByTagNameNS(SPREADSHEETML_NS, "fill");
+			NodeList xfList = cellXfs.getElementsByTagNameNS(SPREADSHEETML_NS, "xf");
+			for (int i = 0; i < xfList.getLength(); i++) {
+				Element xf = (Element) xfList.item(i);
+				if (isPlainXf(xf) && isErrorFill(fillList, xf.getAttribute("fillId"))) {
+					errorStyleIndex = i;
+					return errorStyleIndex;
+				}
+			}
+
+			Element fill = doc.createElementNS(SPREADSHEETML_NS, "fill");
+			Element patternFill = doc.createElementNS(SPREADSHEETML_NS, "patternFill");
+			patternFill.setAttribute("patternType", "solid");
+			Element fgColor = doc.createElementNS(SPREADSHEETML_NS, "fgColor");
+			fgColor.setAttribute("indexed", ERROR_FILL_COLOR);
+			Element bgColor = doc.createElementNS(SPREADSHEETML_NS, "bgColor");
+			bgColor.setAttribute("indexed", "64");
+			patternFill.appendChild(fgColor);
+			patternFill.appendChild(bgColor);
+			fill.appendChild(patternFill);
+			int fillId = fillList.getLength();
+			fills.appendChild(fill);
+			fills.setAttribute("count", String.valueOf(fillId + 1));
+
+			Element xf = doc.createElementNS(SPREADSHEETML_NS, "xf");
+			xf.setAttribute("numFmtId", "0");
+			xf.setAttribute("fontId", "0");
+			xf.setAttribute("fillId", String.valueOf(fillId));
+			xf.setAttribute("borderId", "0");
+			xf.setAttribute("xfId", "0");
+			xf.setAttribute("applyFill", "1");
+			int xfIndex = xfList.getLength();
+			cellXfs.appendChild(xf);
+			cellXfs.setAttribute("count", String.valueOf(xfIndex + 1));
+
+			stylesDocument = doc;
+			errorStyleIndex = xfIndex;
+			return errorStyleIndex;
+		} catch (IOException | SAXException | ParserConfigurationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static boolean isPlainXf(Element xf) {
+		return isZero(xf.getAttribute("numFmtId")) && isZero(xf.getAttribute("fontId"))
+				&& isZero(xf.getAttribute("borderId"));
+	}
+
+	private static boolean isZero(String attr) {
+		return attr.isEmpty() || "0".equals(attr);
+	}
+
+	private static boolean isErrorFill(NodeList fillList, String fillId) {
+		if (fillId.isEmpty()) {
+			return false;
+		}
+		int index = Integer.parseInt(fillId);
+		if (index >= fillList.getLength()) {
+			return false;
+		}
+		Element fill = (Element) fillList.item(index);
+		NodeList patternFills = fill.getElementsByTagNameNS(SPREADSHEETML_NS, "patternFill");
+		if (patternFills.getLength() == 0) {
+			return false;
+		}
+		Element patternFill = (Element) patternFills.item(0);
+		if (!"solid".equals(patternFill.getAttribute("patternType"))) {
+			return false;
+		}
+		NodeList fgColors = patternFill.getElementsByTagNameNS(SPREADSHEETML_NS, "fgColor");
+		return fgColors.getLength() > 0
+				&& ERROR_FILL_COLOR.equals(((Element) fgColors.item(0)).getAttribute("indexed"));
+	}
+
+	private static Element firstChild(Element parent, String localName) {
+		for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+			if (node instanceof Element && localName.equals(node.getLocalName())) {
+				return (Element) node;
+			}
+		}
+		return null;
+	}
+
+	private Document parseDocument(String path) throws IOException, SAXException, ParserConfigurationException {
+		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setNamespaceAware(true);
+		factory.setExpandEntityReferences(false);
+		factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+		DocumentBuilder builder = factory.newDocumentBuilder();
+		try (InputStream in = zip.getInputStream(zip.getEntry(path))) {
+			return builder.parse(in);
+		}
+	}
+
+	private static void writeDocument(Document doc, OutputStream out) throws TransformerException {
+		Transformer transformer = TransformerFactory.newInstance().newTransformer();
+		transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+		transformer.setOutputProperty(OutputKeys.STANDALONE, "yes");
+		transformer.transform(new DOMSource(doc), new StreamResult(out));
+	}
+
+	/**
+	 * what is found in the sheet xml before appending
+	 */
+	private static class SheetScan {
+		/**
+		 * the last row of the sheet. -1 if there is no row
+		 */
+		int lastRowIndex = -1;
+
+		/**
+		 * the last column in the dimension of the sheet. -1 if there is no
+		 * dimension
+		 */
+		int lastColumnIndex = -1;
+
+		/**
+		 * the ref of the dimension, such as "B2:D10". Null if there is none
+		 */
+		String dimensionRef;
+	}
+
+	/**
+	 * @return null if the sheet xml is not in a form that can be appended to by
+	 *         text
+	 */
+	private static SheetScan scanSheet(ZipFile zip, String sheetPath) throws IOException, XMLStreamException {
+		try (InputStream in = zip.getInputStream(zip.getEntry(sheetPath))) {
+			XMLStreamReader xml = XML_INPUT_FACTORY.createXMLStreamReader(in);
+			try {
+				String encoding = xml.getCharacterEncodingScheme();
+				if (encoding != null && !"UTF-8".equalsIgnoreCase(encoding)) {
+					return null;
+				}
+				SheetScan scan = new SheetScan();
+				while (xml.hasNext()) {
+					int event = xml.next();
+					if (event == XMLStreamConstants.END_ELEMENT && "sheetData".equals(xml.getLocalName())) {
+						// nothing after it is needed
+						return scan;
+					}
+					if (event != XMLStreamConstants.START_ELEMENT) {
+						continue;
+					}
+					String name = xml.getLocalName();
+					if ("row".equals(name)) {
+						String rowRef = xml.getAttributeValue(null, "r");
+						scan.lastRowIndex = rowRef == null ? scan.lastRowIndex + 1 : Integer.parseInt(rowRef) - 1;
+					} else if ("sheetData".equals(name) || "dimension".equals(name)) {
+						if (!StringUtils.isEmpty(xml.getPrefix())) {
+							return null;
+						}
+						if ("dimension".equals(name)) {
+							String ref = xml.getAttributeValue(null, "ref");
+							if (ref != null) {
+								String lastCell = ref.substring(ref.indexOf(':') + 1);
+								scan.lastColumnIndex = SepXlsxStreamingReader.toColumnIndex(lastCell);
+							}
+							scan.dimensionRef = ref;
+						}
+					}
+				}
+				// no sheetData
+				return null;
+			} finally {
+				xml.close();
+			}
+		}
+	}
+
+	/**
+	 * the r:id of the first sheet in workbook.xml
+	 */
+	private static String findFirstSheetRelId(ZipFile zip, String workbookPath) throws IOException,
+			XMLStreamException {
+		ZipEntry entry = zip.getEntry(workbookPath);
+		if (entry == null) {
+			return null;
+		}
+		try (InputStream in = zip.getInputStream(entry)) {
+			XMLStreamReader xml = XML_INPUT_FACTORY.createXMLStreamReader(in);
+			try {
+				while (xml.hasNext()) {
+					if (xml.next() == XMLStreamConstants.START_ELEMENT && "sheet".equals(xml.getLocalName())) {
+						return xml.getAttributeValue(RELATIONSHIPS_NS, "id");
+					}
+				}
+				return null;
+			} finally {
+				xml.close();
+			}
+		}
+	}
+
+	/**
+	 * find the target part of a relationship by type or by id
+	 *
+	 * @return the path of the part in the zip, or null if not found
+	 */
+	private static String findTarget(ZipFile zip, String relsPath, String baseDir, String type, String id)
+			throws IOException, XMLStreamException {
+		ZipEntry entry = zip.getEntry(relsPath);
+		if (entry == null) {
+			return null;
+		}
+		try (InputStream in = zip.getInputStream(entry)) {
+			XMLStreamReader xml = XML_INPUT_FACTORY.createXMLStreamReader(in);
+			try {
+				while (xml.hasNext()) {
+					if (xml.next() != XMLStreamConstants.START_ELEMENT || !"Relationship".equals(xml.getLocalName())) {
+						continue;
+					}
+					boolean matched = type != null ? type.equals(xml.getAttributeValue(null, "Type")) : id
+							.equals(xml.getAttributeValue(null, "Id"));
+					if (matched) {
+						String target = xml.getAttributeValue(null, "Target");
+						return target.startsWith("/") ? target.substring(1) : baseDir + target;
+					}
+				}
+				return null;
+			} finally {
+				xml.close();
+			}
+		}
+	}
+
+	private static XMLInputFactory createXmlInputFactory() {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		return factory;
+	}
+
+	private static void deleteQuietly(File file) {
+		if (file != null) {
+			file.delete();
+		}
+	}
+}
@@ -0,0 +1,658 @@
+package org.sep4j.support;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.sep4j.SheetDimension;
+import org.xml.sax.SAXException;
+
+/**
+ * Read a sheet (by default the first one) of an xlsx file as a stream of xml
+ * events, so that only one row is held in memory at a time. The shared strings table is still
+ * loaded as a whole, since cells refer to it by index.
+ *
+ * @author chenjianjx
+ */
+public class SepXlsxStreamingReader implements SepSheetRowReader {
+
+	private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+	private final OPCPackage pkg;
+	private final File tempFile;
+	private final InputStream sheetInputStream;
+	private final XMLStreamReader xml;
+	private final ReadOnlySharedStringsTable sharedStrings;
+	private final StylesTable styles;
+	private final boolean date1904;
+
+	/**
+	 * key = style index, value = whether it is a date style. Lazily filled.
+	 */
+	private final List<Boolean> dateStyleFlags = new ArrayList<Boolean>();
+
+	private int lastRowIndex = -1;
+
+	/**
+	 * the columns whose cells are decoded. Null means all
+	 */
+	private BitSet columnProjection;
+
+	/**
+	 * @param pkg
+	 *            the package to revert when this reader is closed. Null if it
+	 *            is shared with other readers
+	 */
+	private SepXlsxStreamingReader(OPCPackage pkg, File tempFile, InputStream sheetInputStream,
+			ReadOnlySharedStringsTable sharedStrings, StylesTable styles, boolean date1904) throws XMLStreamException {
+		this.pkg = pkg;
+		this.tempFile = tempFile;
+		this.sheetInputStream = sheetInputStream;
+		this.sharedStrings = sharedStrings;
+		this.styles = styles;
+		this.date1904 = date1904;
+		this.xml = XML_INPUT_FACTORY.createXMLStreamReader(sheetInputStream);
+	}
+
+	/**
+	 * open the first sheet of an xlsx file
+	 *
+	 * @param file
+	 *            the xlsx file. It will be read in random-access mode
+	 * @return null if there is no sheet in the file
+	 * @throws InvalidFormatException
+	 *             the file is not a valid xlsx file
+	 */
+	public static SepXlsxStreamingReader open(File file) throws InvalidFormatException {
+		return doOpen(file, null, 0);
+	}
+
+	/**
+	 * open a sheet of an xlsx file. Each reader has its own handle of the file,
+	 * so different sheets can be read by different threads at the same time.
+	 *
+	 * @param file
+	 *            the xlsx file. It will be read in random-access mode
+	 * @param sheetIndex
+	 *            0-based
+	 * @return null if there is no such sheet in the file
+	 * @throws InvalidFormatException
+	 *             the file is not a valid xlsx file
+	 */
+	public static SepXlsxStreamingReader open(File file, int sheetIndex) throws InvalidFormatException {
+		return doOpen(file, null, sheetIndex);
+	}
+
+	/**
+	 * open an xlsx file whose sheets will be read by different readers, e.g.
+	 * in different threads. The file is opened, and its shared strings table
+	 * is loaded, only once for all of them.
+	 *
+	 * @param file
+	 *            the xlsx file. It will be read in random-access mode
+	 * @throws InvalidFormatException
+	 *             the file is not a valid xlsx file
+	 */
+	public static Workbook openWorkbook(File file) throws InvalidFormatException {
+		OPCPackage pkg = OPCPackage.open(file.getPath(), PackageAccess.READ);
+		try {
+			return new Workbook(pkg);
+		} catch (InvalidFormatException e) {
+			pkg.revert();
+			throw e;
+		} catch (OpenXML4JException | SAXException e) {
+			pkg.revert();
+			throw new InvalidFormatException(e.getMessage());
+		} catch (IOException | XMLStreamException e) {
+			pkg.revert();
+			throw new IllegalStateException(e);
+		} catch (RuntimeException e) {
+			pkg.revert();
+			throw e;
+		}
+	}
+
+	/**
+	 * copy the input to a temp file, so that it can be opened in random-access
+	 * mode. The caller should delete the file.
+	 *
+	 * @param inputStream
+	 *            it won't be closed by this method
+	 */
+	public static File copyToTempFile(InputStream inputStream) {
+		File tempFile = null;
+		try {
+			tempFile = File.createTempFile("sep4j-parse-", ".xlsx");
+			try (OutputStream out = new FileOutputStream(tempFile)) {
+				IOUtils.copy(inputStream, out);
+			}
+			return tempFile;
+		} catch (IOException e) {
+			deleteQuietly(tempFile);
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * open the first sheet of an xlsx input stream. The stream will be copied
+	 * to a temp file first, so that the xml parts can be read one by one
+	 * without being buffered in memory. The temp file will be deleted when
+	 * this reader is closed.
+	 *
+	 * @param inputStream
+	 *            it won't be closed by this method
+	 * @return null if there is no sheet in the input
+	 * @throws InvalidFormatException
+	 *             the input is not a valid xlsx file
+	 */
+	public static SepXlsxStreamingReader open(InputStream inputStream) throws InvalidFormatException {
+		File tempFile = copyToTempFile(inputStream);
+		try {
+			SepXlsxStreamingReader reader = doOpen(tempFile, tempFile, 0);
+			if (reader == null) {
+				tempFile.delete();
+			}
+			return reader;
+		} catch (InvalidFormatException | RuntimeException e) {
+			deleteQuietly(tempFile);
+			throw e;
+		}
+	}
+
+	private static SepXlsxStreamingReader doOpen(File file, File tempFileToDelete, int sheetIndex)
+			throws InvalidFormatException {
+		if (sheetIndex < 0) {
+			throw new IllegalArgumentException("the sheetIndex cannot be negative");
+		}
+		OPCPackage pkg = OPCPackage.open(file.getPath(), PackageAccess.READ);
+		InputStream sheetInputStream = null;
+		try {
+			XSSFReader xssfReader = new XSSFReader(pkg);
+			Iterator<InputStream> sheets = xssfReader.getSheetsData();
+			for (int i = 0; i < sheetIndex && sheets.hasNext(); i++) {
+				IOUtils.closeQuietly(sheets.next());
+			}
+			if (!sheets.hasNext()) {
+				pkg.revert();
+				return null;
+			}
+			sheetInputStream = sheets.next();
+			return new SepXlsxStreamingReader(pkg, tempFileToDelete, sheetInputStream,
+					new ReadOnlySharedStringsTable(pkg), xssfReader.getStylesTable(), isDate1904(xssfReader));
+		} catch (InvalidFormatException e) {
+			closeQuietly(pkg, sheetInputStream);
+			throw e;
+		} catch (OpenXML4JException | SAXException e) {
+			closeQuietly(pkg, sheetInputStream);
+			throw new InvalidFormatException(e.getMessage());
+		} catch (IOException | XMLStreamException e) {
+			closeQuietly(pkg, sheetInputStream);
+			throw new IllegalStateException(e);
+		} catch (RuntimeException e) {
+			closeQuietly(pkg, sheetInputStream);
+			throw e;
+		}
+	}
+
+	@Override
+	public SepSheetRow nextRow() {
+		try {
+			while (xml.hasNext()) {
+				int event = xml.next();
+				if (event == XMLStreamConstants.START_ELEMENT && "row".equals(xml.getLocalName())) {
+					return readRow();
+				}
+			}
+			return null;
+		} catch (XMLStreamException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * read the used range of the sheet. It is taken from the "dimension"
+	 * element if there is a meaningful one. Otherwise the row elements are
+	 * scanned, and only the cells' references are read, not their values.
+	 * Please call it on a newly opened reader instead of {@link #nextRow()},
+	 * and close the reader afterwards.
+	 */
+	public SheetDimension readDimension() {
+		try {
+			while (xml.hasNext()) {
+				int event = xml.next();
+				if (event != XMLStreamConstants.START_ELEMENT) {
+					continue;
+				}
+				String name = xml.getLocalName();
+				if ("dimension".equals(name)) {
+					SheetDimension dimension = parseDimensionRef(xml.getAttributeValue(null, "ref"));
+					if (dimension != null) {
+						return dimension;
+					}
+				} else if ("sheetData".equals(name)) {
+					return scanDimension();
+				}
+			}
+			return new SheetDimension();
+		} catch (XMLStreamException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * the cells of the other columns are skipped as xml events only: their
+	 * values are not read, and shared strings are not looked up for them
+	 */
+	@Override
+	public void setColumnProjection(BitSet columnIndexes) {
+		this.columnProjection = columnIndexes == null ? null : (BitSet) columnIndexes.clone();
+	}
+
+	@Override
+	public void close() {
+		try {
+			xml.close();
+		} catch (XMLStreamException e) {
+			// ignore
+		}
+		closeQuietly(pkg, sheetInputStream);
+		deleteQuietly(tempFile);
+	}
+
+	private SepSheetRow readRow() throws XMLStreamException {
+		String rowRef = xml.getAttributeValue(null, "r");
+		int rowIndex = rowRef == null ? lastRowIndex + 1 : Integer.parseInt(rowRef) - 1;
+		lastRowIndex = rowIndex;
+
+		SepBufferedSheetRow row = new SepBufferedSheetRow(rowIndex);
+		int columnIndex = -1;
+		while (xml.hasNext()) {
+			int event = xml.next();
+			if (event == XMLStreamConstants.START_ELEMENT && "c".equals(xml.getLocalName())) {
+				String cellRef = xml.getAttributeValue(null, "r");
+				columnIndex = cellRef == null ? columnIndex + 1 : toColumnIndex(cellRef);
+				if (columnProjection == null || columnProjection.get(columnIndex)) {
+					readCell(row, columnIndex);
+				} else {
+					skipElement();
+					row.setSkipped(columnIndex);
+				}
+			} else if (event == XMLStreamConstants.END_ELEMENT && "row".equals(xml.getLocalName())) {
+				break;
+			}
+		}
+		return row;
+	}
+
+	/**
+	 * read a "c" element into the row. It only supports: boolean, numeric,
+	 * date(numeric cell type + date cell format) and string, just like what is
+	 * done for a POI cell.
+	 */
+	private void readCell(SepBufferedSheetRow row, int columnIndex) throws XMLStreamException {
+		String type = xml.getAttributeValue(null, "t");
+		String styleRef = xml.getAttributeValue(null, "s");
+
+		boolean formula = false;
+		String rawValue = null;
+		StringBuilder inlineText = null;
+		int depth = 1;
+		while (depth > 0 && xml.hasNext()) {
+			int event = xml.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				String name = xml.getLocalName();
+				if ("v".equals(name)) {
+					rawValue = xml.getElementText();
+				} else if ("f".equals(name)) {
+					formula = true;
+					xml.getElementText();
+				} else if ("is".equals(name)) {
+					inlineText = readInlineString();
+				} else {
+					depth++;
+				}
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+			}
+		}
+
+		if (formula) {
+			row.setBlank(columnIndex);
+			return;
+		}
+
+		if ("inlineStr".equals(type)) {
+			row.setString(columnIndex, inlineText == null ? null : StringUtils.trimToNull(inlineText.toString()));
+			return;
+		}
+
+		if (rawValue == null) {
+			row.setBlank(columnIndex);
+			return;
+		}
+
+		if ("s".equals(type)) {
+			String s = sharedStrings.getEntryAt(Integer.parseInt(rawValue));
+			row.setString(columnIndex, StringUtils.trimToNull(s));
+			return;
+		}
+
+		if ("b".equals(type)) {
+			row.setBoolean(columnIndex, "1".equals(rawValue) || "true".equalsIgnoreCase(rawValue));
+			return;
+		}
+
+		if ("e".equals(type)) {
+			row.setBlank(columnIndex);
+			return;
+		}
+
+		if ("str".equals(type) || "d".equals(type)) {
+			row.setString(columnIndex, StringUtils.trimToNull(rawValue));
+			return;
+		}
+
+		// numeric
+		double v = Double.parseDouble(rawValue);
+		if (styleRef != null && isDateStyle(Integer.parseInt(styleRef)) && DateUtil.isValidExcelDate(v)) {
+			row.setDate(columnIndex, v, DateUtil.getJavaDate(v, date1904));
+			return;
+		}
+		row.setNumeric(columnIndex, v);
+	}
+
+	/**
+	 * scan the rest of the "sheetData" element
+	 */
+	private SheetDimension scanDimension() throws XMLStreamException {
+		int firstRowIndex = Integer.MAX_VALUE, lastRowIndex = -1;
+		int firstColumnIndex = Integer.MAX_VALUE, lastColumnIndex = -1;
+		int rowCount = 0;
+		int rowIndex = -1;
+		int columnIndex = -1;
+		while (xml.hasNext()) {
+			int event = xml.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				String name = xml.getLocalName();
+				if ("row".equals(name)) {
+					String rowRef = xml.getAttributeValue(null, "r");
+					rowIndex = rowRef == null ? rowIndex + 1 : Integer.parseInt(rowRef) - 1;
+					columnIndex = -1;
+					rowCount++;
+					firstRowIndex = Math.min(firstRowIndex, rowIndex);
+					lastRowIndex = Math.max(lastRowIndex, rowIndex);
+				} else if ("c".equals(name)) {
+					String cellRef = xml.getAttributeValue(null, "r");
+					columnIndex = cellRef == null ? columnIndex + 1 : toColumnIndex(cellRef);
+					firstColumnIndex = Math.min(firstColumnIndex, columnIndex);
+					lastColumnIndex = Math.max(lastColumnIndex, columnIndex);
+				}
+			} else if (event == XMLStreamConstants.END_ELEMENT && "sheetData".equals(xml.getLocalName())) {
+				break;
+			}
+		}
+
+		SheetDimension dimension = new SheetDimension();
+		dimension.setRowCount(rowCount);
+		if (rowCount > 0) {
+			dimension.setFirstRowIndex(firstRowIndex);
+			dimension.setLastRowIndex(lastRowIndex);
+		}
+		if (lastColumnIndex >= 0) {
+			dimension.setFirstColumnIndex(firstColumnIndex);
+			dimension.setLastColumnIndex(lastColumnIndex);
+		}
+		return dimension;
+	}
+
+	/**
+	 * "B2:D10" => the dimension. A single cell such as "A1" is not trusted,
+	 * since some writers (POI's XSSF included) always write "A1", so null is
+	 * returned for it
+	 */
+	static SheetDimension parseDimensionRef(String ref) {
+		if (ref == null || ref.indexOf(':') < 0) {
+			return null;
+		}
+		String[] cellRefs = ref.split(":");
+		if (cellRefs.length != 2) {
+			return null;
+		}
+		SheetDimension dimension = new SheetDimension();
+		dimension.setFirstRowIndex(toRowIndex(cellRefs[0]));
+		dimension.setLastRowIndex(toRowIndex(cellRefs[1]));
+		dimension.setFirstColumnIndex(toColumnIndex(cellRefs[0]));
+		dimension.setLastColumnIndex(toColumnIndex(cellRefs[1]));
+		dimension.setRowCount(dimension.getLastRowIndex() - dimension.getFirstRowIndex() + 1);
+		dimension.setFromDimensionInfo(true);
+		return dimension;
+	}
+
+	/**
+	 * move to the end of the current element without reading anything
+	 */
+	private void skipElement() throws XMLStreamException {
+		int depth = 1;
+		while (depth > 0 && xml.hasNext()) {
+			int event = xml.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				depth++;
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+			}
+		}
+	}
+
+	/**
+	 * read an "is" element, ignoring phonetic runs
+	 */
+	private StringBuilder readInlineString() throws XMLStreamException {
+		StringBuilder text = new StringBuilder();
+		int depth = 1;
+		boolean inPhonetic = false;
+		while (depth > 0 && xml.hasNext()) {
+			int event = xml.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				String name = xml.getLocalName();
+				if ("t".equals(name) && !inPhonetic) {
+					text.append(xml.getElementText());
+				} else {
+					if ("rPh".equals(name)) {
+						inPhonetic = true;
+					}
+					depth++;
+				}
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				if ("rPh".equals(xml.getLocalName())) {
+					inPhonetic = false;
+				}
+				depth--;
+			}
+		}
+		return text;
+	}
+
+	private boolean isDateStyle(int styleIndex) {
+		while (dateStyleFlags.size() <= styleIndex) {
+			dateStyleFlags.add(null);
+		}
+		Boolean flag = dateStyleFlags.get(styleIndex);
+		if (flag == null) {
+			XSSFCellStyle style = styles == null ? null : styles.getStyleAt(styleIndex);
+			flag = style != null && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString());
+			dateStyleFlags.set(styleIndex, flag);
+		}
+		return flag;
+	}
+
+	/**
+	 * "AB12" => 27
+	 */
+	static int toColumnIndex(String cellRef) {
+		int column = 0;
+		for (int i = 0; i < cellRef.length(); i++) {
+			char ch = cellRef.charAt(i);
+			if (ch < 'A' || ch > 'Z') {
+				break;
+			}
+			column = column * 26 + (ch - 'A' + 1);
+		}
+		return column - 1;
+	}
+
+	/**
+	 * "AB12" => 11
+	 */
+	static int toRowIndex(String cellRef) {
+		int i = 0;
+		while (i < cellRef.length() && cellRef.charAt(i) >= 'A' && cellRef.charAt(i) <= 'Z') {
+			i++;
+		}
+		return Integer.parseInt(cellRef.substring(i)) - 1;
+	}
+
+	/**
+	 * an xlsx file opened by {@link SepXlsxStreamingReader#openWorkbook(File)}.
+	 * Its sheet readers share the file handle, the shared strings table and the
+	 * styles table, which are only read after being loaded. Please close it
+	 * after all its sheet readers are closed.
+	 */
+	public static class Workbook implements Closeable {
+		private final OPCPackage pkg;
+		private final XSSFReader xssfReader;
+		private final ReadOnlySharedStringsTable sharedStrings;
+		private final StylesTable styles;
+		private final boolean date1904;
+		private final List<String> sheetNames = new ArrayList<String>();
+
+		private Workbook(OPCPackage pkg) throws IOException, OpenXML4JException, SAXException, XMLStreamException {
+			this.pkg = pkg;
+			this.xssfReader = new XSSFReader(pkg);
+			this.sharedStrings = new ReadOnlySharedStringsTable(pkg);
+			this.styles = xssfReader.getStylesTable();
+			this.date1904 = isDate1904(xssfReader);
+			XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+			while (sheets.hasNext()) {
+				IOUtils.closeQuietly(sheets.next());
+				sheetNames.add(sheets.getSheetName());
+			}
+		}
+
+		/**
+		 * the names of the sheets, in order
+		 */
+		public List<String> getSheetNames() {
+			return sheetNames;
+		}
+
+		/**
+		 * open a sheet of the workbook. Closing the reader won't close the
+		 * workbook.
+		 *
+		 * @param sheetIndex
+		 *            0-based
+		 * @return null if there is no such sheet in the file
+		 * @throws InvalidFormatException
+		 *             the file is not a valid xlsx file
+		 */
+		public synchronized SepXlsxStreamingReader openSheet(int sheetIndex) throws InvalidFormatException {
+			if (sheetIndex < 0) {
+				throw new IllegalArgumentException("the sheetIndex cannot be negative");
+			}
+			if (sheetIndex >= sheetNames.size()) {
+				return null;
+			}
+			InputStream sheetInputStream = null;
+			try {
+				Iterator<InputStream> sheets = xssfReader.getSheetsData();
+				for (int i = 0; i < sheetIndex; i++) {
+					IOUtils.closeQuietly(sheets.next());
+				}
+				sheetInputStream = sheets.next();
+				return new SepXlsxStreamingReader(null, null, sheetInputStream, sharedStrings, styles, date1904);
+			} catch (InvalidFormatException e) {
+				IOUtils.closeQuietly(sheetInputStream);
+				throw e;
+			} catch (IOException | XMLStreamException e) {
+				IOUtils.closeQuietly(sheetInputStream);
+				throw new IllegalStateException(e);
+			}
+		}
+
+		@Override
+		public void close() {
+			// a package opened as read-only should be reverted instead of closed
+			pkg.revert();
+		}
+	}
+
+	private static boolean isDate1904(XSSFReader xssfReader) throws IOException, InvalidFormatException,
+			XMLStreamException {
+		try (InputStream workbookData = xssfReader.getWorkbookData()) {
+			XMLStreamReader workbookXml = XML_INPUT_FACTORY.createXMLStreamReader(workbookData);
+			try {
+				while (workbookXml.hasNext()) {
+					int event = workbookXml.next();
+					if (event != XMLStreamConstants.START_ELEMENT) {
+						continue;
+					}
+					String name = workbookXml.getLocalName();
+					if ("workbookPr".equals(name)) {
+						String date1904 = workbookXml.getAttributeValue(null, "date1904");
+						return "1".equals(date1904) || "true".equalsIgnoreCase(date1904);
+					}
+					if ("sheets".equals(name)) {
+						return false;
+					}
+				}
+				return false;
+			} finally {
+				workbookXml.close();
+			}
+		}
+	}
+
+	private static XMLInputFactory createXmlInputFactory() {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		return factory;
+	}
+
+	private static void closeQuietly(OPCPackage pkg, InputStream sheetInputStream) {
+		IOUtils.closeQuietly(sheetInputStream);
+		if (pkg != null) {
+			// a package opened as read-only should be reverted instead of closed
+			pkg.revert();
+		}
+	}
+
+	private static void deleteQuietly(File file) {
+		if (file != null) {
+			file.delete();
+		}
+	}
+}
@@ -0,0 +1,374 @@
+package org.sep4j.support;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Write a single-sheet xlsx file without keeping all the rows in memory. Only
+ * the last rows (a sliding window) are kept in memory; the older ones are
+ * flushed to a temp file as sheet xml, which is copied into the package when
+ * {@link #write(OutputStream)} is called. The temp file is deleted on
+ * {@link #close()}, so please always close it.
+ *
+ * @author chenjianjx
+ */
+public class SepXlsxStreamingWriter implements SepSheetWriter, Closeable {
+
+	public static final int DEFAULT_ROW_WINDOW_SIZE = 100;
+
+	private static final String SPREADSHEETML_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+	private static final String RELATIONSHIPS_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+	private static final String PACKAGE_RELATIONSHIPS_NS = "http://schemas.openxmlformats.org/package/2006/relationships";
+	private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+
+	/**
+	 * the indexes of the styles in {@link #stylesXml()}, by the ordinals of the
+	 * style types
+	 */
+	private static final int[] DEFAULT_STYLE_INDEXES = new int[SepCellStyleType.values().length];
+	static {
+		DEFAULT_STYLE_INDEXES[SepCellStyleType.HEADER.ordinal()] = 1;
+		DEFAULT_STYLE_INDEXES[SepCellStyleType.DATUM_ERROR.ordinal()] = 2;
+	}
+
+	private final int rowWindowSize;
+	private final boolean compressTempFile;
+	private final File tempDir;
+	private final SepColumnWidthEstimator widthEstimator;
+
+	private final Deque<BufferedRow> window = new ArrayDeque<BufferedRow>();
+	private File tempFile;
+	private Writer tempWriter;
+
+	private int lastRowIndex = -1;
+	private int lastColumnIndex = -1;
+	private boolean written;
+
+	/**
+	 * @param rowWindowSize
+	 *            how many rows to keep in memory. Must be positive
+	 * @param compressTempFile
+	 *            gzip the temp file or not. Compression saves disk space but
+	 *            costs CPU
+	 * @param tempDir
+	 *            where to put the temp file. Null means the default temp
+	 *            directory of the system
+	 * @param widthEstimator
+	 *            to decide the column widths. Null means the default widths
+	 */
+	public SepXlsxStreamingWriter(int rowWindowSize, boolean compressTempFile, File tempDir,
+			SepColumnWidthEstimator widthEstimator) {
+		if (rowWindowSize <= 0) {
+			throw new IllegalArgumentException("the rowWindowSize must be positive");
+		}
+		this.rowWindowSize = rowWindowSize;
+		this.compressTempFile = compressTempFile;
+		this.tempDir = tempDir;
+		this.widthEstimator = widthEstimator;
+	}
+
+	@Override
+	public void writeRow(int rowIndex, String[] cellTexts, SepCellStyleType[] styleTypes) {
+		if (written) {
+			throw new IllegalStateException("The workbook has been written");
+		}
+		if (rowIndex <= lastRowIndex) {
+			throw new IllegalArgumentException("Rows must be written in ascending order. rowIndex = " + rowIndex);
+		}
+		lastRowIndex = rowIndex;
+		lastColumnIndex = Math.max(lastColumnIndex, cellTexts.length - 1);
+		if (widthEstimator != null) {
+			widthEstimator.observe(cellTexts);
+		}
+
+		window.addLast(new BufferedRow(rowIndex, cellTexts, styleTypes));
+		if (window.size() > rowWindowSize) {
+			try {
+				writeRowXml(getTempWriter(), window.removeFirst());
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	/**
+	 * write the whole package to the output stream. It can only be called
+	 * once.
+	 *
+	 * @param outputStream
+	 *            it won't be closed by this method
+	 */
+	public void write(OutputStream outputStream) throws IOException {
+		if (written) {
+			throw new IllegalStateException("The workbook has been written");
+		}
+		written = true;
+
+		if (tempWriter != null) {
+			tempWriter.close();
+		}
+
+		ZipOutputStream zip = new ZipOutputStream(outputStream);
+		Writer writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8));
+
+		putEntry(zip, writer, "[Content_Types].xml", contentTypesXml());
+		putEntry(zip, writer, "_rels/.rels", rootRelsXml());
+		putEntry(zip, writer, "xl/workbook.xml", workbookXml());
+		putEntry(zip, writer, "xl/_rels/workbook.xml.rels", workbookRelsXml());
+		putEntry(zip, writer, "xl/styles.xml", stylesXml());
+
+		zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+		writer.write(XML_DECLARATION);
+		writer.write("<worksheet xmlns=\"" + SPREADSHEETML_NS + "\">");
+		if (lastRowIndex >= 0 && lastColumnIndex >= 0) {
+			writer.write("<dimension ref=\"A1:" + toCellRef(lastRowIndex, lastColumnIndex) + "\"/>");
+		}
+		writeColsXml(writer);
+		writer.write("<sheetData>");
+		if (tempFile != null) {
+			writer.flush();
+			try (InputStream tempInput = openTempFile()) {
+				IOUtils.copy(tempInput, zip);
+			}
+		}
+		for (BufferedRow row : window) {
+			writeRowXml(writer, row);
+		}
+		window.clear();
+		writer.write("</sheetData></worksheet>");
+		writer.flush();
+		zip.closeEntry();
+
+		zip.finish();
+		zip.flush();
+	}
+
+	/**
+	 * delete the temp file
+	 */
+	@Override
+	public void close() {
+		IOUtils.closeQuietly(tempWriter);
+		if (tempFile != null) {
+			tempFile.delete();
+		}
+	}
+
+	private Writer getTempWriter() throws IOException {
+		if (tempWriter == null) {
+			tempFile = File.createTempFile("sep4j-sheet-", compressTempFile ? ".xml.gz" : ".xml", tempDir);
+			OutputStream out = new FileOutputStream(tempFile);
+			if (compressTempFile) {
+				out = new GZIPOutputStream(out);
+			}
+			tempWriter = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		}
+		return tempWriter;
+	}
+
+	private InputStream openTempFile() throws IOException {
+		InputStream in = new FileInputStream(tempFile);
+		return compressTempFile ? new GZIPInputStream(in) : in;
+	}
+
+	private static void putEntry(ZipOutputStream zip, Writer writer, String name, String content) throws IOException {
+		zip.putNextEntry(new ZipEntry(name));
+		writer.write(content);
+		writer.flush();
+		zip.closeEntry();
+	}
+
+	private void writeColsXml(Writer writer) throws IOException {
+		if (widthEstimator == null) {
+			return;
+		}
+		boolean started = false;
+		for (int columnIndex = 0; columnIndex < widthEstimator.getColumnCount(); columnIndex++) {
+			int width = widthEstimator.getWidth(columnIndex);
+			if (width < 0) {
+				continue;
+			}
+			if (!started) {
+				writer.write("<cols>");
+				started = true;
+			}
+			// the width in the xml is in characters
+			writer.write("<col min=\"" + (columnIndex + 1) + "\" max=\"" + (columnIndex + 1) + "\" width=\""
+					+ (width / 256) + "\" customWidth=\"1\"/>");
+		}
+		if (started) {
+			writer.write("</cols>");
+		}
+	}
+
+	private static void writeRowXml(Writer writer, BufferedRow row) throws IOException {
+		writeRowXml(writer, row.rowIndex, row.cellTexts, row.styleTypes, DEFAULT_STYLE_INDEXES);
+	}
+
+	/**
+	 * write a row of inline-string cells
+	 *
+	 * @param styleIndexes
+	 *            the index of each style type in the cellXfs of styles.xml, by
+	 *            the style type's ordinal. 0 means no particular style
+	 */
+	static void writeRowXml(Writer writer, int rowIndex, String[] cellTexts, SepCellStyleType[] styleTypes,
+			int[] styleIndexes) throws IOException {
+		writer.write("<row r=\"");
+		writer.write(String.valueOf(rowIndex + 1));
+		writer.write("\">");
+		for (int columnIndex = 0; columnIndex < cellTexts.length; columnIndex++) {
+			writer.write("<c r=\"");
+			writer.write(toCellRef(rowIndex, columnIndex));
+			writer.write("\" t=\"inlineStr\"");
+			SepCellStyleType styleType = styleTypes[columnIndex];
+			int styleIndex = styleType == null ? 0 : styleIndexes[styleType.ordinal()];
+			if (styleIndex > 0) {
+				writer.write(" s=\"");
+				writer.write(String.valueOf(styleIndex));
+				writer.write("\"");
+			}
+			writer.write("><is><t");
+			String text = cellTexts[columnIndex];
+			if (!text.isEmpty()
+					&& (Character.isWhitespace(text.charAt(0)) || Character.isWhitespace(text.charAt(text.length() - 1)))) {
+				writer.write(" xml:space=\"preserve\"");
+			}
+			writer.write(">");
+			writeEscaped(writer, text);
+			writer.write("</t></is></c>");
+		}
+		writer.write("</row>");
+	}
+
+	private static void writeEscaped(Writer writer, String text) throws IOException {
+		for (int i = 0; i < text.length(); i++) {
+			char ch = text.charAt(i);
+			switch (ch) {
+			case '<':
+				writer.write("&lt;");
+				break;
+			case '>':
+				writer.write("&gt;");
+				break;
+			case '&':
+				writer.write("&amp;");
+				break;
+			case '"':
+				writer.write("&quot;");
+				break;
+			default:
+				// characters not allowed in xml 1.0 are dropped
+				if (ch >= 0x20 || ch == '\t' || ch == '\n' || ch == '\r') {
+					writer.write(ch);
+				}
+			}
+		}
+	}
+
+	/**
+	 * (1, 27) => "AB2"
+	 */
+	static String toCellRef(int rowIndex, int columnIndex) {
+		StringBuilder columnName = new StringBuilder();
+		int n = columnIndex + 1;
+		while (n > 0) {
+			int remainder = (n - 1) % 26;
+			columnName.insert(0, (char) ('A' + remainder));
+			n = (n - 1) / 26;
+		}
+		return columnName.append(rowIndex + 1).toString();
+	}
+
+	private static String contentTypesXml() {
+		return XML_DECLARATION
+				+ "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+				+ "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+				+ "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+				+ "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+				+ "<Override PartName=\"/xl/worksheets/sheet1.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>"
+				+ "<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>"
+				+ "</Types>";
+	}
+
+	private static String rootRelsXml() {
+		return XML_DECLARATION
+				+ "<Relationships xmlns=\"" + PACKAGE_RELATIONSHIPS_NS + "\">"
+				+ "<Relationship Id=\"rId1\" Type=\"" + RELATIONSHIPS_NS + "/officeDocument\" Target=\"xl/workbook.xml\"/>"
+				+ "</Relationships>";
+	}
+
+	private static String workbookXml() {
+		return XML_DECLARATION
+				+ "<workbook xmlns=\"" + SPREADSHEETML_NS + "\" xmlns:r=\"" + RELATIONSHIPS_NS + "\">"
+				+ "<sheets><sheet name=\"Sheet0\" sheetId=\"1\" r:id=\"rId1\"/></sheets>"
+				+ "</workbook>";
+	}
+
+	private static String workbookRelsXml() {
+		return XML_DECLARATION
+				+ "<Relationships xmlns=\"" + PACKAGE_RELATIONSHIPS_NS + "\">"
+				+ "<Relationship Id=\"rId1\" Type=\"" + RELATIONSHIPS_NS + "/worksheet\" Target=\"worksheets/sheet1.xml\"/>"
+				+ "<Relationship Id=\"rId2\" Type=\"" + RELATIONSHIPS_NS + "/styles\" Target=\"styles.xml\"/>"
+				+ "</Relationships>";
+	}
+
+	/**
+	 * style 0 is the default one, 1 is for headers (yellow and bordered), 2 is
+	 * for datum errors (red)
+	 */
+	private static String stylesXml() {
+		String thinBorder = "<border><left style=\"thin\"><color indexed=\"64\"/></left><right style=\"thin\"><color indexed=\"64\"/></right>"
+				+ "<top style=\"thin\"><color indexed=\"64\"/></top><bottom style=\"thin\"><color indexed=\"64\"/></bottom><diagonal/></border>";
+		return XML_DECLARATION
+				+ "<styleSheet xmlns=\"" + SPREADSHEETML_NS + "\">"
+				+ "<fonts count=\"1\"><font><sz val=\"11\"/><name val=\"Calibri\"/><family val=\"2\"/></font></fonts>"
+				+ "<fills count=\"4\">"
+				+ "<fill><patternFill patternType=\"none\"/></fill>"
+				+ "<fill><patternFill patternType=\"gray125\"/></fill>"
+				+ "<fill><patternFill patternType=\"solid\"><fgColor indexed=\"13\"/><bgColor indexed=\"64\"/></patternFill></fill>"
+				+ "<fill><patternFill patternType=\"solid\"><fgColor indexed=\"10\"/><bgColor indexed=\"64\"/></patternFill></fill>"
+				+ "</fills>"
+				+ "<borders count=\"2\"><border><left/><right/><top/><bottom/><diagonal/></border>" + thinBorder + "</borders>"
+				+ "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>"
+				+ "<cellXfs count=\"3\">"
+				+ "<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>"
+				+ "<xf numFmtId=\"0\" fontId=\"0\" fillId=\"2\" borderId=\"1\" xfId=\"0\" applyFill=\"1\" applyBorder=\"1\"/>"
+				+ "<xf numFmtId=\"0\" fontId=\"0\" fillId=\"3\" borderId=\"0\" xfId=\"0\" applyFill=\"1\"/>"
+				+ "</cellXfs>"
+				+ "<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>"
+				+ "</styleSheet>";
+	}
+
+	/**
+	 * a row which hasn't been flushed to the temp file
+	 */
+	private static class BufferedRow {
+		private final int rowIndex;
+		private final String[] cellTexts;
+		private final SepCellStyleType[] styleTypes;
+
+		BufferedRow(int rowIndex, String[] cellTexts, SepCellStyleType[] styleTypes) {
+			this.rowIndex = rowIndex;
+			this.cellTexts = cellTexts;
+			this.styleTypes = styleTypes;
+		}
+	}
+}
@@ -6,16 +6,24 @@ import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.time.DateFormatUtils;
 import org.apache.commons.lang.time.DateUtils;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.IndexedColors;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.sep4j.support.SepCellType;
+import org.sep4j.support.SepSheetRow;
+import org.sep4j.support.SepXlsStreamingReader;
+import org.sep4j.support.SepXlsxStreamingReader;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -23,20 +31,43 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.charset.Charset;
 import java.text.ParseException;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
 
 /**
  * the integration test
@@ -243,19 +274,14 @@ public class SsioIntegrationTest {
 		Assert.assertEquals("row3 string", cell32.getStringCellValue());
 
 		// new errors
-		Assert.assertEquals(2, datumErrors2.size());
+		// the missing getter is only reported once
+		Assert.assertEquals(1, datumErrors2.size());
 
 		DatumError firstAppendingError = datumErrors2.get(0);
 		Assert.assertEquals(0, firstAppendingError.getRecordIndex());
 		Assert.assertEquals("fake", firstAppendingError.getPropName());
 		Assert.assertTrue(firstAppendingError.getCause().getMessage().contains("no getter method"));
 
-
-		DatumError secondAppendingError = datumErrors2.get(1);
-		Assert.assertEquals(1, secondAppendingError.getRecordIndex());
-		Assert.assertEquals("fake", secondAppendingError.getPropName());
-		Assert.assertTrue(secondAppendingError.getCause().getMessage().contains("no getter method"));
-
 		//append again,  ignoring errors
 		ITRecord record4 = new ITRecord();
 		record4.setPrimInt(123456789);
@@ -651,6 +677,467 @@ public class SsioIntegrationTest {
 	}
 	
 
+	@Test
+	public void saveAndAppendTest_StylesShared() throws InvalidFormatException, IOException {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("primInt", "Primitive Int");
+		headerMap.put("fake", "Not Real");
+		File theFile = createFile("saveAndAppendTest_StylesShared");
+
+		Ssio.save(headerMap, createRecords(50), theFile, "!!ERROR!!", null);
+		Workbook workbook = WorkbookFactory.create(new ByteArrayInputStream(FileUtils.readFileToByteArray(theFile)));
+		short styleCount = workbook.getNumCellStyles();
+		// the default one, the header one and the error one
+		Assert.assertEquals(3, styleCount);
+		Sheet sheet = workbook.getSheetAt(0);
+		Assert.assertEquals(sheet.getRow(1).getCell(1).getCellStyle().getIndex(), sheet.getRow(50).getCell(1)
+				.getCellStyle().getIndex());
+
+		// appending reuses the styles in the file
+		Ssio.appendTo(headerMap, createRecords(20), theFile, "!!ERROR!!", null);
+		Ssio.appendTo(headerMap, createRecords(20), theFile, "!!ERROR!!", null);
+		workbook = WorkbookFactory.create(new ByteArrayInputStream(FileUtils.readFileToByteArray(theFile)));
+		Assert.assertEquals(styleCount, workbook.getNumCellStyles());
+		sheet = workbook.getSheetAt(0);
+		Assert.assertEquals(90, sheet.getLastRowNum());
+		Assert.assertEquals(IndexedColors.RED.getIndex(), sheet.getRow(90).getCell(1).getCellStyle()
+				.getFillForegroundColor());
+	}
+
+	@Test
+	public void appendTest_Streaming() throws InvalidFormatException, IOException {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("primInt", "Primitive Int");
+		headerMap.put("fake", "Not Real");
+		File tempDir = createTempDir("appendTest_Streaming");
+		SaveOptions options = new SaveOptions();
+		options.setStreaming(true);
+		options.setTempDir(tempDir);
+
+		// the file has no error style yet, nor any data row
+		File theFile = createFile("appendTest_Streaming");
+		Ssio.save(headerMap, new ArrayList<ITRecord>(), theFile);
+		Workbook workbook = WorkbookFactory.create(new ByteArrayInputStream(FileUtils.readFileToByteArray(theFile)));
+		short styleCount = workbook.getNumCellStyles();
+
+		List<DatumError> datumErrors = new ArrayList<DatumError>();
+		Ssio.appendTo(headerMap, createRecords(20), theFile, "!!ERROR!!", datumErrors, options);
+		// the missing getter is reported once
+		Assert.assertEquals(1, datumErrors.size());
+		Ssio.appendTo(headerMap, createRecords(30), theFile, "!!ERROR!!", null, options);
+		// nothing to append
+		Ssio.appendTo(headerMap, new ArrayList<ITRecord>(), theFile, "!!ERROR!!", null, options);
+
+		workbook = WorkbookFactory.create(new ByteArrayInputStream(FileUtils.readFileToByteArray(theFile)));
+		// the error style is added only once
+		Assert.assertEquals(styleCount + 1, workbook.getNumCellStyles());
+		Sheet sheet = workbook.getSheetAt(0);
+		Assert.assertEquals(50, sheet.getLastRowNum());
+		Assert.assertEquals("Not Real", sheet.getRow(0).getCell(1).getStringCellValue());
+		Assert.assertEquals("19", sheet.getRow(20).getCell(0).getStringCellValue());
+		Assert.assertEquals("29", sheet.getRow(50).getCell(0).getStringCellValue());
+		Assert.assertEquals("!!ERROR!!", sheet.getRow(50).getCell(1).getStringCellValue());
+		Assert.assertEquals(IndexedColors.RED.getIndex(), sheet.getRow(50).getCell(1).getCellStyle()
+				.getFillForegroundColor());
+
+		// the file can still be appended to in the normal way
+		Ssio.appendTo(headerMap, createRecords(5), theFile, "!!ERROR!!", null);
+		workbook = WorkbookFactory.create(new ByteArrayInputStream(FileUtils.readFileToByteArray(theFile)));
+		Assert.assertEquals(styleCount + 1, workbook.getNumCellStyles());
+		Assert.assertEquals(55, workbook.getSheetAt(0).getLastRowNum());
+
+		// no temp file is left
+		Assert.assertEquals(0, tempDir.listFiles().length);
+		for (File file : theFile.getParentFile().listFiles()) {
+			Assert.assertFalse(file.getName().startsWith("sep4j-append-"));
+		}
+	}
+
+	@Test
+	public void appendTest_StreamingToUnusualSheetXml() throws InvalidFormatException, IOException {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("primInt", "Primitive Int");
+		headerMap.put("str", "String");
+		SaveOptions options = new SaveOptions();
+		options.setStreaming(true);
+		File theFile = createFile("appendTest_StreamingToUnusualSheetXml");
+		Ssio.save(headerMap, new ArrayList<ITRecord>(), theFile, null, null, options);
+
+		// markup chars in an attribute, a comment and a CDATA section, a
+		// dimension that is not an empty element, and data starting from B2
+		String sheetXml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+				+ "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">"
+				+ "<sheetPr codeName=\"a>b\"/><dimension ref=\"B2:C2\"></dimension>"
+				+ "<!-- <sheetData/> --> <sheetData>"
+				+ "<row r=\"2\"><c r=\"B2\" t=\"inlineStr\"><is><t>Primitive Int</t></is></c>"
+				+ "<c r=\"C2\" t=\"inlineStr\"><is><t><![CDATA[</sheetData>]]></t></is></c></row>"
+				+ "</sheetData ></worksheet>";
+		replaceZipEntry(theFile, "xl/worksheets/sheet1.xml", sheetXml);
+
+		Ssio.appendTo(headerMap, createRecords(2), theFile, null, null, options);
+
+		String newSheetXml = readZipEntry(theFile, "xl/worksheets/sheet1.xml");
+		Assert.assertTrue(newSheetXml.contains("<sheetPr codeName=\"a>b\"/><dimension ref=\"A2:C4\"/><!-- <sheetData/> -->"));
+		Sheet sheet = WorkbookFactory.create(new ByteArrayInputStream(FileUtils.readFileToByteArray(theFile)))
+				.getSheetAt(0);
+		Assert.assertEquals(3, sheet.getLastRowNum());
+		Assert.assertEquals("</sheetData>", sheet.getRow(1).getCell(2).getStringCellValue());
+		Assert.assertEquals("0", sheet.getRow(2).getCell(0).getStringCellValue());
+		Assert.assertEquals("str1", sheet.getRow(3).getCell(1).getStringCellValue());
+	}
+
+	@Test
+	public void appendTest_StreamingToFileSavedInStreamingMode() throws InvalidFormatException, IOException,
+			InvalidHeaderRowException {
+		SaveOptions options = new SaveOptions();
+		options.setStreaming(true);
+		File theFile = createFile("appendTest_StreamingToFileSavedInStreamingMode");
+		Ssio.save(ITRecord.getHeaderMap(), createRecords(10), theFile, null, null, options);
+		Ssio.appendTo(ITRecord.getHeaderMap(), createRecords(10), theFile, null, null, options);
+
+		List<ITRecord> records = Ssio.parse(ITRecord.getReverseHeaderMap(), theFile, null, ITRecord.class,
+				streamingOptions());
+		Assert.assertEquals(20, records.size());
+		Assert.assertEquals(9, records.get(19).getPrimInt());
+		Assert.assertEquals("str9", records.get(19).getStr());
+
+		Sheet sheet = WorkbookFactory.create(new ByteArrayInputStream(FileUtils.readFileToByteArray(theFile)))
+				.getSheetAt(0);
+		Assert.assertEquals(20, sheet.getLastRowNum());
+	}
+
+	@Test
+	public void batchAppenderTest_Concurrent() throws Exception {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("primInt", "Primitive Int");
+		headerMap.put("str", "String");
+		File theFile = createFile("batchAppenderTest_Concurrent");
+		Ssio.save(headerMap, new ArrayList<ITRecord>(), theFile);
+
+		BatchAppendOptions options = new BatchAppendOptions();
+		options.setBatchSize(100);
+		options.setFlushIntervalMillis(20);
+		options.setStreaming(true);
+		final int threadCount = 8;
+		final int recordsPerThread = 150;
+		try (BatchAppender<ITRecord> appender = BatchAppender.of(headerMap, theFile, options)) {
+			ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+			List<Future<?>> futures = new ArrayList<Future<?>>();
+			for (int t = 0; t < threadCount; t++) {
+				final int threadIndex = t;
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < recordsPerThread; i++) {
+						ITRecord record = new ITRecord();
+						record.setPrimInt(threadIndex * recordsPerThread + i);
+						appender.add(record);
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+			executor.shutdown();
+		}
+
+		List<ITRecord> records = Ssio.parse(ITRecord.getReverseHeaderMap(), theFile, null, ITRecord.class,
+				streamingOptions());
+		Assert.assertEquals(threadCount * recordsPerThread, records.size());
+		Set<Integer> values = new HashSet<Integer>();
+		for (ITRecord record : records) {
+			values.add(record.getPrimInt());
+		}
+		Assert.assertEquals(threadCount * recordsPerThread, values.size());
+	}
+
+	@Test
+	public void batchAppenderTest_TimedFlush() throws Exception {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("primInt", "Primitive Int");
+		File theFile = createFile("batchAppenderTest_TimedFlush");
+		Ssio.save(headerMap, new ArrayList<ITRecord>(), theFile);
+
+		BatchAppendOptions options = new BatchAppendOptions();
+		options.setFlushIntervalMillis(10);
+		BatchAppender<Map<String, Object>> appender = BatchAppender.ofMaps(headerMap, theFile, options);
+		try {
+			appender.addAll(Arrays.asList(Collections.<String, Object> singletonMap("primInt", 1),
+					Collections.<String, Object> singletonMap("primInt", 2)));
+			long deadline = System.currentTimeMillis() + 10000;
+			while (appender.getPendingCount() > 0 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			Assert.assertEquals(0, appender.getPendingCount());
+			Sheet sheet = WorkbookFactory.create(new ByteArrayInputStream(FileUtils.readFileToByteArray(theFile)))
+					.getSheetAt(0);
+			Assert.assertEquals(2, sheet.getLastRowNum());
+		} finally {
+			appender.close();
+		}
+
+		try {
+			appender.add(Collections.<String, Object> singletonMap("primInt", 3));
+			Assert.fail();
+		} catch (IllegalStateException e) {
+			// closed
+		}
+	}
+
+	@Test
+	public void batchAppenderTest_FailedBatches() throws Exception {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("primInt", "Primitive Int");
+		File theFile = createFile("batchAppenderTest_FailedBatches");
+		theFile.delete();
+
+		BatchAppendOptions options = new BatchAppendOptions();
+		options.setFlushIntervalMillis(0);
+		options.setMaxAttempts(2);
+		try (BatchAppender<Map<String, Object>> appender = BatchAppender.ofMaps(headerMap, theFile, options)) {
+			// the file is missing. Tried twice and then dropped
+			appender.add(Collections.<String, Object> singletonMap("primInt", 1));
+			for (int attempt = 1; attempt <= 2; attempt++) {
+				try {
+					appender.flush();
+					Assert.fail();
+				} catch (IllegalStateException e) {
+					Assert.assertEquals(2 - attempt, appender.getPendingCount());
+				}
+			}
+
+			// the file is not a spreadsheet. Dropped at once
+			FileUtils.writeStringToFile(theFile, "not a spreadsheet", "UTF-8");
+			appender.add(Collections.<String, Object> singletonMap("primInt", 2));
+			try {
+				appender.flush();
+				Assert.fail();
+			} catch (RuntimeException e) {
+				Assert.assertEquals(0, appender.getPendingCount());
+			}
+		}
+	}
+
+	@Test
+	public void batchAppenderTest_FailedClose() throws Exception {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("primInt", "Primitive Int");
+		File theFile = createFile("batchAppenderTest_FailedClose");
+		theFile.delete();
+
+		BatchAppendOptions options = new BatchAppendOptions();
+		options.setFlushIntervalMillis(0);
+		options.setMaxAttempts(3);
+		BatchAppender<Map<String, Object>> appender = BatchAppender.ofMaps(headerMap, theFile, options);
+		appender.add(Collections.<String, Object> singletonMap("primInt", 1));
+		try {
+			appender.close();
+			Assert.fail();
+		} catch (IllegalStateException e) {
+			// the file is missing. Tried again by close itself, and then
+			// dropped rather than left on a closed appender
+			Assert.assertEquals(0, appender.getPendingCount());
+		}
+	}
+
+	@Test
+	public void batchAppenderTest_CloseAfterFailedTimedFlush() throws Exception {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("primInt", "Primitive Int");
+		File theFile = createFile("batchAppenderTest_CloseAfterFailedTimedFlush");
+		theFile.delete();
+
+		BatchAppendOptions options = new BatchAppendOptions();
+		options.setFlushIntervalMillis(10);
+		options.setMaxAttempts(Integer.MAX_VALUE);
+		BatchAppender<Map<String, Object>> appender = BatchAppender.ofMaps(headerMap, theFile, options);
+		appender.add(Collections.<String, Object> singletonMap("primInt", 1));
+		// the timed flushes fail since the file is missing
+		Thread.sleep(200);
+		// moved into place, so no timed flush sees a half-written file
+		File savedFile = createFile("batchAppenderTest_CloseAfterFailedTimedFlush_saved");
+		Ssio.save(headerMap, new ArrayList<ITRecord>(), savedFile);
+		Assert.assertTrue(savedFile.renameTo(theFile));
+		try {
+			appender.close();
+			Assert.fail();
+		} catch (IllegalStateException e) {
+			// the failure of a timed flush is thrown after the records are
+			// appended
+			Assert.assertEquals(0, appender.getPendingCount());
+		}
+		Sheet sheet = WorkbookFactory.create(new ByteArrayInputStream(FileUtils.readFileToByteArray(theFile)))
+				.getSheetAt(0);
+		Assert.assertEquals(1, sheet.getLastRowNum());
+	}
+
+	@Test
+	public void appendTest_Concurrent() throws Exception {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("primInt", "Primitive Int");
+		File theFile = createFile("appendTest_Concurrent");
+		Ssio.save(headerMap, new ArrayList<ITRecord>(), theFile);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		for (int t = 0; t < 8; t++) {
+			futures.add(executor.submit(() -> Ssio.appendTo(headerMap, createRecords(10), theFile)));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+
+		Sheet sheet = WorkbookFactory.create(new ByteArrayInputStream(FileUtils.readFileToByteArray(theFile)))
+				.getSheetAt(0);
+		Assert.assertEquals(80, sheet.getLastRowNum());
+	}
+
+	@Test
+	public void saveTest_ColumnWidths() throws InvalidFormatException, IOException {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("primInt", "Int");
+		headerMap.put("str", "Str");
+		List<ITRecord> records = createRecords(3);
+		records.get(2).setStr("a much longer string");
+
+		// estimated, in memory and in streaming mode
+		for (boolean streaming : new boolean[] { false, true }) {
+			SaveOptions options = new SaveOptions();
+			options.setStreaming(streaming);
+			ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+			Ssio.save(headerMap, records, outputStream, null, null, options);
+			Sheet sheet = WorkbookFactory.create(new ByteArrayInputStream(outputStream.toByteArray())).getSheetAt(0);
+			Assert.assertEquals(4 * 256, sheet.getColumnWidth(0));
+			Assert.assertEquals(21 * 256, sheet.getColumnWidth(1));
+		}
+
+		// only look at the header and the first record
+		SaveOptions options = new SaveOptions();
+		options.setColumnWidthSampleRows(2);
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		Ssio.save(headerMap, records, outputStream, null, null, options);
+		Sheet sheet = WorkbookFactory.create(new ByteArrayInputStream(outputStream.toByteArray())).getSheetAt(0);
+		Assert.assertEquals(5 * 256, sheet.getColumnWidth(1));
+
+		// turned off
+		options = new SaveOptions();
+		options.setColumnWidthMode(ColumnWidthMode.NONE);
+		outputStream = new ByteArrayOutputStream();
+		Ssio.save(headerMap, records, outputStream, null, null, options);
+		sheet = WorkbookFactory.create(new ByteArrayInputStream(outputStream.toByteArray())).getSheetAt(0);
+		Assert.assertEquals(sheet.getDefaultColumnWidth() * 256, sheet.getColumnWidth(1));
+	}
+
+	@Test
+	public void saveTest_MissingGetterReportedOnce() throws InvalidFormatException, IOException {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("primInt", "Primitive Int");
+		headerMap.put("fake", "Not Real");
+
+		List<ITRecord> records = new ArrayList<ITRecord>(createRecords(3));
+		records.set(1, null);
+		List<DatumError> datumErrors = new ArrayList<DatumError>();
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		Ssio.save(headerMap, records, outputStream, "!!ERROR!!", datumErrors);
+
+		Sheet sheet = WorkbookFactory.create(new ByteArrayInputStream(outputStream.toByteArray())).getSheetAt(0);
+		Assert.assertEquals("!!ERROR!!", sheet.getRow(1).getCell(1).getStringCellValue());
+		Assert.assertEquals("!!ERROR!!", sheet.getRow(3).getCell(1).getStringCellValue());
+		Assert.assertEquals("2", sheet.getRow(3).getCell(0).getStringCellValue());
+
+		// "fake" of the first record, and both columns of the null record
+		Assert.assertEquals(3, datumErrors.size());
+		Assert.assertEquals(0, datumErrors.get(0).getRecordIndex());
+		Assert.assertEquals("fake", datumErrors.get(0).getPropName());
+		Assert.assertEquals(1, datumErrors.get(1).getRecordIndex());
+		Assert.assertEquals("primInt", datumErrors.get(1).getPropName());
+		Assert.assertEquals(1, datumErrors.get(2).getRecordIndex());
+		Assert.assertEquals("fake", datumErrors.get(2).getPropName());
+	}
+
+	@Test
+	public void saveTest_Streaming() throws InvalidFormatException, IOException, InvalidHeaderRowException {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("primInt", "Primitive Int");
+		headerMap.put("fake", "Not Real");
+		headerMap.put("str", "Str");
+
+		File tempDir = createTempDir("saveTest_Streaming");
+		SaveOptions options = new SaveOptions();
+		options.setStreaming(true);
+		options.setRowWindowSize(3);
+		options.setCompressTempFiles(true);
+		options.setTempDir(tempDir);
+
+		List<ITRecord> records = createRecords(10);
+		records.get(1).setStr(" <a & \"b\"> ");
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		List<DatumError> datumErrors = new ArrayList<DatumError>();
+		Ssio.save(headerMap, records, outputStream, "!!ERROR!!", datumErrors, options);
+		byte[] spreadsheet = outputStream.toByteArray();
+		FileUtils.writeByteArrayToFile(createFile("saveTest_Streaming"), spreadsheet);
+
+		// the temp files have been deleted
+		Assert.assertEquals(0, tempDir.listFiles().length);
+
+		Workbook workbook = WorkbookFactory.create(new ByteArrayInputStream(spreadsheet));
+		Sheet sheet = workbook.getSheetAt(0);
+		Assert.assertEquals(10, sheet.getLastRowNum());
+		Assert.assertEquals("Primitive Int", sheet.getRow(0).getCell(0).getStringCellValue());
+		Assert.assertEquals("Str", sheet.getRow(0).getCell(2).getStringCellValue());
+		Assert.assertEquals(IndexedColors.YELLOW.getIndex(), sheet.getRow(0).getCell(0).getCellStyle().getFillForegroundColor());
+		for (int i = 0; i < 10; i++) {
+			Row row = sheet.getRow(i + 1);
+			Assert.assertEquals(String.valueOf(i), row.getCell(0).getStringCellValue());
+			Assert.assertEquals("!!ERROR!!", row.getCell(1).getStringCellValue());
+			Assert.assertEquals(IndexedColors.RED.getIndex(), row.getCell(1).getCellStyle().getFillForegroundColor());
+		}
+		Assert.assertEquals(" <a & \"b\"> ", sheet.getRow(2).getCell(2).getStringCellValue());
+		Assert.assertEquals("str9", sheet.getRow(10).getCell(2).getStringCellValue());
+
+		// the missing getter is only reported once
+		Assert.assertEquals(1, datumErrors.size());
+		Assert.assertEquals(0, datumErrors.get(0).getRecordIndex());
+
+		// and it can be parsed back, in streaming mode too
+		List<ITRecord> parsed = Ssio.parse(reverse(headerMap), new ByteArrayInputStream(spreadsheet), null,
+				ITRecord.class, streamingOptions());
+		Assert.assertEquals(10, parsed.size());
+		Assert.assertEquals(9, parsed.get(9).getPrimInt());
+		Assert.assertEquals("<a & \"b\">", parsed.get(1).getStr());
+	}
+
+	@Test
+	public void saveMapsTest_Streaming_FailedOutput() throws IOException {
+		File tempDir = createTempDir("saveMapsTest_Streaming_FailedOutput");
+		SaveOptions options = new SaveOptions();
+		options.setStreaming(true);
+		options.setRowWindowSize(1);
+		options.setTempDir(tempDir);
+
+		List<Map<String, Object>> records = new ArrayList<Map<String, Object>>();
+		for (int i = 0; i < 5; i++) {
+			Map<String, Object> record = new LinkedHashMap<String, Object>();
+			record.put("firstName", "first" + i);
+			records.add(record);
+		}
+		OutputStream brokenOutputStream = new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				throw new IOException("disk is full");
+			}
+		};
+
+		try {
+			Ssio.saveMaps(HeaderUtils.generateHeaderMapFromPropNames(Arrays.asList("firstName")), records,
+					brokenOutputStream, null, null, options);
+			Assert.fail();
+		} catch (IllegalStateException e) {
+			Assert.assertTrue(e.getMessage().contains("disk is full"));
+		}
+		// the temp files have been deleted even if the saving failed
+		Assert.assertEquals(0, tempDir.listFiles().length);
+	}
+
 	@Test
 	public void saveTest_HeadersOnly() throws InvalidFormatException, IOException {
 
@@ -761,6 +1248,493 @@ public class SsioIntegrationTest {
 		Assert.assertEquals(1, cellErrors.size());
 	}	
 	
+	@Test
+	public void parseTest_File_Excel97() throws InvalidFormatException, InvalidHeaderRowException {
+		File inputFile = createFile("parseTest_File_Excel97");
+		copyInputToFileAndClose(this.getClass().getResourceAsStream("/parse-test-excel97.xls"), inputFile);
+		List<ITRecord> list = Ssio.parse(ITRecord.getReverseHeaderMap(), inputFile, null, ITRecord.class);
+		Assert.assertEquals((short) 1, list.get(0).getPrimShort());
+	}
+
+	@Test
+	public void parseTest_File_Untouched() throws InvalidFormatException, InvalidHeaderRowException, IOException {
+		// the file is opened in random-access mode, read-only
+		for (String resource : new String[] { "/parse-test-data-half-correct.xlsx", "/parse-test-excel97.xls" }) {
+			File inputFile = createFile("parseTest_File_Untouched");
+			copyInputToFileAndClose(this.getClass().getResourceAsStream(resource), inputFile);
+			byte[] before = FileUtils.readFileToByteArray(inputFile);
+			Ssio.parse(ITRecord.getReverseHeaderMap(), inputFile, new ArrayList<CellError>(), ITRecord.class);
+			Assert.assertTrue(Arrays.equals(before, FileUtils.readFileToByteArray(inputFile)));
+			Assert.assertTrue(inputFile.delete());
+		}
+	}
+
+	@Test
+	public void csvTest_SaveAndParse() throws InvalidFormatException, InvalidHeaderRowException,
+			UnsupportedEncodingException {
+		Map<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("primInt", "Primitive Int");
+		headerMap.put("str", "String");
+		headerMap.put("fake", "Not Real");
+		List<ITRecord> records = createRecords(3);
+		records.get(1).setStr("a, \"quoted\"\nvalue");
+
+		for (CsvFormat csvFormat : new CsvFormat[] { CsvFormat.CSV, CsvFormat.TSV }) {
+			SaveOptions saveOptions = new SaveOptions();
+			saveOptions.setCsvFormat(csvFormat);
+			List<DatumError> datumErrors = new ArrayList<DatumError>();
+			ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+			Ssio.save(headerMap, records, outputStream, "!!", datumErrors, saveOptions);
+			Assert.assertEquals(1, datumErrors.size());
+			Assert.assertEquals("fake", datumErrors.get(0).getPropName());
+			String text = new String(outputStream.toByteArray(), "UTF-8");
+			char d = csvFormat.getDelimiter();
+			Assert.assertTrue(text.startsWith("Primitive Int" + d + "String" + d + "Not Real\r\n0" + d + "str0" + d
+					+ "!!\r\n"));
+
+			ParseOptions parseOptions = new ParseOptions();
+			parseOptions.setCsvFormat(csvFormat);
+			List<CellError> cellErrors = new ArrayList<CellError>();
+			List<ITRecord> parsed = Ssio.parse(ITRecord.getReverseHeaderMap(),
+					new ByteArrayInputStream(outputStream.toByteArray()), cellErrors, ITRecord.class, parseOptions);
+			Assert.assertTrue(cellErrors.isEmpty());
+			Assert.assertEquals(3, parsed.size());
+			Assert.assertEquals(2, parsed.get(2).getPrimInt());
+			Assert.assertEquals("a, \"quoted\"\nvalue", parsed.get(1).getStr());
+		}
+	}
+
+	@Test
+	public void csvTest_ParseWithCellErrors() throws InvalidFormatException, InvalidHeaderRowException {
+		String text = "Primitive Int,String,Unknown\n1,a,x\nnot a number,b,y\n";
+		ParseOptions options = new ParseOptions();
+		options.setCsvFormat(CsvFormat.CSV);
+		List<CellError> cellErrors = new ArrayList<CellError>();
+		List<Map<String, String>> maps = Ssio.parseToMaps(ITRecord.getReverseHeaderMap(),
+				new ByteArrayInputStream(text.getBytes()), cellErrors, options);
+		Assert.assertEquals(2, maps.size());
+		Assert.assertEquals("not a number", maps.get(1).get("primInt"));
+
+		List<ITRecord> records = Ssio.parse(ITRecord.getReverseHeaderMap(), new ByteArrayInputStream(text.getBytes()),
+				cellErrors, ITRecord.class, options);
+		Assert.assertEquals(2, records.size());
+		Assert.assertEquals(1, cellErrors.size());
+		Assert.assertEquals(2, cellErrors.get(0).getRowIndex());
+		Assert.assertEquals("primInt", cellErrors.get(0).getPropName());
+	}
+
+	@Test
+	public void csvTest_Append() throws InvalidFormatException, InvalidHeaderRowException, IOException {
+		SaveOptions saveOptions = new SaveOptions();
+		saveOptions.setCsvFormat(CsvFormat.CSV);
+		File file = createFile("csvTest_Append");
+		Ssio.save(ITRecord.getHeaderMap(), createRecords(2), file, null, null, saveOptions);
+		Ssio.appendTo(ITRecord.getHeaderMap(), createRecords(3), file, null, null, saveOptions);
+
+		ParseOptions parseOptions = new ParseOptions();
+		parseOptions.setCsvFormat(CsvFormat.CSV);
+		List<ITRecord> records = Ssio.parse(ITRecord.getReverseHeaderMap(), file, null, ITRecord.class,
+				parseOptions);
+		Assert.assertEquals(5, records.size());
+		Assert.assertEquals("str2", records.get(4).getStr());
+
+		// a charset with a byte order mark, or with more than one byte for a
+		// line end, cannot be appended in place
+		saveOptions.setCsvFormat(new CsvFormat(',', Charset.forName("UTF-16")));
+		File utf16File = createFile("csvTest_Append_Utf16");
+		Ssio.save(ITRecord.getHeaderMap(), createRecords(2), utf16File, null, null, saveOptions);
+		try {
+			Ssio.appendTo(ITRecord.getHeaderMap(), createRecords(3), utf16File, null, null, saveOptions);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(e.getMessage().contains("UTF-16"));
+		}
+	}
+
+	@Test
+	public void readHeadersTest() throws InvalidFormatException, IOException {
+		File inputFile = createFile("readHeadersTest");
+		Ssio.save(ITRecord.getHeaderMap(), createRecords(1000), inputFile);
+		List<String> expected = new ArrayList<String>(ITRecord.getHeaderMap().values());
+
+		Assert.assertEquals(expected, Ssio.readHeaders(inputFile));
+		Assert.assertEquals(expected, Ssio.readHeaders(new ByteArrayInputStream(FileUtils.readFileToByteArray(inputFile))));
+
+		File xlsFile = createFile("readHeadersTest_Excel97");
+		copyInputToFileAndClose(this.getClass().getResourceAsStream("/parse-test-excel97.xls"), xlsFile);
+		Assert.assertTrue(Ssio.readHeaders(xlsFile).contains("Primitive Short"));
+	}
+
+	@Test
+	public void readHeadersTest_NoHeaderRow() throws InvalidFormatException, IOException {
+		Workbook workbook = new XSSFWorkbook();
+		workbook.createSheet().createRow(1).createCell(0).setCellValue("not a header");
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		workbook.write(outputStream);
+		Assert.assertTrue(Ssio.readHeaders(new ByteArrayInputStream(outputStream.toByteArray())).isEmpty());
+	}
+
+	@Test
+	public void readSheetDimensionTest() throws InvalidFormatException, IOException {
+		int columnCount = ITRecord.getHeaderMap().size();
+		SaveOptions streaming = new SaveOptions();
+		streaming.setStreaming(true);
+		for (SaveOptions options : new SaveOptions[] { new SaveOptions(), streaming }) {
+			File inputFile = createFile("readSheetDimensionTest");
+			Ssio.save(ITRecord.getHeaderMap(), createRecords(100), inputFile, null, null, options);
+
+			SheetDimension dimension = Ssio.readSheetDimension(inputFile);
+			// POI's XSSF writes a dimension of "A1" which is not trusted; the
+			// streaming writer writes the real one
+			Assert.assertEquals(options.isStreaming(), dimension.isFromDimensionInfo());
+			Assert.assertEquals(101, dimension.getRowCount());
+			Assert.assertEquals(0, dimension.getFirstRowIndex());
+			Assert.assertEquals(100, dimension.getLastRowIndex());
+			Assert.assertEquals(0, dimension.getFirstColumnIndex());
+			Assert.assertEquals(columnCount - 1, dimension.getLastColumnIndex());
+
+			dimension = Ssio.readSheetDimension(new ByteArrayInputStream(FileUtils.readFileToByteArray(inputFile)));
+			Assert.assertEquals(101, dimension.getRowCount());
+		}
+	}
+
+	@Test
+	public void readSheetDimensionTest_SparseRows() throws InvalidFormatException, IOException {
+		for (Workbook workbook : new Workbook[] { new XSSFWorkbook(), new HSSFWorkbook() }) {
+			Sheet sheet = workbook.createSheet();
+			sheet.createRow(0).createCell(1).setCellValue("header");
+			sheet.createRow(5).createCell(3).setCellValue(1);
+			ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+			workbook.write(outputStream);
+
+			SheetDimension dimension = Ssio.readSheetDimension(new ByteArrayInputStream(outputStream.toByteArray()));
+			Assert.assertFalse(dimension.isFromDimensionInfo());
+			Assert.assertEquals(2, dimension.getRowCount());
+			Assert.assertEquals(5, dimension.getLastRowIndex());
+			Assert.assertEquals(1, dimension.getFirstColumnIndex());
+			Assert.assertEquals(3, dimension.getLastColumnIndex());
+		}
+	}
+
+	@Test
+	public void readSheetDimensionTest_EmptySheet() throws InvalidFormatException, IOException {
+		Workbook workbook = new XSSFWorkbook();
+		workbook.createSheet();
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		workbook.write(outputStream);
+
+		SheetDimension dimension = Ssio.readSheetDimension(new ByteArrayInputStream(outputStream.toByteArray()));
+		Assert.assertEquals(0, dimension.getRowCount());
+		Assert.assertEquals(-1, dimension.getLastRowIndex());
+		Assert.assertEquals(-1, dimension.getLastColumnIndex());
+	}
+
+	@Test
+	public void validateHeadersTest() throws InvalidFormatException, InvalidHeaderRowException, IOException {
+		File inputFile = createFile("validateHeadersTest");
+		Ssio.save(ITRecord.getHeaderMap(), createRecords(10), inputFile);
+		Ssio.validateHeaders(ITRecord.getReverseHeaderMap(), inputFile);
+		Ssio.validateHeaders(ITRecord.getReverseHeaderMap(), new ByteArrayInputStream(FileUtils.readFileToByteArray(inputFile)));
+
+		Map<String, String> reverseHeaderMap = new HashMap<String, String>();
+		reverseHeaderMap.put("No Such Header", "str");
+		try {
+			Ssio.validateHeaders(reverseHeaderMap, inputFile);
+			Assert.fail();
+		} catch (InvalidHeaderRowException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void parseTest_RowRange() throws InvalidFormatException, InvalidHeaderRowException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		Ssio.save(ITRecord.getHeaderMap(), createRecords(100), outputStream);
+
+		for (ParseOptions options : new ParseOptions[] { new ParseOptions(), streamingOptions() }) {
+			options.setStartRow(11);
+			options.setMaxRows(3);
+			List<ITRecord> records = Ssio.parse(ITRecord.getReverseHeaderMap(),
+					new ByteArrayInputStream(outputStream.toByteArray()), null, ITRecord.class, options);
+			Assert.assertEquals(3, records.size());
+			Assert.assertEquals(10, records.get(0).getPrimInt());
+			Assert.assertEquals(12, records.get(2).getPrimInt());
+
+			// only the header
+			options.setStartRow(1);
+			options.setMaxRows(0);
+			records = Ssio.parse(ITRecord.getReverseHeaderMap(),
+					new ByteArrayInputStream(outputStream.toByteArray()), null, ITRecord.class, options);
+			Assert.assertTrue(records.isEmpty());
+		}
+	}
+
+	@Test
+	public void parseTest_StopCondition() throws InvalidFormatException, InvalidHeaderRowException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		Ssio.save(ITRecord.getHeaderMap(), createRecords(100), outputStream);
+
+		for (ParseOptions options : new ParseOptions[] { new ParseOptions(), streamingOptions() }) {
+			options.setStopCondition(row -> "str5".equals(row.getValue("str")));
+			List<Map<String, String>> records = Ssio.parseToMaps(ITRecord.getReverseHeaderMap(),
+					new ByteArrayInputStream(outputStream.toByteArray()), null, options);
+			Assert.assertEquals(5, records.size());
+			Assert.assertEquals("str4", records.get(4).get("str"));
+
+			List<ITRecord> beans = Ssio.parse(ITRecord.getReverseHeaderMap(),
+					new ByteArrayInputStream(outputStream.toByteArray()), null, ITRecord.class, options);
+			Assert.assertEquals(5, beans.size());
+		}
+	}
+
+	@Test
+	public void parseTest_RowFilter() throws InvalidFormatException, InvalidHeaderRowException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		Ssio.save(ITRecord.getHeaderMap(), createRecords(100), outputStream);
+
+		for (ParseOptions options : new ParseOptions[] { new ParseOptions(), streamingOptions() }) {
+			options.setRowFilter(row -> ((String) row.getValue("str")).endsWith("5"));
+			List<ITRecord> records = Ssio.parse(ITRecord.getReverseHeaderMap(),
+					new ByteArrayInputStream(outputStream.toByteArray()), null, ITRecord.class, options);
+			Assert.assertEquals(10, records.size());
+			Assert.assertEquals(5, records.get(0).getPrimInt());
+			Assert.assertEquals(95, records.get(9).getPrimInt());
+
+			// by header text, and only the accepted rows are counted
+			options.setRowFilter(row -> "str7".equals(row.getValueByHeader("String"))
+					|| "str9".equals(row.getValueByHeader("String")));
+			options.setMaxRows(1);
+			List<Map<String, String>> maps = Ssio.parseToMaps(ITRecord.getReverseHeaderMap(),
+					new ByteArrayInputStream(outputStream.toByteArray()), null, options);
+			Assert.assertEquals(1, maps.size());
+			Assert.assertEquals("str7", maps.get(0).get("str"));
+		}
+	}
+
+	@Test
+	public void parseTest_RowFilter_NoCellErrorsForRejectedRows() throws InvalidFormatException,
+			InvalidHeaderRowException, IOException {
+		Workbook workbook = new XSSFWorkbook();
+		Sheet sheet = workbook.createSheet();
+		Row header = sheet.createRow(0);
+		header.createCell(0).setCellValue("String");
+		header.createCell(1).setCellValue("Primitive Int");
+		String[][] rows = { { "ACTIVE", "1" }, { "DELETED", "not a number" }, { "ACTIVE", "3" } };
+		for (int i = 0; i < rows.length; i++) {
+			Row row = sheet.createRow(i + 1);
+			row.createCell(0).setCellValue(rows[i][0]);
+			row.createCell(1).setCellValue(rows[i][1]);
+		}
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		workbook.write(outputStream);
+
+		ParseOptions options = new ParseOptions();
+		options.setRowFilter(row -> "ACTIVE".equals(row.getValue("str")));
+		List<CellError> cellErrors = new ArrayList<CellError>();
+		List<ITRecord> records = Ssio.parse(ITRecord.getReverseHeaderMap(),
+				new ByteArrayInputStream(outputStream.toByteArray()), cellErrors, ITRecord.class, options);
+		Assert.assertEquals(2, records.size());
+		Assert.assertEquals(3, records.get(1).getPrimInt());
+		Assert.assertTrue(cellErrors.isEmpty());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void parseTest_RowFilter_UnknownProp() throws InvalidFormatException, InvalidHeaderRowException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		Ssio.save(ITRecord.getHeaderMap(), createRecords(1), outputStream);
+		ParseOptions options = new ParseOptions();
+		options.setRowFilter(row -> "x".equals(row.getValue("noSuchProp")));
+		Ssio.parse(ITRecord.getReverseHeaderMap(), new ByteArrayInputStream(outputStream.toByteArray()), null,
+				ITRecord.class, options);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void parseTest_StartRowOfHeader() throws InvalidFormatException, InvalidHeaderRowException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		Ssio.save(ITRecord.getHeaderMap(), createRecords(1), outputStream);
+		ParseOptions options = new ParseOptions();
+		options.setStartRow(0);
+		Ssio.parse(ITRecord.getReverseHeaderMap(), new ByteArrayInputStream(outputStream.toByteArray()), null,
+				ITRecord.class, options);
+	}
+
+	@Test
+	public void parseTest_WideSheet() throws InvalidFormatException, InvalidHeaderRowException, IOException {
+		Workbook workbook = new XSSFWorkbook();
+		Sheet sheet = workbook.createSheet();
+		Row header = sheet.createRow(0);
+		for (int columnIndex = 0; columnIndex < 300; columnIndex++) {
+			header.createCell(columnIndex).setCellValue("unmapped" + columnIndex);
+		}
+		header.createCell(2).setCellValue("String");
+		header.createCell(250).setCellValue("Primitive Int");
+		Row row1 = sheet.createRow(1);
+		row1.createCell(2).setCellValue("abc");
+		row1.createCell(250).setCellValue(123);
+		row1.createCell(299).setCellValue("ignored");
+		// shorter than the last mapped column
+		Row row2 = sheet.createRow(2);
+		row2.createCell(2).setCellValue("def");
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		workbook.write(outputStream);
+
+		for (ParseOptions options : new ParseOptions[] { new ParseOptions(), streamingOptions() }) {
+			List<CellError> cellErrors = new ArrayList<CellError>();
+			List<ITRecord> records = Ssio.parse(ITRecord.getReverseHeaderMap(),
+					new ByteArrayInputStream(outputStream.toByteArray()), cellErrors, ITRecord.class, options);
+			Assert.assertEquals(2, records.size());
+			Assert.assertEquals("abc", records.get(0).getStr());
+			Assert.assertEquals(123, records.get(0).getPrimInt());
+			Assert.assertEquals("def", records.get(1).getStr());
+			Assert.assertEquals(0, records.get(1).getPrimInt());
+			Assert.assertTrue(cellErrors.isEmpty());
+
+			List<Map<String, String>> maps = Ssio.parseToMaps(ITRecord.getReverseHeaderMap(),
+					new ByteArrayInputStream(outputStream.toByteArray()), null, options);
+			Assert.assertEquals(2, maps.get(0).size());
+			Assert.assertEquals("123.0", maps.get(0).get("primInt"));
+			Assert.assertEquals("def", maps.get(1).get("str"));
+		}
+	}
+
+	@Test
+	public void streamingReaderTest_ColumnProjection() throws InvalidFormatException, IOException {
+		Workbook workbook = new XSSFWorkbook();
+		Sheet sheet = workbook.createSheet();
+		for (int rowIndex = 0; rowIndex < 2; rowIndex++) {
+			Row row = sheet.createRow(rowIndex);
+			for (int columnIndex = 0; columnIndex < 5; columnIndex++) {
+				row.createCell(columnIndex).setCellValue("c" + rowIndex + columnIndex);
+			}
+		}
+		File file = createFile("streamingReaderTest_ColumnProjection");
+		try (FileOutputStream out = new FileOutputStream(file)) {
+			workbook.write(out);
+		}
+
+		SepXlsxStreamingReader reader = SepXlsxStreamingReader.open(file);
+		try {
+			Assert.assertEquals("c00", reader.nextRow().getCellValue(0));
+			BitSet columnIndexes = new BitSet();
+			columnIndexes.set(1);
+			columnIndexes.set(3);
+			reader.setColumnProjection(columnIndexes);
+
+			SepSheetRow row = reader.nextRow();
+			Assert.assertEquals(5, row.getLastCellNum());
+			Assert.assertEquals("c11", row.getCellValue(1));
+			Assert.assertEquals("c13", row.getCellValue(3));
+			Assert.assertNull(row.getCellValue(0));
+			Assert.assertEquals(SepCellType.BLANK, row.getCellType(4));
+			Assert.assertNull(reader.nextRow());
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test
+	public void parseToColumnsTest() throws InvalidFormatException, InvalidHeaderRowException, IOException {
+		Workbook workbook = new XSSFWorkbook();
+		Sheet sheet = workbook.createSheet();
+		Row header = sheet.createRow(0);
+		header.createCell(0).setCellValue("Temperature");
+		header.createCell(1).setCellValue("Count");
+		header.createCell(2).setCellValue("Valid");
+		header.createCell(3).setCellValue("Sensor");
+		header.createCell(4).setCellValue("Unmapped");
+		for (int i = 1; i <= 3; i++) {
+			Row row = sheet.createRow(i);
+			row.createCell(0).setCellValue(i + 0.5);
+			row.createCell(1).setCellValue(i * 10);
+			row.createCell(2).setCellValue(i % 2 == 0);
+			row.createCell(3).setCellValue("s" + (i % 2));
+			row.createCell(4).setCellValue("whatever");
+		}
+		// a blank cell and a wrong cell
+		sheet.createRow(5).createCell(1).setCellValue("abc");
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		workbook.write(outputStream);
+
+		Map<String, String> reverseHeaderMap = new LinkedHashMap<String, String>();
+		reverseHeaderMap.put("Temperature", "temperature");
+		reverseHeaderMap.put("Count", "count");
+		reverseHeaderMap.put("Valid", "valid");
+		reverseHeaderMap.put("Sensor", "sensor");
+		Map<String, Class<?>> columnTypes = new HashMap<String, Class<?>>();
+		columnTypes.put("temperature", double.class);
+		columnTypes.put("count", int.class);
+		columnTypes.put("valid", boolean.class);
+
+		for (ParseOptions options : new ParseOptions[] { new ParseOptions(), streamingOptions() }) {
+			List<CellError> cellErrors = new ArrayList<CellError>();
+			SheetColumns columns = Ssio.parseToColumns(reverseHeaderMap,
+					new ByteArrayInputStream(outputStream.toByteArray()), columnTypes, cellErrors, options);
+
+			Assert.assertEquals(4, columns.getRowCount());
+			Assert.assertTrue(Arrays.equals(new int[] { 1, 2, 3, 5 }, columns.getRowIndexes()));
+			Assert.assertEquals(Arrays.asList("temperature", "count", "valid", "sensor"),
+					new ArrayList<String>(columns.getPropNames()));
+			Assert.assertTrue(Arrays.equals(new double[] { 1.5, 2.5, 3.5, 0 }, columns.getDoubles("temperature")));
+			Assert.assertTrue(Arrays.equals(new int[] { 10, 20, 30, 0 }, columns.getInts("count")));
+			Assert.assertTrue(Arrays.equals(new boolean[] { false, true, false, false },
+					columns.getBooleans("valid")));
+			Assert.assertTrue(Arrays.equals(new String[] { "s1", "s0", "s1", null }, columns.getStrings("sensor")));
+			Assert.assertEquals(2, columns.getDictionary("sensor").size());
+
+			Assert.assertTrue(columns.isNull("temperature", 3));
+			Assert.assertTrue(columns.isNull("count", 3));
+			Assert.assertFalse(columns.isNull("count", 2));
+
+			Assert.assertEquals(1, cellErrors.size());
+			Assert.assertEquals(5, cellErrors.get(0).getRowIndex());
+			Assert.assertEquals("count", cellErrors.get(0).getPropName());
+		}
+	}
+
+	@Test
+	public void parseTest_NumericCellsToNumbers() throws InvalidFormatException, InvalidHeaderRowException,
+			IOException {
+		Workbook workbook = new XSSFWorkbook();
+		Sheet sheet = workbook.createSheet();
+		Row header = sheet.createRow(0);
+		header.createCell(0).setCellValue("Primitive Int");
+		header.createCell(1).setCellValue("Object Long");
+		header.createCell(2).setCellValue("Big Integer");
+		header.createCell(3).setCellValue("Big Decimal");
+		header.createCell(4).setCellValue("Primitive Short");
+		Row row = sheet.createRow(1);
+		// their string forms are in scientific notation
+		row.createCell(0).setCellValue(12345678);
+		row.createCell(1).setCellValue(1e10);
+		row.createCell(2).setCellValue(1e15);
+		row.createCell(3).setCellValue(0.1);
+		// not whole
+		row.createCell(4).setCellValue(1.5);
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		workbook.write(outputStream);
+
+		for (ParseOptions options : new ParseOptions[] { new ParseOptions(), streamingOptions() }) {
+			List<CellError> cellErrors = new ArrayList<CellError>();
+			List<ITRecord> records = Ssio.parse(ITRecord.getReverseHeaderMap(),
+					new ByteArrayInputStream(outputStream.toByteArray()), cellErrors, ITRecord.class, options);
+			ITRecord record = records.get(0);
+			Assert.assertEquals(12345678, record.getPrimInt());
+			Assert.assertEquals(Long.valueOf(10000000000L), record.getObjLong());
+			Assert.assertEquals(new BigInteger("1000000000000000"), record.getBigInteger());
+			Assert.assertEquals(new BigDecimal("0.1"), record.getBigDecimal());
+			Assert.assertEquals(1, cellErrors.size());
+			Assert.assertEquals("primShort", cellErrors.get(0).getPropName());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void parseToColumnsTest_UnsupportedType() throws InvalidFormatException, InvalidHeaderRowException {
+		Map<String, Class<?>> columnTypes = new HashMap<String, Class<?>>();
+		columnTypes.put("primInt", Integer.class);
+		Ssio.parseToColumns(ITRecord.getReverseHeaderMap(), new ByteArrayInputStream(new byte[0]), columnTypes,
+				null, null);
+	}
+
 	@Test
 	public void parseTest_IgnoringErrors() throws InvalidFormatException, InvalidHeaderRowException {
 		ByteArrayInputStream in = toByteArrayInputStreamAndClose(this.getClass().getResourceAsStream("/parse-test-data-half-correct.xlsx"));		 
@@ -890,6 +1864,627 @@ public class SsioIntegrationTest {
 
 	}
 
+	@Test
+	public void parseTest_Streaming_FreeTypeCells() throws InvalidFormatException, InvalidHeaderRowException {
+		ByteArrayInputStream in = toByteArrayInputStreamAndClose(this.getClass().getResourceAsStream("/parse-test-all-free-type-input.xlsx"));
+		List<CellError> cellErrors = new ArrayList<CellError>();
+		List<ITRecord> records = Ssio.parse(ITRecord.getReverseHeaderMap(), in, cellErrors, ITRecord.class, streamingOptions());
+
+		// assertions
+		ITRecord record = records.get(0);
+		Assert.assertEquals(1, records.size());
+		Assert.assertEquals(0, cellErrors.size());
+
+		Assert.assertEquals(12, record.getPrimShort());
+		Assert.assertEquals(2323, record.getPrimInt());
+		Assert.assertEquals(1213l, record.getPrimLong());
+		Assert.assertEquals(342, (int) record.getPrimFloat());
+		Assert.assertEquals(true, record.isPrimBoolean());
+		Assert.assertEquals(new Integer(234), record.getObjInt());
+		Assert.assertEquals(new Boolean(false), record.getObjBoolean());
+		Assert.assertEquals(new BigInteger("123456789123456000"), record.getBigInteger());
+		Assert.assertEquals("abc", record.getStr());
+		Assert.assertEquals("2014-11-29 16:18:47", record.getDateStr());
+	}
+
+	@Test
+	public void parseSheetsTest() throws InvalidFormatException, IOException {
+		for (Workbook workbook : new Workbook[] { new XSSFWorkbook(), new HSSFWorkbook() }) {
+			writeSheet(workbook, "North", "Primitive Int", "Str", 3);
+			writeSheet(workbook, "South", "Int", "String", 5);
+			writeSheet(workbook, "Summary", "Total", "Remark", 1);
+			ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+			workbook.write(outputStream);
+			byte[] spreadsheet = outputStream.toByteArray();
+
+			Map<String, String> reverseHeaderMap = new HashMap<String, String>();
+			reverseHeaderMap.put("Primitive Int", "primInt");
+			reverseHeaderMap.put("Str", "str");
+			Map<String, String> southHeaderMap = new HashMap<String, String>();
+			southHeaderMap.put("Int", "primInt");
+			southHeaderMap.put("String", "str");
+			SheetParseOptions options = new SheetParseOptions();
+			options.setReverseHeaderMapsBySheetName(new HashMap<String, Map<String, String>>());
+			options.getReverseHeaderMapsBySheetName().put("South", southHeaderMap);
+
+			// all the sheets
+			List<SheetParseResult<ITRecord>> results = Ssio.parseSheets(reverseHeaderMap, new ByteArrayInputStream(
+					spreadsheet), ITRecord.class, options);
+			Assert.assertEquals(3, results.size());
+			Assert.assertEquals("North", results.get(0).getSheetName());
+			Assert.assertEquals(3, results.get(0).getRecords().size());
+			Assert.assertEquals(2, results.get(0).getRecords().get(2).getPrimInt());
+			Assert.assertEquals("South", results.get(1).getSheetName());
+			Assert.assertEquals(1, results.get(1).getSheetIndex());
+			Assert.assertEquals(5, results.get(1).getRecords().size());
+			Assert.assertEquals("South4", results.get(1).getRecords().get(4).getStr());
+			Assert.assertEquals(0, results.get(1).getCellErrors().size());
+			Assert.assertTrue(results.get(2).isHeaderRowInvalid());
+			Assert.assertEquals(0, results.get(2).getRecords().size());
+
+			// chosen ones, from a file
+			File file = createFile("parseSheetsTest");
+			FileUtils.writeByteArrayToFile(file, spreadsheet);
+			options.setSheetNames(Arrays.asList("South"));
+			options.setSheetIndexes(Arrays.asList(0));
+			List<SheetParseResult<Map<String, String>>> mapResults = Ssio.parseSheetsToMaps(reverseHeaderMap, file,
+					options);
+			Assert.assertEquals(2, mapResults.size());
+			Assert.assertEquals("North", mapResults.get(0).getSheetName());
+			Assert.assertEquals("South", mapResults.get(1).getSheetName());
+			Assert.assertEquals("South0", mapResults.get(1).getRecords().get(0).get("str"));
+
+			options.setSheetNames(Arrays.asList("West"));
+			try {
+				Ssio.parseSheets(reverseHeaderMap, file, ITRecord.class, options);
+				Assert.fail();
+			} catch (IllegalArgumentException e) {
+				Assert.assertTrue(e.getMessage().contains("West"));
+			}
+		}
+	}
+
+	@Test
+	public void parseTest_Parallel() throws InvalidFormatException, InvalidHeaderRowException {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("primInt", "Primitive Int");
+		headerMap.put("str", "Str");
+		List<Map<String, Object>> maps = new ArrayList<Map<String, Object>>();
+		for (int i = 0; i < 2500; i++) {
+			Map<String, Object> map = new HashMap<String, Object>();
+			// every 7th row has a bad int
+			map.put("primInt", i % 7 == 0 ? "bad" + i : String.valueOf(i));
+			map.put("str", "str" + i);
+			maps.add(map);
+		}
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		Ssio.saveMaps(headerMap, maps, outputStream);
+		byte[] spreadsheet = outputStream.toByteArray();
+
+		List<CellError> sequentialErrors = new ArrayList<CellError>();
+		List<ITRecord> sequential = Ssio.parse(reverse(headerMap), new ByteArrayInputStream(spreadsheet),
+				sequentialErrors, ITRecord.class);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			for (Executor theExecutor : new Executor[] { null, executor }) {
+				ParseOptions options = new ParseOptions();
+				options.setParallel(true);
+				options.setParallelBatchSize(100);
+				options.setExecutor(theExecutor);
+				List<CellError> cellErrors = new ArrayList<CellError>();
+				List<ITRecord> records = Ssio.parse(reverse(headerMap), new ByteArrayInputStream(spreadsheet),
+						cellErrors, ITRecord.class, options);
+
+				Assert.assertEquals(2500, records.size());
+				for (int i = 0; i < 2500; i++) {
+					Assert.assertEquals("str" + i, records.get(i).getStr());
+					Assert.assertEquals(sequential.get(i).getPrimInt(), records.get(i).getPrimInt());
+				}
+				Assert.assertEquals(sequentialErrors.size(), cellErrors.size());
+				for (int i = 0; i < cellErrors.size(); i++) {
+					Assert.assertEquals(i * 7 + 1, cellErrors.get(i).getRowIndex());
+					Assert.assertEquals("primInt", cellErrors.get(i).getPropName());
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void parseAsyncTest() throws InterruptedException, ExecutionException, IOException {
+		File file = createFile("parseAsyncTest");
+		Ssio.save(ITRecord.getHeaderMap(), createRecords(100), file);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			List<CellError> cellErrors = new ArrayList<CellError>();
+			CompletableFuture<List<ITRecord>> future = Ssio.parseAsync(ITRecord.getReverseHeaderMap(), file,
+					cellErrors, ITRecord.class, streamingOptions(), executor);
+			Assert.assertEquals(100, future.get().size());
+			Assert.assertEquals("str99", future.get().get(99).getStr());
+			Assert.assertEquals(0, cellErrors.size());
+
+			// the default executor
+			future = Ssio.parseAsync(ITRecord.getReverseHeaderMap(),
+					new ByteArrayInputStream(FileUtils.readFileToByteArray(file)), null, ITRecord.class, null, null);
+			Assert.assertEquals(100, future.get().size());
+
+			// errors are reported through the future
+			Map<String, String> reverseHeaderMap = new HashMap<String, String>();
+			reverseHeaderMap.put("No Such Header", "str");
+			try {
+				Ssio.parseAsync(reverseHeaderMap, file, null, ITRecord.class, null, executor).get();
+				Assert.fail();
+			} catch (ExecutionException e) {
+				Assert.assertTrue(e.getCause() instanceof InvalidHeaderRowException);
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void parseAsyncTest_Cancel() throws InterruptedException {
+		File file = createFile("parseAsyncTest_Cancel");
+		Ssio.save(ITRecord.getHeaderMap(), createRecords(100), file);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		AtomicReference<CompletableFuture<List<ITRecord>>> futureRef = new AtomicReference<CompletableFuture<List<ITRecord>>>();
+		AtomicInteger rowCount = new AtomicInteger();
+		CountDownLatch started = new CountDownLatch(1);
+		ParseOptions options = new ParseOptions();
+		options.setStreaming(true);
+		options.setRowFilter(row -> {
+			if (rowCount.incrementAndGet() == 10) {
+				futureRef.get().cancel(false);
+			}
+			return true;
+		});
+		try {
+			// the task waits until the future is known
+			executor.execute(() -> {
+				try {
+					started.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			futureRef.set(Ssio.parseAsync(ITRecord.getReverseHeaderMap(), file, null, ITRecord.class, options,
+					executor));
+			started.countDown();
+		} finally {
+			executor.shutdown();
+		}
+		Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		Assert.assertTrue(futureRef.get().isCancelled());
+		Assert.assertEquals(10, rowCount.get());
+		// the file has been closed
+		Assert.assertTrue(file.delete());
+	}
+
+	@Test
+	public void saveAsyncTest() throws InterruptedException, ExecutionException, InvalidFormatException,
+			InvalidHeaderRowException {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+			List<DatumError> datumErrors = new ArrayList<DatumError>();
+			Ssio.saveAsync(ITRecord.getHeaderMap(), createRecords(100), outputStream, null, datumErrors, null,
+					executor).get();
+			Assert.assertEquals(0, datumErrors.size());
+			List<ITRecord> records = Ssio.parse(ITRecord.getReverseHeaderMap(),
+					new ByteArrayInputStream(outputStream.toByteArray()), null, ITRecord.class);
+			Assert.assertEquals(100, records.size());
+
+			try {
+				Ssio.saveAsync(null, createRecords(1), new ByteArrayOutputStream(), null, null, null, executor).get();
+				Assert.fail();
+			} catch (ExecutionException e) {
+				Assert.assertTrue(e.getCause() instanceof IllegalArgumentException);
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void saveAsyncTest_Cancel() throws InterruptedException {
+		File file = createFile("saveAsyncTest_Cancel");
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		AtomicReference<CompletableFuture<Void>> futureRef = new AtomicReference<CompletableFuture<Void>>();
+		AtomicInteger recordCount = new AtomicInteger();
+		CountDownLatch started = new CountDownLatch(1);
+		List<ITRecord> source = createRecords(100);
+		List<ITRecord> records = new AbstractList<ITRecord>() {
+			@Override
+			public ITRecord get(int index) {
+				if (recordCount.incrementAndGet() == 10) {
+					futureRef.get().cancel(false);
+				}
+				return source.get(index);
+			}
+
+			@Override
+			public int size() {
+				return source.size();
+			}
+		};
+		try {
+			executor.execute(() -> {
+				try {
+					started.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			futureRef.set(Ssio.saveAsync(ITRecord.getHeaderMap(), records, file, null, null, null, executor));
+			started.countDown();
+		} finally {
+			executor.shutdown();
+		}
+		Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		Assert.assertTrue(futureRef.get().isCancelled());
+		Assert.assertEquals(10, recordCount.get());
+		// the half-written file is deleted
+		Assert.assertFalse(file.exists());
+
+		// cancelled before it starts
+		File another = createFile("saveAsyncTest_Cancel");
+		CompletableFuture<Void> future = Ssio.saveAsync(ITRecord.getHeaderMap(), source, another, null, null, null,
+				command -> {
+				});
+		future.cancel(false);
+		Assert.assertFalse(another.exists());
+	}
+
+	@Test
+	public void mapsAsyncTest() throws InterruptedException, ExecutionException, IOException {
+		Map<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("name", "Name");
+		headerMap.put("age", "Age");
+		Map<String, String> reverseHeaderMap = new LinkedHashMap<String, String>();
+		reverseHeaderMap.put("Name", "name");
+		reverseHeaderMap.put("Age", "age");
+		List<Map<String, Object>> records = new ArrayList<Map<String, Object>>();
+		for (int i = 0; i < 100; i++) {
+			Map<String, Object> record = new LinkedHashMap<String, Object>();
+			record.put("name", "name" + i);
+			record.put("age", i);
+			records.add(record);
+		}
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			File file = createFile("mapsAsyncTest");
+			List<DatumError> datumErrors = new ArrayList<DatumError>();
+			Ssio.saveMapsAsync(headerMap, records, file, null, datumErrors, null, executor).get();
+			Assert.assertEquals(0, datumErrors.size());
+
+			List<CellError> cellErrors = new ArrayList<CellError>();
+			List<Map<String, String>> parsed = Ssio.parseToMapsAsync(reverseHeaderMap, file, cellErrors,
+					streamingOptions(), executor).get();
+			Assert.assertEquals(100, parsed.size());
+			Assert.assertEquals("name99", parsed.get(99).get("name"));
+			Assert.assertEquals("99", parsed.get(99).get("age"));
+			Assert.assertEquals(0, cellErrors.size());
+
+			// the stream twins, on the default executor
+			ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+			Ssio.saveMapsAsync(headerMap, records, outputStream, null, null, null, null).get();
+			parsed = Ssio.parseToMapsAsync(reverseHeaderMap, new ByteArrayInputStream(outputStream.toByteArray()),
+					null, null, null).get();
+			Assert.assertEquals(100, parsed.size());
+
+			// errors are reported through the future
+			try {
+				Ssio.saveMapsAsync(null, records, new ByteArrayOutputStream(), null, null, null, executor).get();
+				Assert.fail();
+			} catch (ExecutionException e) {
+				Assert.assertTrue(e.getCause() instanceof IllegalArgumentException);
+			}
+			Map<String, String> noSuchHeader = new HashMap<String, String>();
+			noSuchHeader.put("No Such Header", "name");
+			try {
+				Ssio.parseToMapsAsync(noSuchHeader, file, null, null, executor).get();
+				Assert.fail();
+			} catch (ExecutionException e) {
+				Assert.assertTrue(e.getCause() instanceof InvalidHeaderRowException);
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void mapsAsyncTest_Cancel() throws InterruptedException {
+		File file = createFile("mapsAsyncTest_Cancel");
+		Ssio.save(ITRecord.getHeaderMap(), createRecords(100), file);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		AtomicReference<CompletableFuture<List<Map<String, String>>>> futureRef = new AtomicReference<CompletableFuture<List<Map<String, String>>>>();
+		AtomicInteger rowCount = new AtomicInteger();
+		CountDownLatch started = new CountDownLatch(1);
+		ParseOptions options = new ParseOptions();
+		options.setStreaming(true);
+		options.setRowFilter(row -> {
+			if (rowCount.incrementAndGet() == 10) {
+				futureRef.get().cancel(false);
+			}
+			return true;
+		});
+		try {
+			executor.execute(() -> {
+				try {
+					started.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			futureRef.set(Ssio.parseToMapsAsync(ITRecord.getReverseHeaderMap(), file, null, options, executor));
+			started.countDown();
+		} finally {
+			executor.shutdown();
+		}
+		Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		Assert.assertTrue(futureRef.get().isCancelled());
+		Assert.assertEquals(10, rowCount.get());
+		// the file has been closed
+		Assert.assertTrue(file.delete());
+
+		// cancelled before it starts
+		File another = createFile("mapsAsyncTest_Cancel");
+		Map<String, Object> record = new LinkedHashMap<String, Object>();
+		record.put("str", "str");
+		CompletableFuture<Void> future = Ssio.saveMapsAsync(ITRecord.getHeaderMap(),
+				Collections.singletonList(record), another, null, null, null, command -> {
+				});
+		future.cancel(false);
+		Assert.assertFalse(another.exists());
+	}
+
+	@Test
+	public void parseTest_Streaming_SameAsInMemory() throws InvalidFormatException, InvalidHeaderRowException {
+		for (String resource : Arrays.asList("/parse-test-all-string-cells-input.xlsx", "/parse-test-all-free-type-input.xlsx",
+				"/parse-test-data-half-correct.xlsx")) {
+			byte[] bytes = readResource(resource);
+
+			List<CellError> inMemoryErrors = new ArrayList<CellError>();
+			List<Map<String, String>> inMemory = Ssio.parseToMaps(ITRecord.getReverseHeaderMap(), new ByteArrayInputStream(bytes),
+					inMemoryErrors);
+			List<CellError> streamingErrors = new ArrayList<CellError>();
+			List<Map<String, String>> streaming = Ssio.parseToMaps(ITRecord.getReverseHeaderMap(), new ByteArrayInputStream(bytes),
+					streamingErrors, streamingOptions());
+
+			Assert.assertEquals(resource, inMemory, streaming);
+			Assert.assertEquals(resource, inMemoryErrors.size(), streamingErrors.size());
+		}
+	}
+
+	@Test
+	public void parseTest_Streaming_DataHalfCorrect_File() throws InvalidFormatException, InvalidHeaderRowException {
+		ByteArrayInputStream in = toByteArrayInputStreamAndClose(this.getClass().getResourceAsStream("/parse-test-data-half-correct.xlsx"));
+		File inputFile = createFile("parseTest_Streaming_DataHalfCorrect_File");
+		copyInputToFileAndClose(in, inputFile);
+		List<CellError> cellErrors = new ArrayList<CellError>();
+		List<ITRecord> records = Ssio.parse(ITRecord.getReverseHeaderMap(), inputFile, cellErrors, ITRecord.class, streamingOptions());
+
+		Assert.assertEquals(1, records.size());
+		Assert.assertEquals(123, records.get(0).getPrimInt());
+		Assert.assertEquals(1, cellErrors.size());
+		Assert.assertEquals(2, cellErrors.get(0).getRowIndexOneBased());
+		Assert.assertEquals(3, cellErrors.get(0).getColumnIndexOneBased());
+	}
+
+	@Test(expected = InvalidHeaderRowException.class)
+	public void parseTest_Streaming_InvalidHeader() throws InvalidFormatException, InvalidHeaderRowException {
+		ByteArrayInputStream in = toByteArrayInputStreamAndClose(this.getClass().getResourceAsStream("/parse-test-all-headers-wrong.xlsx"));
+		Ssio.parse(ITRecord.getReverseHeaderMap(), in, null, ITRecord.class, streamingOptions());
+	}
+
+	@Test
+	public void parseTest_Streaming_Excel97() throws InvalidFormatException, InvalidHeaderRowException {
+		// read record by record
+		ByteArrayInputStream in = toByteArrayInputStreamAndClose(this.getClass().getResourceAsStream("/parse-test-excel97.xls"));
+		List<ITRecord> list = Ssio.parse(ITRecord.getReverseHeaderMap(), in, null, ITRecord.class, streamingOptions());
+		Assert.assertEquals((short) 1, list.get(0).getPrimShort());
+	}
+
+	@Test
+	public void parseTest_Streaming_Excel97_SameAsInMemory() throws InvalidFormatException, InvalidHeaderRowException,
+			IOException {
+		HSSFWorkbook workbook = new HSSFWorkbook();
+		CellStyle dateStyle = workbook.createCellStyle();
+		dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd"));
+		Sheet sheet = workbook.createSheet();
+		Row header = sheet.createRow(0);
+		String[] headers = { "Primitive Int", "String", "Big Integer", "Object Long", "Primitive Short" };
+		for (int columnIndex = 0; columnIndex < headers.length; columnIndex++) {
+			header.createCell(columnIndex).setCellValue(headers[columnIndex]);
+		}
+		for (int rowIndex = 1; rowIndex <= 300; rowIndex++) {
+			if (rowIndex % 50 == 0) {
+				// a row without cells
+				sheet.createRow(rowIndex);
+				continue;
+			}
+			Row row = sheet.createRow(rowIndex);
+			row.createCell(0).setCellValue(rowIndex);
+			row.createCell(1).setCellValue(" str" + rowIndex + " ");
+			if (rowIndex % 3 == 0) {
+				Cell dateCell = row.createCell(1);
+				dateCell.setCellValue(new Date(1400000000000L + rowIndex * 86400000L));
+				dateCell.setCellStyle(dateStyle);
+			}
+			row.createCell(2).setCellValue(rowIndex % 2 == 0);
+			row.createCell(3).setCellFormula("A" + (rowIndex + 1) + "*2");
+			row.createCell(4);
+			row.createCell(7).setCellValue(rowIndex * 1.5);
+		}
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		workbook.write(outputStream);
+		File file = createFile("parseTest_Streaming_Excel97_SameAsInMemory");
+		FileUtils.writeByteArrayToFile(file, outputStream.toByteArray());
+		File resourceFile = createFile("parseTest_Streaming_Excel97_SameAsInMemory_Resource");
+		FileUtils.writeByteArrayToFile(resourceFile, readResource("/parse-test-excel97.xls"));
+
+		for (File theFile : new File[] { file, resourceFile }) {
+			List<CellError> inMemoryErrors = new ArrayList<CellError>();
+			List<Map<String, String>> inMemory = Ssio.parseToMaps(ITRecord.getReverseHeaderMap(), theFile,
+					inMemoryErrors, new ParseOptions());
+			List<CellError> streamingErrors = new ArrayList<CellError>();
+			List<Map<String, String>> streaming = Ssio.parseToMaps(ITRecord.getReverseHeaderMap(), theFile,
+					streamingErrors, streamingOptions());
+			Assert.assertEquals(inMemory, streaming);
+			Assert.assertEquals(inMemoryErrors.size(), streamingErrors.size());
+			Assert.assertEquals(streaming, Ssio.parseToMaps(ITRecord.getReverseHeaderMap(), new ByteArrayInputStream(
+					FileUtils.readFileToByteArray(theFile)), null, streamingOptions()));
+		}
+
+		List<ITRecord> inMemory = Ssio.parse(ITRecord.getReverseHeaderMap(), file, null, ITRecord.class);
+		List<ITRecord> streaming = Ssio.parse(ITRecord.getReverseHeaderMap(), file, null, ITRecord.class,
+				streamingOptions());
+		Assert.assertEquals(300, streaming.size());
+		for (int i = 0; i < inMemory.size(); i++) {
+			Assert.assertEquals(inMemory.get(i).getPrimInt(), streaming.get(i).getPrimInt());
+			Assert.assertEquals(inMemory.get(i).getStr(), streaming.get(i).getStr());
+		}
+	}
+
+	@Test
+	public void streamingXlsReaderTest() throws InvalidFormatException, IOException {
+		HSSFWorkbook workbook = new HSSFWorkbook();
+		CellStyle dateStyle = workbook.createCellStyle();
+		dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd hh:mm"));
+		Sheet sheet = workbook.createSheet();
+		Row row0 = sheet.createRow(0);
+		for (int columnIndex = 0; columnIndex < 5; columnIndex++) {
+			row0.createCell(columnIndex).setCellValue("c0" + columnIndex);
+		}
+		Row row1 = sheet.createRow(1);
+		row1.createCell(0).setCellValue(12345);
+		row1.createCell(1).setCellValue(new Date(1400000000000L));
+		row1.getCell(1).setCellStyle(dateStyle);
+		row1.createCell(2).setCellValue(true);
+		row1.createCell(3).setCellFormula("A2+1");
+		row1.createCell(4).setCellValue("  ");
+		sheet.createRow(3);
+		sheet.createRow(5).createCell(2).setCellValue("c52");
+		File file = createFile("streamingXlsReaderTest");
+		try (FileOutputStream out = new FileOutputStream(file)) {
+			workbook.write(out);
+		}
+
+		SepXlsStreamingReader reader = SepXlsStreamingReader.open(file);
+		try {
+			SepSheetRow row = reader.nextRow();
+			Assert.assertEquals(0, row.getRowIndex());
+			Assert.assertEquals(5, row.getLastCellNum());
+			Assert.assertEquals("c04", row.getCellValue(4));
+
+			row = reader.nextRow();
+			Assert.assertEquals(1, row.getRowIndex());
+			Assert.assertEquals(SepCellType.NUMERIC, row.getCellType(0));
+			Assert.assertEquals(12345d, row.getNumericCellValue(0));
+			Assert.assertEquals(SepCellType.DATE, row.getCellType(1));
+			Assert.assertEquals(new Date(1400000000000L), row.getCellValue(1));
+			Assert.assertEquals("true", row.getCellValue(2));
+			Assert.assertEquals(SepCellType.BLANK, row.getCellType(3));
+			Assert.assertEquals(SepCellType.BLANK, row.getCellType(4));
+
+			BitSet columnIndexes = new BitSet();
+			columnIndexes.set(0);
+			reader.setColumnProjection(columnIndexes);
+			row = reader.nextRow();
+			Assert.assertEquals(3, row.getRowIndex());
+			Assert.assertEquals(-1, row.getLastCellNum());
+			row = reader.nextRow();
+			Assert.assertEquals(5, row.getRowIndex());
+			Assert.assertEquals(3, row.getLastCellNum());
+			Assert.assertNull(row.getCellValue(2));
+			Assert.assertNull(reader.nextRow());
+		} finally {
+			reader.close();
+		}
+		Assert.assertTrue(file.delete());
+	}
+
+	@Test
+	public void parseAsStreamTest_Limit() throws InvalidFormatException, InvalidHeaderRowException {
+		File file = createFile("parseAsStreamTest_Limit");
+		Ssio.save(ITRecord.getHeaderMap(), createRecords(100), file);
+
+		List<CellError> cellErrors = new ArrayList<CellError>();
+		try (Stream<ITRecord> stream = Ssio.parseAsStream(ITRecord.getReverseHeaderMap(), file, cellErrors, ITRecord.class)) {
+			List<ITRecord> records = stream.limit(3).collect(Collectors.toList());
+			Assert.assertEquals(3, records.size());
+			Assert.assertEquals(0, records.get(0).getPrimInt());
+			Assert.assertEquals(2, records.get(2).getPrimInt());
+			Assert.assertEquals("str2", records.get(2).getStr());
+		}
+		Assert.assertEquals(0, cellErrors.size());
+	}
+
+	@Test
+	public void parseAsIteratorTest() throws InvalidFormatException, InvalidHeaderRowException {
+		ByteArrayInputStream in = toByteArrayInputStreamAndClose(this.getClass().getResourceAsStream("/parse-test-data-half-correct.xlsx"));
+		List<CellError> cellErrors = new ArrayList<CellError>();
+		try (RecordIterator<ITRecord> iterator = Ssio.parseAsIterator(ITRecord.getReverseHeaderMap(), in, cellErrors, ITRecord.class)) {
+			// nothing is converted before it is pulled
+			Assert.assertEquals(0, cellErrors.size());
+
+			Assert.assertTrue(iterator.hasNext());
+			Assert.assertEquals(123, iterator.next().getPrimInt());
+			Assert.assertEquals(1, cellErrors.size());
+			Assert.assertFalse(iterator.hasNext());
+		}
+	}
+
+	@Test
+	public void parseToMapsAsStreamTest() throws InvalidFormatException, InvalidHeaderRowException {
+		ByteArrayInputStream in = toByteArrayInputStreamAndClose(this.getClass().getResourceAsStream("/parse-test-data-half-correct.xlsx"));
+		try (Stream<Map<String, String>> stream = Ssio.parseToMapsAsStream(ITRecord.getReverseHeaderMap(), in, null)) {
+			List<Map<String, String>> records = stream.collect(Collectors.toList());
+			Assert.assertEquals(1, records.size());
+			Assert.assertEquals("abc", records.get(0).get("primLong"));
+		}
+	}
+
+	@Test(expected = InvalidHeaderRowException.class)
+	public void parseAsStreamTest_InvalidHeader() throws InvalidFormatException, InvalidHeaderRowException {
+		ByteArrayInputStream in = toByteArrayInputStreamAndClose(this.getClass().getResourceAsStream("/parse-test-all-headers-wrong.xlsx"));
+		Ssio.parseAsStream(ITRecord.getReverseHeaderMap(), in, null, ITRecord.class);
+	}
+
+	private List<ITRecord> createRecords(int count) {
+		List<ITRecord> records = new ArrayList<ITRecord>();
+		for (int i = 0; i < count; i++) {
+			ITRecord record = new ITRecord();
+			record.setPrimInt(i);
+			record.setStr("str" + i);
+			records.add(record);
+		}
+		return records;
+	}
+
+	private ParseOptions streamingOptions() {
+		ParseOptions options = new ParseOptions();
+		options.setStreaming(true);
+		return options;
+	}
+
+	private byte[] readResource(String resource) {
+		InputStream in = this.getClass().getResourceAsStream(resource);
+		try {
+			return IOUtils.toByteArray(in);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		} finally {
+			IOUtils.closeQuietly(in);
+		}
+	}
+
 	// read an outside input stream as bytes and then close it, so as to avoid
 	// try/finally snippet code in every parsing test
 	// method
@@ -922,6 +2517,36 @@ public class SsioIntegrationTest {
 
 	}
 
+	private File createTempDir(String prefix) {
+		File dir = new File(System.getProperty("java.io.tmpdir"), "/sep4j-it-test/" + prefix + "-" + System.nanoTime());
+		dir.mkdirs();
+		return dir;
+	}
+
+	private static String readZipEntry(File file, String entryName) throws IOException {
+		try (ZipFile zip = new ZipFile(file)) {
+			return IOUtils.toString(zip.getInputStream(zip.getEntry(entryName)), "UTF-8");
+		}
+	}
+
+	private static void replaceZipEntry(File file, String entryName, String content) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ZipFile zip = new ZipFile(file); ZipOutputStream zipOut = new ZipOutputStream(bytes)) {
+			Enumeration<? extends ZipEntry> entries = zip.entries();
+			while (entries.hasMoreElements()) {
+				ZipEntry entry = entries.nextElement();
+				zipOut.putNextEntry(new ZipEntry(entry.getName()));
+				if (entry.getName().equals(entryName)) {
+					zipOut.write(content.getBytes("UTF-8"));
+				} else {
+					IOUtils.copy(zip.getInputStream(entry), zipOut);
+				}
+				zipOut.closeEntry();
+			}
+		}
+		FileUtils.writeByteArrayToFile(file, bytes.toByteArray());
+	}
+
 	private File createFile(String prefix) {
 		File dir = new File(System.getProperty("java.io.tmpdir"), "/sep4j-it-test");
 		dir.mkdirs();
@@ -1137,6 +2762,19 @@ public class SsioIntegrationTest {
 
 	}
 
+	private static void writeSheet(Workbook workbook, String sheetName, String intHeader, String strHeader,
+			int rowCount) {
+		Sheet sheet = workbook.createSheet(sheetName);
+		Row headerRow = sheet.createRow(0);
+		headerRow.createCell(0).setCellValue(intHeader);
+		headerRow.createCell(1).setCellValue(strHeader);
+		for (int i = 0; i < rowCount; i++) {
+			Row row = sheet.createRow(i + 1);
+			row.createCell(0).setCellValue(i);
+			row.createCell(1).setCellValue(sheetName + i);
+		}
+	}
+
 	private static <K, V> LinkedHashMap<V, K> reverse(Map<K, V> origMap) {
 		LinkedHashMap<V, K> newMap = new LinkedHashMap<V, K>();
 		if (origMap == null) {
@@ -3,6 +3,8 @@ package org.sep4j.support;
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
 import static org.sep4j.support.SepBasicTypeConverts.retainWholeIfDecimalPartZero;
 
 import java.math.BigDecimal;
@@ -51,6 +53,95 @@ public class SepBasicTypeConvertsTest {
 		assertFalse(SepBasicTypeConverts.canFromThisString("ab123", Object.class));
 	}
 
+	@Test
+	public void tryFromThisStringTest() {
+		assertEquals(123, SepBasicTypeConverts.tryFromThisString("123.0", int.class));
+		assertEquals(-1.5d, SepBasicTypeConverts.tryFromThisString(" -1.5 ", double.class));
+		assertEquals(Float.POSITIVE_INFINITY, SepBasicTypeConverts.tryFromThisString("Infinity", float.class));
+		assertEquals(2.0f, SepBasicTypeConverts.tryFromThisString("2f", float.class));
+		assertEquals(new BigDecimal("1.5E+3"), SepBasicTypeConverts.tryFromThisString("1.5E+3", BigDecimal.class));
+		assertNull(SepBasicTypeConverts.tryFromThisString(null, Integer.class));
+
+		assertSame(SepBasicTypeConverts.NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromThisString("abc", int.class));
+		assertSame(SepBasicTypeConverts.NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromThisString("abc", double.class));
+		assertSame(SepBasicTypeConverts.NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromThisString("2024-01-05", double.class));
+		assertSame(SepBasicTypeConverts.NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromThisString("3 pcs", float.class));
+		assertSame(SepBasicTypeConverts.NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromThisString("NaNa", double.class));
+		assertSame(SepBasicTypeConverts.NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromThisString("0x1F", double.class));
+		assertEquals(Double.NaN, SepBasicTypeConverts.tryFromThisString("-NaN", double.class));
+		assertEquals(8.0d, SepBasicTypeConverts.tryFromThisString("0x1p3", double.class));
+		assertEquals(1.5d, SepBasicTypeConverts.tryFromThisString("1.5d", double.class));
+		assertSame(SepBasicTypeConverts.NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromThisString("1e", BigDecimal.class));
+		assertSame(SepBasicTypeConverts.NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromThisString(String.valueOf(LONG_MAX_PLUS_ONE), long.class));
+		assertSame(SepBasicTypeConverts.NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromThisString(null, int.class));
+		assertSame(SepBasicTypeConverts.NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromThisString("1", Object.class));
+	}
+
+	@Test
+	public void tryFromThisStringTest_IntegralsSameAsBigInteger() {
+		String[] strs = { "0", "-0", "+0", "007", "3", "+3", "-3", "3.", "3.00", "-3.0", "3.02", ".0", "-.0", "0.000",
+				"1E2", "-1E2", "1.5E1", "1.5E+1", "15E-1", "150E-1", "1E-1", "0E-5", "-0E-5", "0E+5", "1.23457E+17",
+				"9223372036854775807", "9223372036854775808", "-9223372036854775808", "-9223372036854775809",
+				"9223372036854775807.0", "92233720368547758.07E2", "32767", "32768", "-32768", "-32769", "2147483648",
+				"1E19", "1E18", "1E999", "0E999", "1E-999", "abc", "", "-", "1e", " 1", "1 ", "1,000" };
+		for (String str : strs) {
+			for (Class<?> type : new Class<?>[] { short.class, int.class, long.class, BigInteger.class }) {
+				Object expected = parseIntegralWithBigInteger(str, type);
+				Object actual = SepBasicTypeConverts.tryFromThisString(str, type);
+				assertEquals(str + " to " + type, expected, actual);
+			}
+		}
+	}
+
+	/**
+	 * the way it was done before: two parsings
+	 */
+	private static Object parseIntegralWithBigInteger(String str, Class<?> type) {
+		String whole = retainWholeIfDecimalPartZero(str);
+		if (!SepBasicTypeConverts.isIntegerSyntax(whole)) {
+			return SepBasicTypeConverts.NOT_CONVERTIBLE;
+		}
+		BigInteger bi = new BigInteger(whole);
+		if (type == BigInteger.class) {
+			return bi;
+		}
+		if (type == short.class) {
+			return bi.bitLength() > 15 ? SepBasicTypeConverts.NOT_CONVERTIBLE : bi.shortValue();
+		}
+		if (type == int.class) {
+			return bi.bitLength() > 31 ? SepBasicTypeConverts.NOT_CONVERTIBLE : bi.intValue();
+		}
+		return bi.bitLength() > 63 ? SepBasicTypeConverts.NOT_CONVERTIBLE : bi.longValue();
+	}
+
+	@Test
+	public void isDecimalSyntaxTest() {
+		assertTrue(SepBasicTypeConverts.isDecimalSyntax("1"));
+		assertTrue(SepBasicTypeConverts.isDecimalSyntax("-1."));
+		assertTrue(SepBasicTypeConverts.isDecimalSyntax("+.5"));
+		assertTrue(SepBasicTypeConverts.isDecimalSyntax("1.23457E+17"));
+		assertTrue(SepBasicTypeConverts.isDecimalSyntax("1e-3"));
+
+		assertFalse(SepBasicTypeConverts.isDecimalSyntax(null));
+		assertFalse(SepBasicTypeConverts.isDecimalSyntax(""));
+		assertFalse(SepBasicTypeConverts.isDecimalSyntax("."));
+		assertFalse(SepBasicTypeConverts.isDecimalSyntax("-"));
+		assertFalse(SepBasicTypeConverts.isDecimalSyntax("1e"));
+		assertFalse(SepBasicTypeConverts.isDecimalSyntax(" 1"));
+		assertFalse(SepBasicTypeConverts.isDecimalSyntax("1,000"));
+	}
+
+	@Test
+	public void isIntegerSyntaxTest() {
+		assertTrue(SepBasicTypeConverts.isIntegerSyntax("123"));
+		assertTrue(SepBasicTypeConverts.isIntegerSyntax("-123"));
+		assertTrue(SepBasicTypeConverts.isIntegerSyntax("+123"));
+
+		assertFalse(SepBasicTypeConverts.isIntegerSyntax(null));
+		assertFalse(SepBasicTypeConverts.isIntegerSyntax("+"));
+		assertFalse(SepBasicTypeConverts.isIntegerSyntax("1.0"));
+	}
+
 	@Test
 	public void shortTypeTest() {
 
@@ -242,4 +333,28 @@ public class SepBasicTypeConvertsTest {
 	}
 	
 	
+	@Test
+	public void tryFromDoubleTest() {
+		assertEquals(12345678, SepBasicTypeConverts.tryFromDouble(12345678d, int.class));
+		assertEquals(Integer.valueOf(-3), SepBasicTypeConverts.tryFromDouble(-3d, Integer.class));
+		assertEquals(10000000000L, SepBasicTypeConverts.tryFromDouble(1e10, long.class));
+		assertEquals((short) 42, SepBasicTypeConverts.tryFromDouble(42d, Short.class));
+		assertEquals(1.5f, SepBasicTypeConverts.tryFromDouble(1.5, float.class));
+		assertEquals(1.5, SepBasicTypeConverts.tryFromDouble(1.5, Double.class));
+		assertEquals(new BigDecimal("0.1"), SepBasicTypeConverts.tryFromDouble(0.1, BigDecimal.class));
+		assertEquals(new BigInteger("1000000000000000"), SepBasicTypeConverts.tryFromDouble(1e15, BigInteger.class));
+
+		// not whole, out of range, or not a numeric type. The last is left to
+		// the string conversion by the callers
+		assertSame(SepBasicTypeConverts.NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromDouble(1.5, int.class));
+		assertSame(SepBasicTypeConverts.NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromDouble(1.5, BigInteger.class));
+		assertSame(SepBasicTypeConverts.NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromDouble(1e10, int.class));
+		assertSame(SepBasicTypeConverts.NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromDouble(40000d, short.class));
+		assertSame(SepBasicTypeConverts.NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromDouble(0x1p63, long.class));
+		assertSame(SepBasicTypeConverts.NOT_CONVERTIBLE,
+				SepBasicTypeConverts.tryFromDouble(Double.NaN, BigDecimal.class));
+		assertSame(SepBasicTypeConverts.NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromDouble(1d, boolean.class));
+		assertSame(SepBasicTypeConverts.NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromDouble(1d, String.class));
+	}
+
 }
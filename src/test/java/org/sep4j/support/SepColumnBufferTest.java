@@ -0,0 +1,118 @@
+package org.sep4j.support;
+
+import java.util.Arrays;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author chenjianjx
+ *
+ *
+ */
+public class SepColumnBufferTest {
+
+	@Test
+	public void addTest_Double() {
+		SepColumnBuffer buffer = new SepColumnBuffer(double.class);
+		buffer.add(row(SepCellType.NUMERIC, null, 1.5), 0);
+		buffer.add(row(SepCellType.BLANK, null, 0), 0);
+		buffer.add(row(SepCellType.STRING, "2.5", 0), 0);
+		buffer.trim();
+
+		Assert.assertEquals(3, buffer.size());
+		Assert.assertTrue(Arrays.equals(new double[] { 1.5, 0, 2.5 }, buffer.getDoubles()));
+		Assert.assertFalse(buffer.isNull(0));
+		Assert.assertTrue(buffer.isNull(1));
+		Assert.assertEquals(1, buffer.getNulls().cardinality());
+	}
+
+	@Test
+	public void addTest_Integral() {
+		SepColumnBuffer buffer = new SepColumnBuffer(int.class);
+		buffer.add(row(SepCellType.NUMERIC, null, 42), 0);
+		buffer.add(row(SepCellType.STRING, "-7", 0), 0);
+		buffer.trim();
+		Assert.assertTrue(Arrays.equals(new int[] { 42, -7 }, buffer.getInts()));
+
+		// not whole, or out of range
+		for (double v : new double[] { 1.5, 1e10 }) {
+			try {
+				buffer.add(row(SepCellType.NUMERIC, null, v), 0);
+				Assert.fail();
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+		Assert.assertEquals(2, buffer.size());
+
+		SepColumnBuffer longBuffer = new SepColumnBuffer(long.class);
+		longBuffer.add(row(SepCellType.NUMERIC, null, 1e10), 0);
+		Assert.assertEquals(10000000000L, longBuffer.getLongs()[0]);
+	}
+
+	@Test
+	public void addTest_Boolean() {
+		SepColumnBuffer buffer = new SepColumnBuffer(boolean.class);
+		buffer.add(row(SepCellType.BOOLEAN, "true", 0), 0);
+		buffer.add(row(SepCellType.STRING, "false", 0), 0);
+		buffer.trim();
+		Assert.assertTrue(Arrays.equals(new boolean[] { true, false }, buffer.getBooleans()));
+	}
+
+	@Test
+	public void addTest_StringsEncoded() {
+		SepColumnBuffer buffer = new SepColumnBuffer(String.class);
+		buffer.add(row(SepCellType.STRING, "a", 0), 0);
+		buffer.add(row(SepCellType.STRING, new String("a"), 0), 0);
+		buffer.addNull();
+		buffer.add(row(SepCellType.NUMERIC, "3.0", 3), 0);
+		buffer.trim();
+
+		Assert.assertEquals(Arrays.asList("a", "3.0"), buffer.getDictionary());
+		Assert.assertTrue(Arrays.equals(new int[] { 0, 0, -1, 1 }, buffer.getCodes()));
+		String[] strings = buffer.getStrings();
+		Assert.assertSame(strings[0], strings[1]);
+		Assert.assertNull(strings[2]);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void addTest_NotConvertible() {
+		new SepColumnBuffer(double.class).add(row(SepCellType.STRING, "abc", 0), 0);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void getTest_WrongType() {
+		new SepColumnBuffer(double.class).getLongs();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void constructTest_Unsupported() {
+		new SepColumnBuffer(Double.class);
+	}
+
+	private static SepSheetRow row(final SepCellType type, final Object value, final double number) {
+		return new SepSheetRow() {
+			public int getRowIndex() {
+				return 1;
+			}
+
+			public int getLastCellNum() {
+				return 1;
+			}
+
+			public Object getCellValue(int columnIndex) {
+				return value;
+			}
+
+			public SepCellType getCellType(int columnIndex) {
+				return type;
+			}
+
+			public double getNumericCellValue(int columnIndex) {
+				return number;
+			}
+		};
+	}
+}
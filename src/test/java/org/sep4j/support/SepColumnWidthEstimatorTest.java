@@ -0,0 +1,53 @@
+package org.sep4j.support;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author chenjianjx
+ *
+ *
+ */
+public class SepColumnWidthEstimatorTest {
+
+	@Test
+	public void observeTest() {
+		SepColumnWidthEstimator estimator = new SepColumnWidthEstimator(3);
+		Assert.assertTrue(estimator.observe(new String[] { "Id", "Name", "" }));
+		Assert.assertFalse(estimator.observe(new String[] { "1", "Tom", "" }));
+		Assert.assertTrue(estimator.observe(new String[] { "2", "Jerry Jerry", "x", "extra" }));
+
+		// out of the sample
+		Assert.assertFalse(estimator.observe(new String[] { "3", "A very very long name", "x" }));
+
+		Assert.assertEquals(4, estimator.getColumnCount());
+		Assert.assertEquals(3 * 256, estimator.getWidth(0));
+		Assert.assertEquals(12 * 256, estimator.getWidth(1));
+		Assert.assertEquals(2 * 256, estimator.getWidth(2));
+		Assert.assertEquals(6 * 256, estimator.getWidth(3));
+		Assert.assertEquals(-1, estimator.getWidth(4));
+	}
+
+	@Test
+	public void getWidthTest_EmptyColumn() {
+		SepColumnWidthEstimator estimator = new SepColumnWidthEstimator(10);
+		estimator.observe(new String[] { "", "a" });
+		Assert.assertEquals(-1, estimator.getWidth(0));
+	}
+
+	@Test
+	public void getWidthTest_TooWide() {
+		SepColumnWidthEstimator estimator = new SepColumnWidthEstimator(10);
+		estimator.observe(new String[] { new String(new char[1000]).replace('\0', 'a') });
+		Assert.assertEquals(255 * 256, estimator.getWidth(0));
+	}
+
+	@Test
+	public void displayWidthTest() {
+		Assert.assertEquals(0, SepColumnWidthEstimator.displayWidth(null));
+		Assert.assertEquals(3, SepColumnWidthEstimator.displayWidth("abc"));
+		Assert.assertEquals(4, SepColumnWidthEstimator.displayWidth("中文"));
+		Assert.assertEquals(5, SepColumnWidthEstimator.displayWidth("ab\r\nabcde\nabc"));
+	}
+}
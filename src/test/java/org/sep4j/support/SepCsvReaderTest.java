@@ -0,0 +1,82 @@
+package org.sep4j.support;
+
+import java.io.StringReader;
+import java.util.BitSet;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author chenjianjx
+ *
+ *
+ */
+public class SepCsvReaderTest {
+
+	@Test
+	public void nextRowTest() {
+		SepCsvReader reader = reader("\uFEFFa,b , c\r\n\"x,1\",\"say \"\"hi\"\"\",\n\n  \"multi\nline\" ,last\r\n", ',');
+
+		SepSheetRow row = reader.nextRow();
+		Assert.assertEquals(0, row.getRowIndex());
+		Assert.assertEquals(3, row.getLastCellNum());
+		Assert.assertEquals("a", row.getCellValue(0));
+		Assert.assertEquals("b", row.getCellValue(1));
+		Assert.assertEquals("c", row.getCellValue(2));
+
+		row = reader.nextRow();
+		Assert.assertEquals(1, row.getRowIndex());
+		Assert.assertEquals("x,1", row.getCellValue(0));
+		Assert.assertEquals("say \"hi\"", row.getCellValue(1));
+		Assert.assertNull(row.getCellValue(2));
+		Assert.assertEquals(SepCellType.BLANK, row.getCellType(2));
+		Assert.assertEquals(SepCellType.STRING, row.getCellType(1));
+
+		// the empty line is skipped but counted
+		row = reader.nextRow();
+		Assert.assertEquals(3, row.getRowIndex());
+		Assert.assertEquals("multi\nline", row.getCellValue(0));
+		Assert.assertEquals("last", row.getCellValue(1));
+
+		Assert.assertNull(reader.nextRow());
+		Assert.assertNull(reader.nextRow());
+	}
+
+	@Test
+	public void nextRowTest_Tsv() {
+		SepCsvReader reader = reader("a\tb,c\t\"d\"", '\t');
+		SepSheetRow row = reader.nextRow();
+		Assert.assertEquals(3, row.getLastCellNum());
+		Assert.assertEquals("b,c", row.getCellValue(1));
+		Assert.assertEquals("d", row.getCellValue(2));
+		Assert.assertNull(reader.nextRow());
+	}
+
+	@Test
+	public void nextRowTest_QuoteInsideField() {
+		SepCsvReader reader = reader("ab\"c,d", ',');
+		SepSheetRow row = reader.nextRow();
+		Assert.assertEquals("ab\"c", row.getCellValue(0));
+		Assert.assertEquals("d", row.getCellValue(1));
+	}
+
+	@Test
+	public void setColumnProjectionTest() {
+		SepCsvReader reader = reader("h0,h1,h2\nv0,\"v,1\",v2\n", ',');
+		Assert.assertEquals("h0", reader.nextRow().getCellValue(0));
+		BitSet columnIndexes = new BitSet();
+		columnIndexes.set(2);
+		reader.setColumnProjection(columnIndexes);
+
+		SepSheetRow row = reader.nextRow();
+		Assert.assertEquals(3, row.getLastCellNum());
+		Assert.assertNull(row.getCellValue(0));
+		Assert.assertNull(row.getCellValue(1));
+		Assert.assertEquals("v2", row.getCellValue(2));
+	}
+
+	private SepCsvReader reader(String text, char delimiter) {
+		return new SepCsvReader(new StringReader(text), delimiter, null);
+	}
+}
@@ -0,0 +1,38 @@
+package org.sep4j.support;
+
+import java.io.StringWriter;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author chenjianjx
+ *
+ *
+ */
+public class SepCsvWriterTest {
+
+	@Test
+	public void writeRowTest() {
+		StringWriter text = new StringWriter();
+		SepCsvWriter writer = new SepCsvWriter(text, ',');
+		writer.writeRow(0, new String[] { "a", "b" }, new SepCellStyleType[] { SepCellStyleType.HEADER,
+				SepCellStyleType.HEADER });
+		writer.writeRow(1, new String[] { "x,1", "say \"hi\"", "multi\nline", "" }, new SepCellStyleType[] {
+				SepCellStyleType.NORMAL, SepCellStyleType.NORMAL, SepCellStyleType.NORMAL,
+				SepCellStyleType.DATUM_ERROR });
+		writer.flush();
+		Assert.assertEquals("a,b\r\n\"x,1\",\"say \"\"hi\"\"\",\"multi\nline\",\r\n", text.toString());
+	}
+
+	@Test
+	public void writeRowTest_Tsv() {
+		StringWriter text = new StringWriter();
+		SepCsvWriter writer = new SepCsvWriter(text, '\t');
+		writer.writeRow(0, new String[] { "a,b", "c\td" }, new SepCellStyleType[] { SepCellStyleType.NORMAL,
+				SepCellStyleType.NORMAL });
+		writer.flush();
+		Assert.assertEquals("a,b\t\"c\td\"\r\n", text.toString());
+	}
+}
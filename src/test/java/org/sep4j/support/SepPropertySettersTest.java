@@ -0,0 +1,116 @@
+package org.sep4j.support;
+
+import java.util.Date;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author chenjianjx
+ *
+ *
+ */
+public class SepPropertySettersTest {
+
+	@Test
+	public void ofTest_Cached() {
+		SepPropertySetters setters = SepPropertySetters.of(Item.class, "count");
+		Assert.assertSame(setters, SepPropertySetters.of(Item.class, "count"));
+		Assert.assertNotSame(setters, SepPropertySetters.of(Item.class, "name"));
+		Assert.assertEquals("count", setters.getPropName());
+	}
+
+	@Test
+	public void setPropertyTest() {
+		Item item = new Item();
+		SepPropertySetters.of(Item.class, "count").setProperty(item, "12");
+		Assert.assertEquals(12, item.getCount());
+
+		SepPropertySetters.of(Item.class, "name").setProperty(item, "abc");
+		Assert.assertEquals("abc", item.getName());
+		SepPropertySetters.of(Item.class, "name").setProperty(item, null);
+		Assert.assertNull(item.getName());
+
+		Date now = new Date();
+		SepPropertySetters.of(Item.class, "createdAt").setProperty(item, now);
+		Assert.assertEquals(now, item.getCreatedAt());
+	}
+
+	@Test
+	public void setNumericPropertyTest() {
+		Item item = new Item();
+		// String.valueOf(12345678.0) is "1.2345678E7", which is not an int
+		SepPropertySetters.of(Item.class, "count").setNumericProperty(item, 12345678d);
+		Assert.assertEquals(12345678, item.getCount());
+
+		// a string property still takes the string form
+		SepPropertySetters.of(Item.class, "name").setNumericProperty(item, 42d);
+		Assert.assertEquals("42.0", item.getName());
+
+		// a non-numeric property takes the string form too, e.g.
+		// Boolean.valueOf("1.0")
+		item.setActive(true);
+		SepPropertySetters.of(Item.class, "active").setNumericProperty(item, 1d);
+		Assert.assertFalse(item.isActive());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void setNumericPropertyTest_NotWhole() {
+		SepPropertySetters.of(Item.class, "count").setNumericProperty(new Item(), 1.5);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void setPropertyTest_NullToPrimitive() {
+		SepPropertySetters.of(Item.class, "count").setProperty(new Item(), null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void setPropertyTest_NotConvertible() {
+		SepPropertySetters.of(Item.class, "count").setProperty(new Item(), "abc");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void setPropertyTest_NoSetter() {
+		SepPropertySetters.of(Item.class, "noSuchProp").setProperty(new Item(), "abc");
+	}
+
+	private static final class Item {
+		private String name;
+		private int count;
+		private Date createdAt;
+		private boolean active;
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public int getCount() {
+			return count;
+		}
+
+		public void setCount(int count) {
+			this.count = count;
+		}
+
+		public Date getCreatedAt() {
+			return createdAt;
+		}
+
+		public void setCreatedAt(Date createdAt) {
+			this.createdAt = createdAt;
+		}
+
+		public boolean isActive() {
+			return active;
+		}
+
+		public void setActive(boolean active) {
+			this.active = active;
+		}
+	}
+}
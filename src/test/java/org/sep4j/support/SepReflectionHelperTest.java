@@ -1,5 +1,6 @@
 package org.sep4j.support;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.List;
 
@@ -64,6 +65,107 @@ public class SepReflectionHelperTest {
 	
  
 
+	@Test
+	public void toGetterAccessorTest() throws Exception {
+		PublicBook book = new PublicBook();
+		book.setPageCount(159);
+		book.setPublished(true);
+		Assert.assertEquals(159, SepReflectionHelper.toGetterAccessor(PublicBook.class.getMethod("getPageCount")).apply(book));
+		Assert.assertEquals(Boolean.TRUE, SepReflectionHelper.toGetterAccessor(PublicBook.class.getMethod("isPublished")).apply(book));
+
+		// falls back to reflection for a private class
+		Book privateBook = new Book();
+		privateBook.setName("Stars");
+		Assert.assertEquals("Stars", SepReflectionHelper.toGetterAccessor(Book.class.getMethod("getName")).apply(privateBook));
+	}
+
+	@Test
+	public void toSetterAccessorTest() throws Exception {
+		PublicBook book = new PublicBook();
+		SepReflectionHelper.toSetterAccessor(PublicBook.class.getMethod("setPageCount", int.class)).accept(book, 159);
+		Assert.assertEquals(159, book.getPageCount());
+
+		Book privateBook = new Book();
+		SepReflectionHelper.toSetterAccessor(Book.class.getMethod("setPageCount", int.class)).accept(privateBook, 159);
+		Assert.assertEquals(159, privateBook.getPageCount());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void toSetterAccessorTest_NullToPrimitive() throws Exception {
+		SepReflectionHelper.toSetterAccessor(PublicBook.class.getMethod("setPageCount", int.class)).accept(new PublicBook(), null);
+	}
+
+	@Test
+	public void toSetterAccessorTest_Widening() throws Exception {
+		PublicBook book = new PublicBook();
+		SepReflectionHelper.toSetterAccessor(PublicBook.class.getMethod("setPageCount", int.class)).accept(book, (short) 159);
+		Assert.assertEquals(159, book.getPageCount());
+	}
+
+	@Test
+	public void accessorTest_ExceptionsOfMethodBody() throws Exception {
+		// generated and reflective accessors report the same way
+		for (Class<?> clazz : new Class<?>[] { PublicBook.class, Book.class }) {
+			Object book = clazz == PublicBook.class ? new PublicBook() : new Book();
+			try {
+				SepReflectionHelper.toGetterAccessor(clazz.getMethod("getBroken")).apply(book);
+				Assert.fail();
+			} catch (IllegalStateException e) {
+				Assert.assertTrue(e.getCause() instanceof InvocationTargetException);
+				Assert.assertTrue(e.getCause().getCause() instanceof UnsupportedOperationException);
+			}
+			try {
+				SepReflectionHelper.toSetterAccessor(clazz.getMethod("setBroken", String.class)).accept(book, "x");
+				Assert.fail();
+			} catch (IllegalStateException e) {
+				Assert.assertTrue(e.getCause() instanceof InvocationTargetException);
+				Assert.assertTrue(e.getCause().getCause() instanceof ClassCastException);
+			}
+			try {
+				SepReflectionHelper.toSetterAccessor(clazz.getMethod("setBroken", String.class)).accept(book, 1);
+				Assert.fail();
+			} catch (IllegalArgumentException e) {
+				// a wrong type of value
+			}
+		}
+	}
+
+	@Test
+	public void findGetterAccessorByPropNameTest() {
+		Assert.assertNotNull(SepReflectionHelper.findGetterAccessorByPropName(PublicBook.class, "pageCount"));
+		Assert.assertNotNull(SepReflectionHelper.findGetterAccessorByPropName(PublicBook.class, "published"));
+		Assert.assertNull(SepReflectionHelper.findGetterAccessorByPropName(PublicBook.class, "noSuchProp"));
+	}
+
+	public static final class PublicBook {
+		private int pageCount;
+		private boolean published;
+
+		public int getPageCount() {
+			return pageCount;
+		}
+
+		public void setPageCount(int pageCount) {
+			this.pageCount = pageCount;
+		}
+
+		public boolean isPublished() {
+			return published;
+		}
+
+		public void setPublished(boolean published) {
+			this.published = published;
+		}
+
+		public String getBroken() {
+			throw new UnsupportedOperationException();
+		}
+
+		public void setBroken(String broken) {
+			throw new ClassCastException();
+		}
+	}
+
 	@SuppressWarnings("unused")
 	private static final class Book {
 		private Long id;
@@ -130,6 +232,14 @@ public class SepReflectionHelperTest {
 			this.published = published;
 		}
 
+		public String getBroken() {
+			throw new UnsupportedOperationException();
+		}
+
+		public void setBroken(String broken) {
+			throw new ClassCastException();
+		}
+
 	}
 
 }